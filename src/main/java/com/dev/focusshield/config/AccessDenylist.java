@@ -0,0 +1,186 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.dto.UserStatusChange;
+import com.dev.focusshield.entities.AccountStatus;
+import com.dev.focusshield.entities.RevokedTokenEntity;
+import com.dev.focusshield.repositories.RevokedTokenRepository;
+import com.dev.focusshield.repositories.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Liste en mémoire des comptes bloqués/bannis et des access tokens révoqués, consultée par
+ * {@link JwtAuthenticationFilter} à chaque requête sans aller-retour en base.
+ *
+ * <p>La liste est chargée au démarrage, mise à jour au commit des changements faits sur ce nœud, puis
+ * rafraîchie périodiquement de façon incrémentale (watermarks {@code users.status_changed_at} et
+ * {@code revoked_tokens.revoked_at}) pour propager les changements faits par les autres nœuds.
+ */
+@Component
+public class AccessDenylist implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(AccessDenylist.class);
+
+    public static final Set<AccountStatus> DENIED_STATUSES = EnumSet.of(AccountStatus.BLOCKED, AccountStatus.BANNED);
+
+    private final UserRepository userRepository;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    // Recouvrement appliqué aux watermarks pour ne pas rater une transaction commitée en retard (l'application est idempotente)
+    private final Duration refreshOverlap;
+
+    private final Set<UUID> deniedUsers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>(); // jti -> expiration (epoch millis)
+
+    private volatile LocalDateTime userWatermark = LocalDateTime.now();
+    private volatile LocalDateTime tokenWatermark = LocalDateTime.now();
+
+    public AccessDenylist(UserRepository userRepository,
+                          RevokedTokenRepository revokedTokenRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${security.denylist.refresh-overlap-ms:60000}") long refreshOverlapMs,
+                          MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.eventPublisher = eventPublisher;
+        this.refreshOverlap = Duration.ofMillis(refreshOverlapMs);
+        Gauge.builder("focusshield.denylist.users", deniedUsers, Set::size).register(meterRegistry);
+        Gauge.builder("focusshield.denylist.tokens", revokedTokens, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Chemin critique du filtre JWT : deux lookups O(1), aucune allocation.
+     *
+     * @return true si le compte est bloqué/banni ou si le token a été révoqué
+     */
+    public boolean isDenied(VerifiedToken token) {
+        return (!deniedUsers.isEmpty() && deniedUsers.contains(token.universalId()))
+                || (token.tokenId() != null && !revokedTokens.isEmpty() && revokedTokens.containsKey(token.tokenId()));
+    }
+
+    public boolean isUserDenied(UUID universalId) {
+        return deniedUsers.contains(universalId);
+    }
+
+    /**
+     * Applique localement un changement de statut une fois la transaction courante commitée (immédiatement hors
+     * transaction) : un changement annulé par un rollback ne doit jamais atteindre la liste de ce nœud, que le
+     * rafraîchissement ne corrigerait pas (il ne lit que les lignes commitées).
+     */
+    public void applyStatusAfterCommit(UUID universalId, AccountStatus status) {
+        afterCommit(() -> applyStatus(universalId, status));
+    }
+
+    /**
+     * Applique localement un changement de statut commité (les autres nœuds le récupèrent au prochain rafraîchissement).
+     * Un nouveau blocage ferme aussi les connexions longues du compte ({@link AccessRevokedEvent}).
+     */
+    public void applyStatus(UUID universalId, AccountStatus status) {
+        if (DENIED_STATUSES.contains(status)) {
+            if (deniedUsers.add(universalId)) {
+                eventPublisher.publishEvent(new AccessRevokedEvent(universalId, null));
+            }
+        } else {
+            deniedUsers.remove(universalId);
+        }
+    }
+
+    /**
+     * Révoque un access token : persisté pour les autres nœuds et appliqué sur ce nœud au commit.
+     */
+    @Transactional
+    public void revokeToken(String tokenId, long expiresAtMillis) {
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis), ZoneId.systemDefault());
+        revokedTokenRepository.save(RevokedTokenEntity.builder()
+                .tokenId(tokenId)
+                .expiresAt(expiresAt)
+                .revokedAt(LocalDateTime.now())
+                .build());
+        afterCommit(() -> putRevokedToken(tokenId, expiresAtMillis));
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        LocalDateTime now = LocalDateTime.now();
+        deniedUsers.addAll(userRepository.findUniversalIdsByStatusIn(DENIED_STATUSES));
+        // Aucune connexion longue n'est encore ouverte : pas d'événement au chargement
+        revokedTokenRepository.findByExpiresAtAfter(now)
+                .forEach(revoked -> revokedTokens.put(revoked.getTokenId(), toEpochMillis(revoked.getExpiresAt())));
+        userWatermark = now;
+        tokenWatermark = now;
+        logger.info("🛡️ Access denylist loaded: {} blocked account(s), {} revoked token(s)", deniedUsers.size(), revokedTokens.size());
+    }
+
+    /**
+     * Rafraîchissement incrémental depuis les derniers watermarks, puis purge des tokens expirés.
+     */
+    @Scheduled(fixedDelayString = "${security.denylist.refresh-interval-ms:15000}",
+            initialDelayString = "${security.denylist.refresh-interval-ms:15000}")
+    public void refresh() {
+        for (UserStatusChange change : userRepository.findStatusChangesSince(userWatermark.minus(refreshOverlap))) {
+            applyStatus(change.universalId(), change.status());
+            if (change.statusChangedAt().isAfter(userWatermark)) {
+                userWatermark = change.statusChangedAt();
+            }
+        }
+        for (RevokedTokenEntity revoked : revokedTokenRepository.findByRevokedAtAfter(tokenWatermark.minus(refreshOverlap))) {
+            putRevokedToken(revoked.getTokenId(), toEpochMillis(revoked.getExpiresAt()));
+            if (revoked.getRevokedAt().isAfter(tokenWatermark)) {
+                tokenWatermark = revoked.getRevokedAt();
+            }
+        }
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt < now);
+    }
+
+    /**
+     * Les tokens expirés sont de toute façon refusés par la vérification de signature : inutile de les conserver.
+     */
+    @Scheduled(cron = "${security.denylist.purge-cron:0 45 3 * * *}")
+    @Transactional
+    public void purgeExpiredRevocations() {
+        revokedTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void putRevokedToken(String tokenId, long expiresAtMillis) {
+        if (revokedTokens.put(tokenId, expiresAtMillis) == null) {
+            eventPublisher.publishEvent(new AccessRevokedEvent(null, tokenId));
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
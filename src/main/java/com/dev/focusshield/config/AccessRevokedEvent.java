@@ -0,0 +1,13 @@
+package com.dev.focusshield.config;
+
+import java.util.UUID;
+
+/**
+ * Publié par {@link AccessDenylist} quand un compte est bloqué/banni ou qu'un access token est révoqué, sur ce nœud
+ * (au commit) comme sur les autres (au rafraîchissement) : les connexions longues ouvertes avec cet accès sont fermées.
+ *
+ * @param universalId compte bloqué, ou null pour une révocation de token
+ * @param tokenId     token révoqué (claim "jti"), ou null pour un blocage de compte
+ */
+public record AccessRevokedEvent(UUID universalId, String tokenId) {
+}
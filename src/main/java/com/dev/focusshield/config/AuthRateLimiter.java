@@ -0,0 +1,118 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.exceptions.FocusShieldTooManyRequestsException;
+import com.dev.focusshield.utils.ratelimit.StripedTokenBucketLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.dev.focusshield.exceptions.FocusShieldErrorCode.DATA_ERROR_TOO_MANY_ATTEMPTS;
+
+/**
+ * Limite les tentatives de login et d'inscription par adresse IP et par email, avant toute requête en base
+ * et tout hachage BCrypt : le credential stuffing ne peut plus saturer le CPU.
+ *
+ * <p>L'IP est celle de {@code request.getRemoteAddr()} : derrière le load balancer, le profil prod active
+ * {@code server.forward-headers-strategy=native} plutôt que de lire X-Forwarded-For à la main (falsifiable).
+ */
+@Component
+public class AuthRateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(AuthRateLimiter.class);
+
+    public static final String LOGIN = "login";
+    public static final String REGISTER = "register";
+
+    private static final String DIMENSION_IP = "ip";
+    private static final String DIMENSION_EMAIL = "email";
+
+    private final boolean enabled;
+    private final Map<String, RouteLimiters> limiters = new HashMap<>();
+
+    public AuthRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        properties.getRoutes().forEach((route, limit) -> limiters.put(route, new RouteLimiters(
+                create(route, DIMENSION_IP, limit.getPerIp(), properties, meterRegistry),
+                create(route, DIMENSION_EMAIL, limit.getPerEmail(), properties, meterRegistry))));
+    }
+
+    /**
+     * Consomme une tentative pour l'IP puis pour l'email.
+     *
+     * @param route    nom de la route ({@link #LOGIN}, {@link #REGISTER})
+     * @param email    email saisi (peut être null)
+     * @param clientIp adresse du client
+     * @throws FocusShieldTooManyRequestsException si l'une des deux limites est atteinte
+     */
+    public void check(String route, String email, String clientIp) {
+        RouteLimiters routeLimiters = enabled ? limiters.get(route) : null;
+        if (routeLimiters == null) {
+            return;
+        }
+        acquire(route, DIMENSION_IP, routeLimiters.perIp(), clientIp);
+        if (email != null) {
+            acquire(route, DIMENSION_EMAIL, routeLimiters.perEmail(), email.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        int evicted = 0;
+        for (RouteLimiters routeLimiters : limiters.values()) {
+            evicted += evictIdle(routeLimiters.perIp()) + evictIdle(routeLimiters.perEmail());
+        }
+        if (evicted > 0) {
+            logger.debug("🧹 Rate limiter: {} idle keys evicted", evicted);
+        }
+    }
+
+    private static int evictIdle(Limiter limiter) {
+        return limiter != null ? limiter.buckets().evictIdle() : 0;
+    }
+
+    private void acquire(String route, String dimension, Limiter limiter, String key) {
+        if (limiter == null || key == null) {
+            return;
+        }
+        long waitNanos = limiter.buckets().tryAcquire(key);
+        if (waitNanos > 0) {
+            limiter.rejected().increment();
+            logger.debug("⛔ Rate limit reached on route '{}' per {}", route, dimension);
+            throw new FocusShieldTooManyRequestsException(DATA_ERROR_TOO_MANY_ATTEMPTS,
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+        }
+    }
+
+    private static Limiter create(String route, String dimension, RateLimitProperties.BucketLimit limit,
+                                  RateLimitProperties properties, MeterRegistry meterRegistry) {
+        if (limit == null) {
+            return null;
+        }
+        StripedTokenBucketLimiter buckets = new StripedTokenBucketLimiter(limit.getCapacity(), limit.getRefillPerMinute(),
+                properties.getStripes(), properties.getMaxKeysPerStripe(), System::nanoTime);
+        Counter rejected = Counter.builder("focusshield.ratelimit.rejected")
+                .description("Attempts rejected by the authentication rate limiter")
+                .tag("route", route)
+                .tag("key", dimension)
+                .register(meterRegistry);
+        Gauge.builder("focusshield.ratelimit.keys", buckets, StripedTokenBucketLimiter::size)
+                .tag("route", route)
+                .tag("key", dimension)
+                .register(meterRegistry);
+        return new Limiter(buckets, rejected);
+    }
+
+    private record Limiter(StripedTokenBucketLimiter buckets, Counter rejected) {
+    }
+
+    private record RouteLimiters(Limiter perIp, Limiter perEmail) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.dev.focusshield.config;
+
+import java.io.Serializable;
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * Principal placé dans le contexte de sécurité par {@link JwtAuthenticationFilter}, une instance par requête.
+ *
+ * <p>{@link #getName()} renvoie toujours l'universalId, comme l'ancien principal {@code String}. La clé primaire
+ * interne de l'utilisateur est résolue au premier besoin par {@link UserIdResolver} puis mémorisée ici, de sorte
+ * qu'une requête ne la résout qu'une seule fois.
+ */
+public final class AuthenticatedUser implements Principal, Serializable {
+
+    private final UUID universalId;
+    private final String tokenId;
+    private final long expiresAtMillis;
+    private transient UUID userId;
+
+    public AuthenticatedUser(UUID universalId) {
+        this(universalId, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param tokenId         claim "jti" du token présenté, ou null
+     * @param expiresAtMillis expiration du token présenté (epoch millis)
+     */
+    public AuthenticatedUser(UUID universalId, String tokenId, long expiresAtMillis) {
+        this.universalId = universalId;
+        this.tokenId = tokenId;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public UUID getUniversalId() {
+        return universalId;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    /**
+     * @return la clé primaire interne ({@code users.id}), ou null tant qu'elle n'a pas été résolue
+     */
+    public UUID getUserId() {
+        return userId;
+    }
+
+    void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    @Override
+    public String getName() {
+        return universalId.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
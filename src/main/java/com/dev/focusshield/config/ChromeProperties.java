@@ -5,10 +5,14 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Getter
 @Setter
 @Component
 @ConfigurationProperties(prefix = "chrome")
 public class ChromeProperties {
     private String extensionId;
-}
\ No newline at end of file
+    /** How long the browser may cache a preflight response (Chromium caps it at 2 hours). */
+    private Duration corsMaxAge = Duration.ofHours(2);
+}
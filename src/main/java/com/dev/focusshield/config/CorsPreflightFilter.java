@@ -0,0 +1,84 @@
+package com.dev.focusshield.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Répond aux requêtes CORS preflight de l'extension Chrome avant la chaîne Spring Security.
+ *
+ * <p>L'extension envoie un header Authorization : presque chaque appel est précédé d'un OPTIONS. Celles qui viennent
+ * de l'origine autorisée reçoivent une réponse précalculée avec un long {@code Access-Control-Max-Age}, sans passer
+ * par le filtre JWT ni par le dispatcher. Les autres (origine inconnue, méthode refusée) suivent le chemin normal,
+ * où la configuration CORS de {@link WebConfig} les rejette.
+ */
+public class CorsPreflightFilter extends OncePerRequestFilter {
+
+    static final Set<String> ALLOWED_METHODS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS");
+
+    private static final String VARY = String.join(", ", HttpHeaders.ORIGIN,
+            HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+
+    private final String allowedOrigin;
+    private final String allowedMethods = String.join(",", ALLOWED_METHODS);
+    private final String maxAge;
+    private final Counter answered;
+    private final Counter forwarded;
+
+    public CorsPreflightFilter(String allowedOrigin, Duration maxAge, MeterRegistry meterRegistry) {
+        this.allowedOrigin = allowedOrigin;
+        this.maxAge = String.valueOf(maxAge.toSeconds());
+        this.answered = Counter.builder("focusshield.cors.preflight")
+                .description("CORS preflight requests")
+                .tag("result", "answered")
+                .register(meterRegistry);
+        this.forwarded = Counter.builder("focusshield.cors.preflight")
+                .description("CORS preflight requests")
+                .tag("result", "forwarded")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.OPTIONS.matches(request.getMethod())
+                || request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request,
+                                    @NotNull HttpServletResponse response,
+                                    @NotNull FilterChain filterChain) throws ServletException, IOException {
+        String origin = request.getHeader(HttpHeaders.ORIGIN);
+        String requestedMethod = request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD);
+        if (!allowedOrigin.equals(origin) || !ALLOWED_METHODS.contains(requestedMethod)) {
+            forwarded.increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, allowedOrigin);
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, allowedMethods);
+        // allowedHeaders("*") : avec credentials, le joker doit être remplacé par les headers demandés
+        String requestedHeaders = request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+        if (requestedHeaders != null) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, requestedHeaders);
+        }
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE, maxAge);
+        response.setHeader(HttpHeaders.VARY, VARY);
+        response.setContentLength(0);
+        answered.increment();
+    }
+}
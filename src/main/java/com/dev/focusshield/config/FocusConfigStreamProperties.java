@@ -0,0 +1,28 @@
+package com.dev.focusshield.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Réglages du flux SSE des configurations (prefix "focus-config.stream").
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "focus-config.stream")
+public class FocusConfigStreamProperties {
+    /** Open streams allowed on this node; beyond that new subscriptions get a 503. Keep below server.tomcat.max-connections. */
+    private int maxConnections = 20_000;
+    /** Streams kept per user (devices, tabs); a new one closes the oldest. */
+    private int maxPerUser = 5;
+    /** Lifetime of a stream; the client reconnects with Last-Event-ID and only gets what it missed. */
+    private Duration timeout = Duration.ofMinutes(30);
+    /** A comment is sent on streams that had no event for this long, so proxies keep the connection open. */
+    private Duration heartbeatInterval = Duration.ofSeconds(25);
+    /** Threads that write events; idle streams hold no thread. */
+    private int senderThreads = 4;
+}
@@ -0,0 +1,242 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.entities.IdempotencyKeyEntity;
+import com.dev.focusshield.exceptions.FocusShieldError;
+import com.dev.focusshield.exceptions.FocusShieldErrorCode;
+import com.dev.focusshield.service.idempotency.IdempotencyStore;
+import com.dev.focusshield.utils.DigestUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.dev.focusshield.utils.contants.ApiRoutes.FOCUS_CONFIG;
+import static com.dev.focusshield.utils.contants.ApiRoutes.USERS;
+
+/**
+ * Rend rejouables les créations répétées par les clients après un timeout ({@code POST /focus-config},
+ * {@code POST /users}) : une requête qui porte un header {@code Idempotency-Key} déjà vu reçoit la réponse de la
+ * première, sans repasser par le contrôleur.
+ *
+ * <p>Placé dans la chaîne Spring Security après l'autorisation : la clé est propre à l'utilisateur authentifié
+ * (ou anonyme pour l'inscription) et à la route. La même clé avec un autre corps est refusée (422), une répétition
+ * qui arrive pendant la première requête reçoit 409. Sans header, rien ne change.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    static final Set<String> IDEMPOTENT_ROUTES = Set.of(FOCUS_CONFIG, USERS);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter rejected;
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+        this.executed = counter(meterRegistry, "executed");
+        this.replayed = counter(meterRegistry, "replayed");
+        this.rejected = counter(meterRegistry, "rejected");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY) == null
+                || !IDEMPOTENT_ROUTES.contains(route(request));
+    }
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request,
+                                    @NotNull HttpServletResponse response,
+                                    @NotNull FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpServletResponse.SC_BAD_REQUEST, FocusShieldErrorCode.DATA_ERROR_INVALID_IDEMPOTENCY_KEY);
+            return;
+        }
+        byte[] requestBody = request.getInputStream().readAllBytes();
+        String keyHash = DigestUtil.sha256Base64Url(scope() + '\n' + route(request) + '\n' + key);
+        String requestHash = DigestUtil.sha256Base64Url(requestBody);
+
+        Optional<IdempotencyKeyEntity> previous = idempotencyStore.claim(keyHash, requestHash);
+        if (previous.isPresent()) {
+            answerFrom(previous.get(), requestHash, response);
+            return;
+        }
+
+        executed.increment();
+        ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, requestBody), captured);
+            idempotencyStore.complete(keyHash, requestHash, captured.getStatus(), captured.getContentType(),
+                    captured.getHeader(HttpHeaders.ETAG), captured.getContentAsByteArray());
+            completed = true;
+        } finally {
+            if (!completed) {
+                idempotencyStore.release(keyHash, requestHash);
+            }
+            captured.copyBodyToResponse();
+        }
+    }
+
+    private void answerFrom(IdempotencyKeyEntity previous, String requestHash, HttpServletResponse response) throws IOException {
+        if (!previous.getRequestHash().equals(requestHash)) {
+            reject(response, 422, FocusShieldErrorCode.DATA_ERROR_IDEMPOTENCY_KEY_REUSED);
+        } else if (previous.getStatus() == null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            reject(response, HttpServletResponse.SC_CONFLICT, FocusShieldErrorCode.DATA_ERROR_IDEMPOTENCY_IN_PROGRESS);
+        } else {
+            replayed.increment();
+            response.setStatus(previous.getStatus());
+            response.setHeader(IDEMPOTENT_REPLAYED, "true");
+            if (previous.getContentType() != null) {
+                response.setContentType(previous.getContentType());
+            }
+            if (previous.getEtag() != null) {
+                response.setHeader(HttpHeaders.ETAG, previous.getEtag());
+            }
+            byte[] body = previous.getBody() != null ? previous.getBody() : new byte[0];
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private void reject(HttpServletResponse response, int status, FocusShieldErrorCode errorCode) throws IOException {
+        rejected.increment();
+        FocusShieldError error = FocusShieldError.builder()
+                .code(errorCode.getCode())
+                .message(errorCode.getLabel())
+                .timestamp(LocalDateTime.now().toString())
+                .build();
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    // Inscription : pas encore d'utilisateur, la clé n'est alors propre qu'à la route (et au corps, vérifié ensuite)
+    private static String scope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user.getName()
+                : "anonymous";
+    }
+
+    private static String route(HttpServletRequest request) {
+        String requestUri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        String route = contextPath.length() > 1 && requestUri.startsWith(contextPath)
+                ? requestUri.substring(contextPath.length())
+                : requestUri;
+        return route.length() > 1 && route.endsWith("/") ? route.substring(0, route.length() - 1) : route;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("focusshield.idempotency.requests")
+                .description("POST requests carrying an Idempotency-Key")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Requête dont le corps, déjà lu pour calculer son empreinte, est relu par le contrôleur.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Corps déjà en mémoire : tout est disponible dès l'enregistrement du listener
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
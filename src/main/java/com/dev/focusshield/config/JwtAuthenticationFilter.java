@@ -11,11 +11,9 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.UUID; // Import UUID
 
 /**
@@ -27,17 +25,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     private final JwtTokenProvider jwtTokenProvider;
-    private final SecurityProperties securityProperties;
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final PublicEndpointMatcher publicEndpointMatcher;
+    private final AccessDenylist accessDenylist;
 
     /**
      * Constructeur avec injection du fournisseur de token JWT et des propriétés de sécurité.
      * @param jwtTokenProvider fournisseur de méthodes liées aux JWT
      * @param securityProperties propriétés de configuration de la sécurité
+     * @param accessDenylist comptes bloqués et tokens révoqués
      */
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, SecurityProperties securityProperties) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, SecurityProperties securityProperties,
+                                   AccessDenylist accessDenylist) {
         this.jwtTokenProvider = jwtTokenProvider;
-        this.securityProperties = securityProperties;
+        this.publicEndpointMatcher = securityProperties.getPublicEndpointMatcher();
+        this.accessDenylist = accessDenylist;
     }
 
     /**
@@ -50,35 +51,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String requestUri = request.getRequestURI();
         String contextPath = request.getContextPath();
 
-        // Calculate the path once
-        final String pathForMatching = getPathForMatching(requestUri, contextPath);
+        // On compare à partir de la fin du context path, sans créer de sous-chaîne
+        int from = contextPath.length() > 1 && requestUri.startsWith(contextPath) ? contextPath.length() : 0;
+        boolean isPublic = publicEndpointMatcher.matches(requestUri, from);
 
-        List<String> publicEndpoints = securityProperties.getFullPublicEndpoints();
-
-        boolean isPublic = publicEndpoints.stream()
-                .anyMatch(pattern -> pathMatcher.match(pattern, pathForMatching));
-
-        logger.debug("--- JWT Filter Decision --- Request URI: '{}', Context Path: '{}', Path to match: '{}'. Should NOT filter: {}. Public Endpoints: {}",
-                requestUri, contextPath, pathForMatching, isPublic, publicEndpoints);
-        return isPublic;
-    }
-
-    /**
-     * Helper method to correctly extract the path relative to the context for matching.
-     */
-    private String getPathForMatching(String requestUri, String contextPath) {
-        String path = requestUri;
-        if (requestUri.startsWith(contextPath) && contextPath.length() > 1) { // Avoid removing leading '/' if contextPath is just "/"
-            path = requestUri.substring(contextPath.length());
-        }
-
-        if (!path.startsWith("/")) {
-            path = "/" + path;
+        if (logger.isDebugEnabled()) {
+            logger.debug("--- JWT Filter Decision --- Request URI: '{}', Context Path: '{}'. Should NOT filter: {}",
+                    requestUri, contextPath, isPublic);
         }
-        return path;
+        return isPublic;
     }
 
-
     /**
      * Filtrage principal : extrait le token JWT de l'en-tête Authorization,
      * le valide, puis place l'utilisateur (son universalId) dans le contexte de sécurité.
@@ -97,17 +80,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = getTokenFromRequest(request);
 
-        if (token != null && jwtTokenProvider.validateToken(token)) {
+        // Une seule vérification par requête (et aucune si le token est déjà dans le cache)
+        VerifiedToken verified = token != null ? jwtTokenProvider.verify(token) : null;
+
+        if (verified != null) {
             // ⭐ CRUCIAL CHANGE 1: Get universalId instead of username ⭐
             // You can get the username too if you need it for logging, but the principal should be the unique ID.
-            UUID universalId = jwtTokenProvider.getUniversalIdFromToken(token);
+            UUID universalId = verified.universalId();
 
-            if (universalId != null) {
+            if (universalId != null && accessDenylist.isDenied(verified)) {
+                logger.debug("⛔ Token rejected: account blocked or token revoked for path: {}", request.getRequestURI());
+            } else if (universalId != null) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
-                                universalId.toString(), // ⭐ PRINCIPAL: Set the universalId (as String) here ⭐
+                                new AuthenticatedUser(universalId, verified.tokenId(), verified.expiresAtMillis()), // ⭐ PRINCIPAL: getName() returns the universalId; internal id resolved on demand ⭐
                                 null, // Credentials are not needed after authentication
-                                jwtTokenProvider.getAuthorities(token) // User's authorities/roles
+                                verified.authorities() // User's authorities/roles, built once per token
                         );
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -115,8 +103,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             } else {
                 logger.warn("🚫 JWT token is valid but universalId claim is missing or invalid for path: {}", request.getRequestURI());
             }
+        } else if (token == null) {
+            // Cas normal (requête anonyme, bot) : pas de WARN par requête
+            logger.debug("🚫 No JWT token found for path: {}", request.getRequestURI());
         } else {
-            logger.warn("🚫 No valid JWT token found or token validation failed for path: {}", request.getRequestURI());
+            logger.debug("🚫 JWT token validation failed for path: {}", request.getRequestURI());
         }
         filterChain.doFilter(request, response);
     }
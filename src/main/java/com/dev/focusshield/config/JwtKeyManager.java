@@ -0,0 +1,193 @@
+package com.dev.focusshield.config;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gestion des clés de signature des JWT (ES256).
+ *
+ * <p>Les clés sont lues dans un keystore local partagé par toutes les instances :
+ * <ul>
+ *     <li>l'entrée {@code jwt.keystore.active-alias} (clé privée) signe les nouveaux tokens ;</li>
+ *     <li>toutes les autres entrées EC P-256 (clés privées ou simples certificats) restent valides pour la
+ *     vérification, ce qui permet des fenêtres de rotation qui se chevauchent.</li>
+ * </ul>
+ * Rotation : ajouter la nouvelle clé au keystore et redéployer, basculer {@code active-alias} dessus, puis retirer
+ * l'ancienne entrée une fois la durée de vie maximale d'un token écoulée.
+ *
+ * <p>Chaque clé est identifiée par son empreinte JWK (RFC 7638), publiée dans le header {@code kid} et dans le
+ * document JWKS. Sans keystore configuré, une paire de clés éphémère est générée (développement uniquement).
+ */
+@Component
+public class JwtKeyManager {
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyManager.class);
+
+    private static final String CURVE = "secp256r1";
+    private static final int COORDINATE_LENGTH = 32;
+
+    private final String activeKid;
+    private final PrivateKey signingKey;
+    private final Map<String, PublicKey> verificationKeys;
+    private final Map<String, Object> jwks;
+
+    public JwtKeyManager(JwtKeyProperties properties, ResourceLoader resourceLoader) {
+        Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+        String kid;
+        PrivateKey privateKey;
+
+        try {
+            if (StringUtils.hasText(properties.getLocation())) {
+                KeyStore keyStore = loadKeyStore(properties, resourceLoader.getResource(properties.getLocation()));
+                privateKey = loadKeys(keyStore, properties, publicKeys);
+                PublicKey activePublicKey = keyStore.getCertificate(properties.getActiveAlias()).getPublicKey();
+                kid = activePublicKey instanceof ECPublicKey ecKey ? thumbprint(ecKey) : null;
+                if (kid == null || !publicKeys.containsKey(kid)) {
+                    throw new IllegalStateException("Active JWT key '" + properties.getActiveAlias() + "' is not an EC P-256 key");
+                }
+            } else {
+                logger.warn("⚠️ No JWT keystore configured (jwt.keystore.location): using an ephemeral ES256 key. "
+                        + "Tokens will not survive a restart nor be accepted by other instances.");
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec(CURVE));
+                KeyPair keyPair = generator.generateKeyPair();
+                privateKey = keyPair.getPrivate();
+                kid = thumbprint((ECPublicKey) keyPair.getPublic());
+                publicKeys.put(kid, keyPair.getPublic());
+            }
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalStateException("Unable to load JWT signing keys", e);
+        }
+
+        this.activeKid = kid;
+        this.signingKey = privateKey;
+        this.verificationKeys = Collections.unmodifiableMap(publicKeys);
+        this.jwks = buildJwks(publicKeys);
+        logger.info("🔑 JWT signing key '{}' active, {} verification key(s) published", activeKid, verificationKeys.size());
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return SignatureAlgorithm.ES256;
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * @return la clé publique correspondant au {@code kid}, ou null si elle est inconnue ou retirée
+     */
+    public PublicKey getVerificationKey(String kid) {
+        return kid != null ? verificationKeys.get(kid) : null;
+    }
+
+    /**
+     * @return le document JWKS (RFC 7517) listant toutes les clés de vérification, précalculé au démarrage
+     */
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    private static KeyStore loadKeyStore(JwtKeyProperties properties, Resource resource)
+            throws GeneralSecurityException, IOException {
+        KeyStore keyStore = KeyStore.getInstance(properties.getType());
+        try (InputStream in = resource.getInputStream()) {
+            keyStore.load(in, toChars(properties.getPassword()));
+        }
+        return keyStore;
+    }
+
+    private static PrivateKey loadKeys(KeyStore keyStore, JwtKeyProperties properties, Map<String, PublicKey> publicKeys)
+            throws GeneralSecurityException {
+        String activeAlias = properties.getActiveAlias();
+        if (!StringUtils.hasText(activeAlias) || !keyStore.isKeyEntry(activeAlias)) {
+            throw new IllegalStateException("jwt.keystore.active-alias must reference a private key entry of the keystore");
+        }
+
+        for (String alias : Collections.list(keyStore.aliases())) {
+            Certificate certificate = keyStore.getCertificate(alias);
+            if (certificate == null || !(certificate.getPublicKey() instanceof ECPublicKey ecKey)
+                    || ecKey.getParams().getCurve().getField().getFieldSize() != 256) {
+                logger.warn("Skipping keystore entry '{}': not an EC P-256 key", alias);
+                continue;
+            }
+            publicKeys.put(thumbprint(ecKey), ecKey);
+        }
+
+        String keyPassword = properties.getKeyPassword() != null ? properties.getKeyPassword() : properties.getPassword();
+        Key key = keyStore.getKey(activeAlias, toChars(keyPassword));
+        if (!(key instanceof PrivateKey privateKey) || !"EC".equals(key.getAlgorithm())) {
+            throw new IllegalStateException("Active JWT key '" + activeAlias + "' is not an EC private key");
+        }
+        return privateKey;
+    }
+
+    private static Map<String, Object> buildJwks(Map<String, PublicKey> publicKeys) {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        publicKeys.forEach((kid, key) -> {
+            ECPublicKey ecKey = (ECPublicKey) key;
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", coordinate(ecKey.getW().getAffineX()));
+            jwk.put("y", coordinate(ecKey.getW().getAffineY()));
+            jwk.put("use", "sig");
+            jwk.put("alg", "ES256");
+            jwk.put("kid", kid);
+            keys.add(Collections.unmodifiableMap(jwk));
+        });
+        return Map.of("keys", List.copyOf(keys));
+    }
+
+    /**
+     * Empreinte JWK SHA-256 (RFC 7638) : identique sur toutes les instances pour une même clé.
+     */
+    static String thumbprint(ECPublicKey key) throws GeneralSecurityException {
+        String canonical = "{\"crv\":\"P-256\",\"kty\":\"EC\",\"x\":\"" + coordinate(key.getW().getAffineX())
+                + "\",\"y\":\"" + coordinate(key.getW().getAffineY()) + "\"}";
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[COORDINATE_LENGTH];
+        int length = Math.min(bytes.length, COORDINATE_LENGTH);
+        System.arraycopy(bytes, bytes.length - length, fixed, COORDINATE_LENGTH - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static char[] toChars(String value) {
+        return value != null ? value.toCharArray() : new char[0];
+    }
+}
@@ -0,0 +1,24 @@
+package com.dev.focusshield.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emplacement du keystore contenant les clés de signature des JWT (prefix "jwt.keystore").
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jwt.keystore")
+public class JwtKeyProperties {
+    /** Spring resource location of the keystore (e.g. file:/etc/focusshield/jwt-keys.p12). Empty = ephemeral key. */
+    private String location;
+    private String type = "PKCS12";
+    private String password;
+    /** Password of the private key entry; defaults to the keystore password. */
+    private String keyPassword;
+    /** Alias of the key entry used to sign new tokens. */
+    private String activeAlias;
+}
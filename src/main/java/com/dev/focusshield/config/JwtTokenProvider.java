@@ -1,15 +1,23 @@
 package com.dev.focusshield.config;
 
+import com.dev.focusshield.entities.Permission;
 import com.dev.focusshield.entities.RoleEntity;
 import com.dev.focusshield.entities.UserEntity;
+import com.dev.focusshield.utils.DigestUtil;
+import com.dev.focusshield.utils.cache.BoundedCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
@@ -24,34 +32,119 @@ import java.util.stream.Collectors;
 public class JwtTokenProvider {
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
-    private static final Key SECRET_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+    /** Masque des permissions effectives, résolu à l'émission (rôles + hiérarchie par niveau). */
+    public static final String PERMISSIONS_CLAIM = "perm";
 
     @Value("${jwt.expiration.ms}")
     private long expirationTime;
 
-    public boolean validateToken(String token) {
+    // Tokens déjà vérifiés, indexés par empreinte SHA-256 : une requête répétée évite la signature et le parsing
+    private final BoundedCache<String, VerifiedToken> verifiedTokens;
+
+    private final JwtKeyManager keyManager;
+    private final RoleHierarchy roleHierarchy;
+
+    // Le parser est immuable et thread-safe : on le construit une seule fois au lieu d'un par appel
+    private final JwtParser parser;
+
+    public JwtTokenProvider(JwtKeyManager keyManager,
+                            RoleHierarchy roleHierarchy,
+                            @Value("${jwt.cache.max-entries:10000}") int maxCachedTokens,
+                            MeterRegistry meterRegistry) {
+        this.keyManager = keyManager;
+        this.roleHierarchy = roleHierarchy;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    // jjwt 0.11 déclare le paramètre en type brut : JwsHeader<?> ne serait pas une redéfinition
+                    @Override
+                    @SuppressWarnings("rawtypes")
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        JwsHeader<?> jwsHeader = header;
+                        return resolveVerificationKey(jwsHeader);
+                    }
+                })
+                .build();
+        this.verifiedTokens = new BoundedCache<String, VerifiedToken>(maxCachedTokens)
+                .bindTo(meterRegistry, "focusshield.jwt.verified.cache");
+    }
+
+    /**
+     * Vérifie le token (signature + expiration) en un seul passage et retourne le principal et les autorités.
+     * Les résultats sont mis en cache jusqu'à l'expiration du token.
+     *
+     * @param token le JWT brut (sans le préfixe "Bearer ")
+     * @return le token vérifié, ou null si le token est invalide ou expiré
+     */
+    public VerifiedToken verify(String token) {
+        String digest = DigestUtil.sha256Base64Url(token);
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            Jwts.parserBuilder().setSigningKey(SECRET_KEY).build().parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            logger.error(" ❌❌ Échec de validation du token : {}", token, e); // Log exception for debugging
-            return false;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            VerifiedToken verified = new VerifiedToken(
+                    claims.getId(),
+                    readUniversalId(claims),
+                    readPermissions(claims),
+                    claims.getExpiration() != null ? claims.getExpiration().getTime() : BoundedCache.NO_EXPIRY);
+            verifiedTokens.put(digest, verified, verified.expiresAtMillis());
+            return verified;
+        } catch (ExpiredJwtException e) {
+            logger.debug("⌛ Token expiré [{}]", fingerprint(digest));
+            return null;
+        } catch (JwtException | IllegalArgumentException e) {
+            // Jamais le token lui-même : une empreinte suffit à corréler, et pas de stack trace (cas attendu)
+            logger.warn(" ❌❌ Échec de validation du token [{}] : {}", fingerprint(digest), e.getMessage());
+            return null;
         }
     }
 
+    private static String fingerprint(String digest) {
+        return digest.substring(0, 12);
+    }
+
+    public boolean validateToken(String token) {
+        return verify(token) != null;
+    }
+
     public String getUsernameFromToken(String token) {
         return getClaimsFromToken(token).getSubject();
     }
 
     // ⭐ Extract universalId from token ⭐
     public UUID getUniversalIdFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.universalId() : null;
+    }
+
+    public List<PermissionAuthority> getAuthorities(String token) {
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.authorities() : List.of();
+    }
+
+    /**
+     * @return durée de vie d'un access token, en millisecondes
+     */
+    public long getExpirationTime() {
+        return expirationTime;
+    }
+
+    public long getCacheHitCount() {
+        return verifiedTokens.hitCount();
+    }
+
+    public long getCacheMissCount() {
+        return verifiedTokens.missCount();
+    }
+
+    private UUID readUniversalId(Claims claims) {
         String universalIdString = claims.get("universalId", String.class); // Get universalId as String
         if (universalIdString != null) {
             try {
                 return UUID.fromString(universalIdString);
             } catch (IllegalArgumentException e) {
-                logger.error("Invalid universalId format in token: {}", universalIdString, e);
+                logger.warn("Invalid universalId format in token: {}", universalIdString);
                 return null; // Or throw a specific exception if universalId is mandatory
             }
         }
@@ -59,31 +152,41 @@ public class JwtTokenProvider {
         return null;
     }
 
-    public List<SimpleGrantedAuthority> getAuthorities(String token) {
-        Claims claims = getClaimsFromToken(token);
-        Object rolesObject = claims.get("roles");
-
-        if (rolesObject instanceof List<?>) {
-            List<String> roles = ((List<?>) rolesObject).stream()
-                    .filter(obj -> obj instanceof String)
-                    .map(obj -> (String) obj)
-                    .toList();
-
-            return roles.stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
-        } else {
-            logger.warn("Le claim 'roles' est absent ou mal formé dans le token JWT");
-            return List.of();
+    private long readPermissions(Claims claims) {
+        if (claims.get(PERMISSIONS_CLAIM) instanceof Number permissions) {
+            return permissions.longValue();
+        }
+        // Tokens émis avant l'introduction du claim "perm" : permissions par défaut des rôles
+        if (claims.get("roles") instanceof List<?> roles) {
+            long mask = 0L;
+            for (Object role : roles) {
+                if (role instanceof String roleName) {
+                    mask |= Permission.defaultsFor(roleName);
+                }
+            }
+            return mask;
         }
+        logger.warn("Les claims 'perm' et 'roles' sont absents ou mal formés dans le token JWT");
+        return 0L;
     }
 
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Sélectionne la clé publique à partir du header "kid". Seul ES256 est accepté : un token signé avec un autre
+     * algorithme (ex. HS512 avec la clé publique comme secret) est rejeté avant toute vérification.
+     */
+    private Key resolveVerificationKey(JwsHeader<?> header) {
+        if (!keyManager.getAlgorithm().getValue().equals(header.getAlgorithm())) {
+            throw new UnsupportedJwtException("Unsupported JWT algorithm: " + header.getAlgorithm());
+        }
+        Key key = keyManager.getVerificationKey(header.getKeyId());
+        if (key == null) {
+            throw new SignatureException("Unknown JWT signing key: " + header.getKeyId());
+        }
+        return key;
     }
 
     // ⭐ Generate Token METHOD: Add universalId to claims ⭐
@@ -97,6 +200,7 @@ public class JwtTokenProvider {
                 .map(RoleEntity::getRoleName)
                 .collect(Collectors.toList());
         claims.put("roles", roleNames);
+        claims.put(PERMISSIONS_CLAIM, roleHierarchy.resolvePermissions(user.getRoles()));
 
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expirationTime);
@@ -106,17 +210,20 @@ public class JwtTokenProvider {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(user.getUsername()) // Typically the unique identifier for the subject
+                .setId(UUID.randomUUID().toString()) // jti: lets a single token be revoked
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(SECRET_KEY)
+                .setHeaderParam(JwsHeader.KEY_ID, keyManager.getActiveKid())
+                .signWith(keyManager.getSigningKey(), keyManager.getAlgorithm())
                 .compact();
     }
 
-    public List<SimpleGrantedAuthority> extractAuthoritiesFromToken(String token) {
-        if (!validateToken(token)) {
+    public List<PermissionAuthority> extractAuthoritiesFromToken(String token) {
+        VerifiedToken verified = verify(token);
+        if (verified == null) {
             logger.warn("Token JWT invalide ou expiré");
             return List.of();
         }
-        return getAuthorities(token);
+        return verified.authorities();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package com.dev.focusshield.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Réglages du hachage des mots de passe (prefix "security.password") : pool dédié et coût BCrypt.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "security.password")
+public class PasswordHashingProperties {
+    /** Threads of the hashing pool. BCrypt is pure CPU: keep it below the core count so reads are never starved. */
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    /** Hashing requests allowed to wait for a thread; beyond that the request fails fast with a 503. */
+    private int queueCapacity = 32;
+    /** Maximum time a request waits for its hash before giving up with a 503. */
+    private Duration maxWait = Duration.ofSeconds(2);
+    /** Fixed BCrypt cost. 0 = calibrate at startup against {@link #calibrationTarget}. */
+    private int strength = 0;
+    /** Target duration of one hash when calibrating the cost. */
+    private Duration calibrationTarget = Duration.ofMillis(250);
+    private int minStrength = 10;
+    private int maxStrength = 14;
+}
@@ -0,0 +1,52 @@
+package com.dev.focusshield.config;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autorité unique portant le masque de permissions effectif d'un token.
+ *
+ * <p>Les instances sont internées : il n'existe qu'une poignée de masques distincts (un par combinaison de rôles),
+ * donc tous les tokens qui partagent un masque partagent la même liste d'autorités, construite une seule fois.
+ */
+public final class PermissionAuthority implements GrantedAuthority {
+
+    private static final Map<Long, List<PermissionAuthority>> INTERNED = new ConcurrentHashMap<>();
+
+    private final long mask;
+
+    private PermissionAuthority(long mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * @return la liste (immuable, partagée) contenant l'autorité du masque donné
+     */
+    public static List<PermissionAuthority> authoritiesOf(long mask) {
+        return INTERNED.computeIfAbsent(mask, m -> List.of(new PermissionAuthority(m)));
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * @return true si toutes les permissions de {@code required} sont présentes
+     */
+    public boolean grants(long required) {
+        return (mask & required) == required;
+    }
+
+    @Override
+    public String getAuthority() {
+        return "PERM_" + Long.toHexString(mask);
+    }
+
+    @Override
+    public String toString() {
+        return getAuthority();
+    }
+}
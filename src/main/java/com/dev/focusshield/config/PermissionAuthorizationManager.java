@@ -0,0 +1,44 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.entities.Permission;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.function.Supplier;
+
+/**
+ * Règle d'accès d'une route : un test de bits sur le masque porté par {@link PermissionAuthority},
+ * sans comparaison de chaînes ni allocation (les décisions sont partagées).
+ */
+public final class PermissionAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final long required;
+
+    private PermissionAuthorizationManager(long required) {
+        this.required = required;
+    }
+
+    public static PermissionAuthorizationManager hasPermissions(Permission... permissions) {
+        return new PermissionAuthorizationManager(Permission.maskOf(permissions));
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated()) {
+            return DENIED;
+        }
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            if (authority instanceof PermissionAuthority permissions && permissions.grants(required)) {
+                return GRANTED;
+            }
+        }
+        return DENIED;
+    }
+}
@@ -0,0 +1,112 @@
+package com.dev.focusshield.config;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Matcher des routes publiques compilé une seule fois au démarrage.
+ *
+ * <p>Les motifs exacts ({@code /users/login}) et les motifs de préfixe ({@code /swagger-ui/**}) sont rangés dans un
+ * trie de caractères : une correspondance se fait en un seul parcours du chemin, sans allocation, et son coût ne
+ * dépend pas du nombre de motifs. Les rares motifs contenant d'autres jokers ({@code *}, {@code ?}, <code>{var}</code>)
+ * sont délégués à {@link AntPathMatcher}.
+ */
+public final class PublicEndpointMatcher {
+
+    private static final String PREFIX_SUFFIX = "/**";
+
+    private final Node root = new Node();
+    private final List<String> antPatterns = new ArrayList<>();
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    public PublicEndpointMatcher(Collection<String> patterns) {
+        for (String pattern : patterns) {
+            if (pattern.endsWith(PREFIX_SUFFIX) && isLiteral(pattern, pattern.length() - PREFIX_SUFFIX.length())) {
+                insert(pattern, pattern.length() - PREFIX_SUFFIX.length()).prefix = true;
+            } else if (isLiteral(pattern, pattern.length())) {
+                insert(pattern, pattern.length()).exact = true;
+            } else {
+                antPatterns.add(pattern);
+            }
+        }
+    }
+
+    /**
+     * Indique si {@code path.substring(from)} correspond à l'un des motifs, sans créer la sous-chaîne.
+     *
+     * @param path le chemin complet (ex: l'URI de la requête, context path inclus)
+     * @param from l'index où commence le chemin à comparer (ex: la longueur du context path)
+     */
+    public boolean matches(String path, int from) {
+        int end = path.length();
+        if (from >= end) {
+            return matches("/", 0); // URI égale au context path
+        }
+        Node node = root;
+        for (int i = from; ; i++) {
+            // "/base/**" couvre "/base" et "/base/..." mais pas "/baseX"
+            if (node.prefix && (i == end || path.charAt(i) == '/')) {
+                return true;
+            }
+            if (i == end) {
+                if (node.exact) {
+                    return true;
+                }
+                break;
+            }
+            char c = path.charAt(i);
+            Node next = c < Node.FANOUT && node.children != null ? node.children[c] : null;
+            if (next == null) {
+                break;
+            }
+            node = next;
+        }
+        return !antPatterns.isEmpty() && matchesAntPattern(path.substring(from));
+    }
+
+    private boolean matchesAntPattern(String path) {
+        for (String pattern : antPatterns) {
+            if (antPathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Node insert(String pattern, int length) {
+        Node node = root;
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (node.children == null) {
+                node.children = new Node[Node.FANOUT];
+            }
+            if (node.children[c] == null) {
+                node.children[c] = new Node();
+            }
+            node = node.children[c];
+        }
+        return node;
+    }
+
+    private static boolean isLiteral(String pattern, int length) {
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '{' || c >= Node.FANOUT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Node {
+        // Les chemins de l'API sont en ASCII : un tableau indexé par caractère évite tout boxing
+        private static final int FANOUT = 128;
+
+        private Node[] children;
+        private boolean exact;
+        private boolean prefix;
+    }
+}
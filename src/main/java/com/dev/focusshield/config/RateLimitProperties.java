@@ -0,0 +1,45 @@
+package com.dev.focusshield.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limites des tentatives sur les routes publiques coûteuses (prefix "security.rate-limit").
+ *
+ * <p>Exemple : {@code security.rate-limit.routes.login.per-email.capacity=5}. Une dimension non configurée
+ * (ou une route absente) n'est pas limitée.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    /** Lock stripes per limiter (rounded up to a power of two). */
+    private int stripes = 64;
+    /** Keys tracked per stripe; the least recently used keys are dropped beyond that. */
+    private int maxKeysPerStripe = 2048;
+    /** Limits per route name ("login", "register"). */
+    private Map<String, RouteLimit> routes = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class RouteLimit {
+        private BucketLimit perIp;
+        private BucketLimit perEmail;
+    }
+
+    @Getter
+    @Setter
+    public static class BucketLimit {
+        /** Attempts allowed back to back. */
+        private int capacity;
+        /** Attempts given back per minute. */
+        private double refillPerMinute;
+    }
+}
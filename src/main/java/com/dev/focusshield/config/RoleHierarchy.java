@@ -0,0 +1,89 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.entities.Permission;
+import com.dev.focusshield.entities.RoleEntity;
+import com.dev.focusshield.repositories.RoleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hiérarchie des rôles fondée sur {@code roles.level} : un rôle hérite des permissions de tous les rôles de niveau
+ * strictement inférieur (ex: ROLE_ADMIN, niveau 10, hérite de ROLE_USER, niveau 1).
+ *
+ * <p>Évaluée à l'émission du token uniquement. La table des rôles est petite et change rarement : elle est gardée
+ * en mémoire sous forme de masques cumulés par niveau, rechargée après {@code ttl} ou après {@link #invalidate()}.
+ */
+@Component
+public class RoleHierarchy {
+
+    private final RoleRepository roleRepository;
+    private final long ttlMillis;
+
+    private volatile Snapshot snapshot;
+
+    public RoleHierarchy(RoleRepository roleRepository,
+                         @Value("${security.roles.cache-ttl-ms:60000}") long ttlMillis) {
+        this.roleRepository = roleRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @return le masque effectif : permissions propres des rôles, plus celles héritées des niveaux inférieurs
+     */
+    public long resolvePermissions(Collection<RoleEntity> roles) {
+        if (roles == null || roles.isEmpty()) {
+            return 0L;
+        }
+        Snapshot current = currentSnapshot();
+        long mask = 0L;
+        for (RoleEntity role : roles) {
+            mask |= Permission.of(role) | current.inheritedBy(levelOf(role));
+        }
+        return mask;
+    }
+
+    /**
+     * À appeler après toute création/modification/suppression de rôle.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null || System.currentTimeMillis() >= current.expiresAtMillis()) {
+            current = load();
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        TreeMap<Integer, Long> byLevel = new TreeMap<>();
+        for (RoleEntity role : roleRepository.findAll()) {
+            byLevel.merge(levelOf(role), Permission.of(role), (a, b) -> a | b);
+        }
+        // Cumul : chaque niveau porte l'union des permissions de tous les niveaux <= lui
+        long cumulative = 0L;
+        for (Map.Entry<Integer, Long> entry : byLevel.entrySet()) {
+            cumulative |= entry.getValue();
+            entry.setValue(cumulative);
+        }
+        return new Snapshot(byLevel, System.currentTimeMillis() + ttlMillis);
+    }
+
+    private static int levelOf(RoleEntity role) {
+        return role.getLevel() != null ? role.getLevel() : 0;
+    }
+
+    private record Snapshot(TreeMap<Integer, Long> cumulativeByLevel, long expiresAtMillis) {
+        long inheritedBy(int level) {
+            Map.Entry<Integer, Long> below = cumulativeByLevel.lowerEntry(level);
+            return below != null ? below.getValue() : 0L;
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.dev.focusshield.config;
 
+import com.dev.focusshield.entities.Permission;
+import com.dev.focusshield.utils.BCryptCostCalibrator;
+import jakarta.servlet.DispatcherType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,17 +16,24 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import static com.dev.focusshield.config.PermissionAuthorizationManager.hasPermissions;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
+    private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final IdempotencyFilter idempotencyFilter;
     private final SecurityProperties securityProperties;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, SecurityProperties securityProperties) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, IdempotencyFilter idempotencyFilter,
+                          SecurityProperties securityProperties) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.idempotencyFilter = idempotencyFilter;
         this.securityProperties = securityProperties;
     }
 
@@ -35,10 +47,12 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Autorise explicitement les endpoints publics (ex: swagger, login, health)
                         .requestMatchers(securityProperties.getFullPublicEndpoints().toArray(String[]::new)).permitAll()
+                        // Fin d'une réponse asynchrone (flux SSE) : la requête d'origine a déjà été autorisée
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 
-                        // Endpoints réservés aux admins
-                        .requestMatchers("/admin/**").hasRole("ADMIN")
-                        .requestMatchers("/roles/**").hasRole("ADMIN")
+                        // Endpoints réservés aux admins : test de bits sur le masque de permissions du token
+                        .requestMatchers("/admin/**").access(hasPermissions(Permission.USERS_ADMIN))
+                        .requestMatchers("/roles/**").access(hasPermissions(Permission.ROLES_ADMIN))
 
                         // Toutes les autres requêtes nécessitent une authentification
                         .anyRequest().authenticated()
@@ -51,6 +65,8 @@ public class SecurityConfig {
 
         // Ajout du filtre JWT avant le filtre d’authentification classique
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // Idempotency-Key : après l'autorisation, la clé est propre à l'utilisateur authentifié
+        http.addFilterAfter(idempotencyFilter, AuthorizationFilter.class);
         return http.build();
     }
 
@@ -60,9 +76,16 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
-    // Bean pour encoder les mots de passe avec BCrypt
+    // Bean unique pour encoder les mots de passe avec BCrypt, au coût calibré pour la machine
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties) {
+        int strength = properties.getStrength();
+        if (strength <= 0) {
+            strength = BCryptCostCalibrator.calibrate(properties.getCalibrationTarget().toMillis(),
+                    properties.getMinStrength(), properties.getMaxStrength());
+            logger.info("🔐 BCrypt cost calibrated to {} (target {} ms per hash)", strength,
+                    properties.getCalibrationTarget().toMillis());
+        }
+        return new BCryptPasswordEncoder(strength);
     }
 }
\ No newline at end of file
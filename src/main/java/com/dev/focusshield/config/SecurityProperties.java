@@ -7,8 +7,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static com.dev.focusshield.utils.contants.Constant.AUTH_WHITELIST;
 
@@ -24,16 +22,25 @@ public class SecurityProperties {
     @Value("${server.servlet.context-path:/}")
     private String contextPath;
 
+    // Étant donné que Spring Security semble évaluer les chemins "après" la suppression du chemin contextuel,
+    // nous devrions renvoyer les chemins AUTH_WHITELIST bruts pour requestMatchers.
+    // La variable contextPath elle-même est trompeuse pour ce cas d'utilisation spécifique.
+    private final List<String> fullPublicEndpoints = List.of(AUTH_WHITELIST);
+
+    /**
+     * Matcher compilé une seule fois, utilisé par le filtre JWT à chaque requête.
+     */
+    private final PublicEndpointMatcher publicEndpointMatcher = new PublicEndpointMatcher(fullPublicEndpoints);
+
+    public SecurityProperties() {
+        logger.info("Points de terminaison publics (tels que vus par Spring Security): {}", fullPublicEndpoints);
+    }
+
     /**
      * Retourne les chemins complets (préfixés du contextPath) à ignorer pour les filtres JWT.
      */
     public List<String> getFullPublicEndpoints() {
-        // Étant donné que Spring Security semble évaluer les chemins "après" la suppression du chemin contextuel,
-        // nous devrions renvoyer les chemins AUTH_WHITELIST bruts pour requestMatchers.
-        // La variable contextPath elle-même est trompeuse pour ce cas d'utilisation spécifique.
-        List<String> rawPublicPaths = Stream.of(AUTH_WHITELIST).collect(Collectors.toList());
-        logger.info("Points de terminaison publics (tels que vus par Spring Security): {}", rawPublicPaths);
-        return rawPublicPaths;
+        return fullPublicEndpoints;
     }
 
-}
\ No newline at end of file
+}
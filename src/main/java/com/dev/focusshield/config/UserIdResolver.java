@@ -0,0 +1,75 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.repositories.UserRepository;
+import com.dev.focusshield.utils.cache.BoundedCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Traduit l'universalId porté par le JWT en clé primaire interne ({@code users.id}).
+ *
+ * <p>La correspondance ne change jamais pour un utilisateur donné : elle est gardée dans un cache borné et
+ * n'est retirée qu'à la suppression du compte. Un échec de cache coûte une projection sur l'index unique
+ * {@code uk_users_universal_id}, sans charger l'entité.
+ */
+@Component
+public class UserIdResolver {
+
+    private final UserRepository userRepository;
+    private final BoundedCache<UUID, UUID> userIds;
+
+    public UserIdResolver(UserRepository userRepository,
+                          @Value("${security.principal.cache.max-entries:100000}") int maxEntries,
+                          MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.userIds = new BoundedCache<UUID, UUID>(maxEntries).bindTo(meterRegistry, "focusshield.principal.cache");
+    }
+
+    /**
+     * @return la clé primaire de l'utilisateur authentifié, résolue au plus une fois par requête
+     * @throws IllegalStateException si aucun utilisateur n'est authentifié
+     * @throws EntityNotFoundException si le compte n'existe plus
+     */
+    public UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getName() == null) {
+            throw new IllegalStateException("Authenticated user's universal ID not found in security context.");
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            UUID userId = principal.getUserId();
+            if (userId == null) {
+                userId = resolve(principal.getUniversalId());
+                principal.setUserId(userId);
+            }
+            return userId;
+        }
+        return resolve(UUID.fromString(authentication.getName()));
+    }
+
+    /**
+     * @return la clé primaire correspondant à l'universalId
+     * @throws EntityNotFoundException si aucun utilisateur ne porte cet universalId
+     */
+    public UUID resolve(UUID universalId) {
+        UUID userId = userIds.get(universalId);
+        if (userId == null) {
+            userId = userRepository.findIdByUniversalId(universalId)
+                    .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + universalId));
+            userIds.put(universalId, userId);
+        }
+        return userId;
+    }
+
+    /**
+     * À appeler à la suppression d'un compte.
+     */
+    public void evict(UUID universalId) {
+        userIds.invalidate(universalId);
+    }
+}
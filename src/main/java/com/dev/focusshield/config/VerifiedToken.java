@@ -0,0 +1,23 @@
+package com.dev.focusshield.config;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Résultat d'une vérification de JWT : tout ce dont le filtre a besoin pour construire l'authentification,
+ * calculé une seule fois par token puis partagé entre les requêtes qui présentent le même token.
+ *
+ * @param tokenId         identifiant du token (claim "jti"), utilisé pour la révocation
+ * @param universalId     identifiant universel de l'utilisateur, ou null si le claim est absent ou invalide
+ * @param permissions     masque des permissions effectives (claim "perm")
+ * @param expiresAtMillis date d'expiration du token (epoch millis)
+ */
+public record VerifiedToken(String tokenId, UUID universalId, long permissions, long expiresAtMillis) {
+
+    /**
+     * @return l'autorité internée du masque : la même instance pour tous les tokens de même masque
+     */
+    public List<PermissionAuthority> authorities() {
+        return PermissionAuthority.authoritiesOf(permissions);
+    }
+}
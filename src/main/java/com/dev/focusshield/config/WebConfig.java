@@ -1,7 +1,12 @@
 package com.dev.focusshield.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -13,12 +18,34 @@ public class WebConfig implements WebMvcConfigurer {
 
     @Override
     public void addCorsMappings(CorsRegistry registry) {
-        String extensionOrigin = "chrome-extension://" + chromeProperties.getExtensionId();
-
         registry.addMapping("/**")
-                .allowedOrigins(extensionOrigin)
+                .allowedOrigins(extensionOrigin())
                 .allowedMethods("*")
                 .allowedHeaders("*")
-                .allowCredentials(true);
+                // Lus par l'extension : requêtes conditionnelles, pagination de l'historique et réponses rejouées
+                .exposedHeaders(HttpHeaders.ETAG, "X-Next-Cursor", IdempotencyFilter.IDEMPOTENT_REPLAYED)
+                .allowCredentials(true)
+                .maxAge(chromeProperties.getCorsMaxAge().toSeconds());
+    }
+
+    // Preflights de l'extension traités avant la chaîne Spring Security (ordre -100)
+    @Bean
+    public FilterRegistrationBean<CorsPreflightFilter> corsPreflightFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<CorsPreflightFilter> registration = new FilterRegistrationBean<>(
+                new CorsPreflightFilter(extensionOrigin(), chromeProperties.getCorsMaxAge(), meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // Exécuté uniquement dans la chaîne Spring Security (SecurityConfig), pas une seconde fois comme filtre servlet
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilterRegistration(IdempotencyFilter idempotencyFilter) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(idempotencyFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    private String extensionOrigin() {
+        return "chrome-extension://" + chromeProperties.getExtensionId();
     }
-}
\ No newline at end of file
+}
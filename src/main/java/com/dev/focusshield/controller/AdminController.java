@@ -1,16 +1,39 @@
 package com.dev.focusshield.controller;
 
+import com.dev.focusshield.entities.AccountStatus;
+import com.dev.focusshield.model.User;
+import com.dev.focusshield.service.users.UserService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/admin")
+@RequiredArgsConstructor
 public class AdminController {
 
+    private final UserService userService;
+
     @GetMapping("/hello")
     public ResponseEntity<String> helloAdmin() {
         return ResponseEntity.ok("Hello Admin!");
     }
-}
\ No newline at end of file
+
+    /**
+     * Update - Change the account status of a user (BLOCKED and BANNED users lose access immediately)
+     * @param userId - The ID of the user to update
+     * @param status - The new account status
+     * @return user - The user updated
+     */
+    @PatchMapping("/users/{userId}/status")
+    public ResponseEntity<User> updateUserStatus(@PathVariable UUID userId, @RequestParam("status") AccountStatus status) {
+        return ResponseEntity.ok(userService.updateStatus(userId, status));
+    }
+}
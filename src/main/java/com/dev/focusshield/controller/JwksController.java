@@ -0,0 +1,30 @@
+package com.dev.focusshield.controller;
+
+import com.dev.focusshield.config.JwtKeyManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static com.dev.focusshield.utils.contants.ApiRoutes.JWKS;
+
+/**
+ * Publie les clés publiques de vérification des JWT (JWKS, RFC 7517) pour les autres services et instances.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyManager jwtKeyManager;
+
+    @GetMapping(JWKS)
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtKeyManager.getJwks());
+    }
+}
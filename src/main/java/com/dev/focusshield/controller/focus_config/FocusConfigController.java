@@ -1,12 +1,31 @@
 package com.dev.focusshield.controller.focus_config;
 
+import com.dev.focusshield.dto.FocusConfigPage;
+import com.dev.focusshield.dto.SerializedResponse;
 import com.dev.focusshield.model.FocusConfig;
+import com.dev.focusshield.model.FocusConfigDelta;
+import com.dev.focusshield.model.FocusConfigPatch;
 import com.dev.focusshield.model.FocusConfigRequest;
+import com.dev.focusshield.model.JsonPatchOperation;
+import com.dev.focusshield.service.focus_config.FocusConfigResponseCache;
 import com.dev.focusshield.service.focus_config.FocusConfigService;
+import com.dev.focusshield.service.focus_config.FocusConfigStreamService;
+import com.dev.focusshield.service.focus_config.FocusConfigWriteBuffer;
+import com.dev.focusshield.utils.ETagUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,52 +36,240 @@ import static com.dev.focusshield.utils.contants.ApiRoutes.FOCUS_CONFIG;
 @RequiredArgsConstructor
 public class FocusConfigController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String JSON_PATCH_VALUE = "application/json-patch+json";
+
     private final FocusConfigService focusConfigService;
+    private final FocusConfigStreamService focusConfigStreamService;
+    private final FocusConfigResponseCache responseCache;
+    private final FocusConfigWriteBuffer writeBuffer;
 
     /**
      * Save a new focus configuration for the authenticated user.
+     * With {@code If-Match}, the save only happens if the revision is still the one the client read (412 otherwise).
      *
      * @param configRequest the focus config request
-     * @return HTTP 201 CREATED
+     * @param ifMatch       ETag of the revision the client read, optional
+     * @return HTTP 201 CREATED with the new ETag, or 202 ACCEPTED when buffered in write-behind mode
      */
     @PostMapping
     public ResponseEntity<Void> saveFocusConfiguration(
-            @RequestBody FocusConfigRequest configRequest
+            @RequestBody FocusConfigRequest configRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        focusConfigService.saveFocusConfiguration(configRequest);
-        return ResponseEntity.status(201).build();
+        Long expectedRevision = ETagUtil.expectedVersion(ifMatch);
+        // Une écriture conditionnelle n'est jamais différée : la précondition est vérifiée maintenant
+        if (expectedRevision == null && writeBuffer.offer(configRequest)) {
+            return ResponseEntity.accepted().build();
+        }
+        writeBuffer.flushCurrentUser();
+        long revision = focusConfigService.saveFocusConfiguration(configRequest, expectedRevision);
+        return ResponseEntity.status(201).eTag(ETagUtil.toETag(revision)).build();
     }
     /**
      * Get the latest active focus configuration.
+     * Answers 304 when {@code If-None-Match} carries the current revision, without loading the configuration.
+     * The body is served from a per-revision cache of serialized responses, gzip-encoded when the client accepts it;
+     * the gzip body has its own strong ETag ({@code "7-gz"}) and either form is accepted in {@code If-None-Match}.
      *
      * @return the latest FocusConfig
      */
     @GetMapping("/latest")
-    public ResponseEntity<FocusConfig> getLatestFocusConfiguration() {
-        FocusConfig config = focusConfigService.getLatestFocusConfiguration();
-        return ResponseEntity.ok(config);
+    public ResponseEntity<byte[]> getLatestFocusConfiguration(WebRequest request) {
+        writeBuffer.flushCurrentUser();
+        // Révision lue avant le contenu : au pire l'ETag est en retard d'une écriture et le client relit une fois de plus
+        Long revision = focusConfigService.getConfigRevision().orElse(null);
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ETagUtil.matchesVersion(ifNoneMatch, revision)) {
+            // On renvoie l'ETag de l'encodage que le client détient déjà
+            boolean holdsGzip = gzip && ifNoneMatch.contains(ETagUtil.toGzipETag(revision));
+            return conditional(holdsGzip ? ETagUtil.toGzipETag(revision) : ETagUtil.toETag(revision), HttpStatus.NOT_MODIFIED)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        SerializedResponse body = revision != null
+                ? responseCache.getLatest(revision, focusConfigService::getLatestFocusConfiguration)
+                : responseCache.serialize(focusConfigService.getLatestFocusConfiguration());
+
+        if (gzip && body.gzip().length < body.identity().length) {
+            return conditional(ETagUtil.toGzipETag(revision), HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(body.gzip());
+        }
+        return conditional(ETagUtil.toETag(revision), HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .body(body.identity());
     }
 
     /**
-     * Get all focus configurations for the current user.
+     * Get one page of the current user's focus configurations, newest first.
+     * The continuation token of the next page is returned in the {@code X-Next-Cursor} header (absent on the last page).
+     * Answers 304 when {@code If-None-Match} carries the current revision.
      *
+     * @param active only active or inactive configurations
+     * @param from   saved at or after this instant
+     * @param to     saved before this instant
+     * @param limit  page size (default 50, at most 200)
+     * @param cursor {@code X-Next-Cursor} of the previous page
      * @return list of FocusConfig
      */
     @GetMapping
-    public ResponseEntity<List<FocusConfig>> getAllConfigsForUser( ) {
-        List<FocusConfig> configs = focusConfigService.getAllConfigsForUser();
-        return ResponseEntity.ok(configs);
+    public ResponseEntity<List<FocusConfig>> getAllConfigsForUser(
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        writeBuffer.flushCurrentUser();
+        String eTag = currentETag();
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return conditional(eTag, HttpStatus.NOT_MODIFIED).build();
+        }
+        FocusConfigPage page = focusConfigService.getConfigsForUser(active, toUtc(from), toUtc(to), limit, cursor);
+        ResponseEntity.BodyBuilder response = conditional(eTag, HttpStatus.OK);
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * The current user's versions older than the history retention, folded out of the listing by the nightly
+     * compaction; newest first. Answers 304 when {@code If-None-Match} carries the current revision.
+     *
+     * @param limit number of versions (default 50, at most 200)
+     * @return list of FocusConfig
+     */
+    @GetMapping("/history")
+    public ResponseEntity<List<FocusConfig>> getFocusConfigHistory(@RequestParam(required = false) Integer limit,
+                                                                   WebRequest request) {
+        writeBuffer.flushCurrentUser();
+        String eTag = currentETag();
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return conditional(eTag, HttpStatus.NOT_MODIFIED).build();
+        }
+        return conditional(eTag, HttpStatus.OK).body(focusConfigService.getCompactedHistory(limit));
+    }
+
+    /**
+     * Changes of the current configuration since the version returned by the previous call.
+     *
+     * @param since last version known by the client (omit for a full snapshot)
+     * @return the delta, or a snapshot when the client is too far behind
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<FocusConfigDelta> getFocusConfigChanges(@RequestParam(required = false) Long since) {
+        writeBuffer.flushCurrentUser();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(focusConfigService.getConfigChanges(since));
+    }
+
+    /**
+     * Server-sent events stream of the current user's configuration: the current one first, then every change.
+     *
+     * @param lastEventId revision last received by a reconnecting client
+     * @return the event stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamFocusConfig(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        writeBuffer.flushCurrentUser();
+        return focusConfigStreamService.subscribe(lastEventId);
     }
 
     /**
      * Delete a focus configuration by ID.
      *
      * @param configId the UUID of the config to delete
+     * @param ifMatch  ETag of the revision the client read, optional (412 if it changed since)
      * @return HTTP 204 NO CONTENT
      */
     @DeleteMapping("/{configId}")
-    public ResponseEntity<Void> deleteFocusConfig(@PathVariable UUID configId) {
-        focusConfigService.deleteFocusConfig(configId);
+    public ResponseEntity<Void> deleteFocusConfig(@PathVariable UUID configId,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedRevision = ETagUtil.expectedVersion(ifMatch);
+        writeBuffer.flushCurrentUser();
+        focusConfigService.deleteFocusConfig(configId, expectedRevision);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Apply a set diff to the current configuration: only the changed sites and selectors are sent.
+     *
+     * @param configId id of the current configuration
+     * @param patch    sites and selectors to add or remove
+     * @param ifMatch  ETag of the revision the client read, optional (412 if it changed since)
+     * @return the new version and its ETag
+     */
+    @PatchMapping(value = "/{configId}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<FocusConfig> patchFocusConfig(@PathVariable UUID configId, @RequestBody FocusConfigPatch patch,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedRevision = ETagUtil.expectedVersion(ifMatch);
+        writeBuffer.flushCurrentUser();
+        return patched(focusConfigService.patchFocusConfig(configId, patch, expectedRevision));
+    }
+
+    /**
+     * Apply RFC 6902 operations to the current configuration.
+     *
+     * @param configId   id of the current configuration
+     * @param operations JSON Patch document
+     * @param ifMatch    ETag of the revision the client read, optional (412 if it changed since)
+     * @return the new version and its ETag
+     */
+    @PatchMapping(value = "/{configId}", consumes = JSON_PATCH_VALUE)
+    public ResponseEntity<FocusConfig> jsonPatchFocusConfig(@PathVariable UUID configId,
+                                                            @RequestBody List<JsonPatchOperation> operations,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedRevision = ETagUtil.expectedVersion(ifMatch);
+        writeBuffer.flushCurrentUser();
+        return patched(focusConfigService.patchFocusConfig(configId, operations, expectedRevision));
+    }
+
+    // Le numéro de la nouvelle version est la révision à laquelle elle a été enregistrée : c'est le nouvel ETag
+    private static ResponseEntity<FocusConfig> patched(FocusConfig config) {
+        return ResponseEntity.ok().eTag(ETagUtil.toETag(config.getVersionNumber())).body(config);
+    }
+
+    // savedAt est stocké en UTC (voir FocusConfigMapper)
+    private static LocalDateTime toUtc(OffsetDateTime instant) {
+        return instant != null ? LocalDateTime.ofInstant(instant.toInstant(), ZoneOffset.UTC) : null;
+    }
+
+    private String currentETag() {
+        return ETagUtil.toETag(focusConfigService.getConfigRevision().orElse(null));
+    }
+
+    // "gzip" ou "*" sans q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") && param.substring(2).trim().matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Réponse propre à l'utilisateur : jamais partagée, toujours revalidée (requête conditionnelle à chaque poll)
+    private static ResponseEntity.BodyBuilder conditional(String eTag, HttpStatus status) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status).cacheControl(CacheControl.noCache().cachePrivate());
+        return eTag != null ? builder.eTag(eTag) : builder;
+    }
+}
@@ -1,16 +1,20 @@
 package com.dev.focusshield.controller.users;
 
+import com.dev.focusshield.config.AuthRateLimiter;
 import com.dev.focusshield.model.*;
 import com.dev.focusshield.service.users.UserService;
+import com.dev.focusshield.utils.ETagUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -26,15 +30,18 @@ import static com.dev.focusshield.utils.contants.ApiRoutes.*;
 public class UserController {
 
     private final UserService userService;
+    private final AuthRateLimiter authRateLimiter;
 
     @Operation(summary = "Register a new user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "User registered successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = User.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid password format", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Invalid password format", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many attempts", content = @Content)
     })
     @PostMapping
-    public ResponseEntity<User> registerUser(@RequestBody @Valid RegisterRequest request) {
+    public ResponseEntity<User> registerUser(@RequestBody @Valid RegisterRequest request, HttpServletRequest httpRequest) {
+        authRateLimiter.check(AuthRateLimiter.REGISTER, request.getEmail(), httpRequest.getRemoteAddr());
         User registered = userService.register(request);
         return ResponseEntity.status(201).body(registered);
     }
@@ -57,7 +64,7 @@ public class UserController {
     @GetMapping("/{userId}")
     public ResponseEntity<User> getUserById(@PathVariable UUID userId) {
         return userService.getUserById(userId)
-                .map(ResponseEntity::ok)
+                .map(UserController::withETag)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -65,15 +72,17 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User updated",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = User.class))),
-            @ApiResponse(responseCode = "404", description = "User not found", content = @Content)
+            @ApiResponse(responseCode = "404", description = "User not found", content = @Content),
+            @ApiResponse(responseCode = "412", description = "User modified since the ETag sent in If-Match", content = @Content)
     })
     @PutMapping("/{userId}")
     public ResponseEntity<User> updateUser(
             @PathVariable UUID userId,
-            @RequestBody UpdateRequest updateRequest
+            @RequestBody UpdateRequest updateRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return userService.updateUser(userId, updateRequest)
-                .map(ResponseEntity::ok)
+        return userService.updateUser(userId, updateRequest, ETagUtil.expectedVersion(ifMatch))
+                .map(UserController::withETag)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -92,14 +101,40 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Login successful",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = User.class))),
-            @ApiResponse(responseCode = "401", description = "Invalid credentials", content = @Content)
+            @ApiResponse(responseCode = "401", description = "Invalid credentials", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many attempts", content = @Content)
     })
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody @Valid LoginRequest request) {
+    public ResponseEntity<AuthResponse> login(@RequestBody @Valid LoginRequest request, HttpServletRequest httpRequest) {
+        // Avant toute requête en base et tout hachage
+        authRateLimiter.check(AuthRateLimiter.LOGIN, request.getEmail(), httpRequest.getRemoteAddr());
         AuthResponse authResponse = userService.login(request);
         return ResponseEntity.ok(authResponse);
     }
 
+    @Operation(summary = "Renew an access token from a refresh token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "New token pair issued",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = AuthResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Invalid, expired or reused refresh token", content = @Content)
+    })
+    @PostMapping(USERS_TOKEN_REFRESH)
+    public ResponseEntity<AuthResponse> refreshToken(@RequestBody @Valid RefreshTokenRequest request) {
+        return ResponseEntity.ok(userService.refreshToken(request));
+    }
+
+    @Operation(summary = "Logout: revoke the current access token and every refresh token of the user")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Session revoked", content = @Content)
+    })
+    @PostMapping(USERS_LOGOUT)
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        if (authorization.startsWith("Bearer ")) {
+            userService.logout(authorization.substring(7));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Update - Update an existing application
      * @param userEmail - The Email of the user to update
@@ -122,4 +157,8 @@ public class UserController {
         return userService.unassignRoleToUser(userEmail, roleName);
     }
 
-}
\ No newline at end of file
+    // La version de l'utilisateur, à renvoyer dans If-Match pour une mise à jour conditionnelle
+    private static ResponseEntity<User> withETag(User user) {
+        return ResponseEntity.ok().eTag(ETagUtil.toETag(user.getVersion())).body(user);
+    }
+}
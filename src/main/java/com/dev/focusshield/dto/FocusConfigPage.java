@@ -0,0 +1,11 @@
+package com.dev.focusshield.dto;
+
+import com.dev.focusshield.model.FocusConfig;
+
+import java.util.List;
+
+// dto/FocusConfigPage.java
+public record FocusConfigPage(
+        List<FocusConfig> items,
+        String nextCursor // null on the last page
+) {}
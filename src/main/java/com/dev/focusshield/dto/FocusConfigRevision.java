@@ -0,0 +1,10 @@
+package com.dev.focusshield.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record FocusConfigRevision(
+        UUID userId,
+        long revision,
+        LocalDateTime updatedAt
+) {}
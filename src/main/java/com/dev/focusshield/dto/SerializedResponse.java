@@ -0,0 +1,16 @@
+package com.dev.focusshield.dto;
+
+/**
+ * Corps JSON déjà sérialisé, tel quel et compressé en gzip.
+ *
+ * @param identity octets JSON UTF-8
+ * @param gzip     les mêmes octets compressés
+ */
+public record SerializedResponse(
+        byte[] identity,
+        byte[] gzip
+) {
+    public int size() {
+        return identity.length + gzip.length;
+    }
+}
@@ -0,0 +1,12 @@
+package com.dev.focusshield.dto;
+
+import com.dev.focusshield.entities.AccountStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record UserStatusChange(
+        UUID universalId,
+        AccountStatus status,
+        LocalDateTime statusChangedAt
+) {}
@@ -0,0 +1,43 @@
+package com.dev.focusshield.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Journal des sites et sélecteurs modifiés par chaque révision de la configuration courante d'un utilisateur,
+ * lu par {@code GET /focus-config/changes?since=}. Seules les dernières révisions sont conservées.
+ */
+@Entity
+@Table(name = "focus_config_change",
+        indexes = @Index(name = "idx_focus_config_change_user_revision", columnList = "user_id, revision"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FocusConfigChangeEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "revision", nullable = false)
+    private long revision;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 20)
+    private FocusConfigChangeType type;
+
+    // Site bloqué, ou site du sélecteur
+    @Column(name = "item", nullable = false)
+    private String item;
+
+    @Column(name = "selector", columnDefinition = "TEXT")
+    private String selector;
+}
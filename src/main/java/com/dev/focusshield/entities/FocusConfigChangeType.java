@@ -0,0 +1,12 @@
+package com.dev.focusshield.entities;
+
+/**
+ * Nature d'une entrée du journal {@code focus_config_change}.
+ */
+public enum FocusConfigChangeType {
+    SITE_ADDED,
+    SITE_REMOVED,
+    /** Sélecteur ajouté ou modifié : la valeur est celle de la nouvelle configuration. */
+    SELECTOR_SET,
+    SELECTOR_REMOVED
+}
@@ -0,0 +1,45 @@
+package com.dev.focusshield.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Pointeur vers la configuration courante d'un utilisateur (une ligne par utilisateur), tenu à jour dans la même
+ * transaction que l'écriture de {@code focus_config} : {@code GET /focus-config/latest} se réduit à une lecture
+ * par clé primaire, quelle que soit la taille de l'historique.
+ *
+ * <p>{@link #revision} est incrémentée à chaque ajout ou suppression d'une configuration de l'utilisateur ; elle
+ * sert d'ETag aux endpoints de lecture.
+ */
+@Entity
+@Table(name = "focus_config_current", indexes = @Index(name = "idx_focus_config_current_updated_at", columnList = "updated_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FocusConfigCurrentEntity {
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    // null quand l'utilisateur a supprimé toutes ses configurations
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "config_id", unique = true)
+    private FocusConfigEntity config;
+
+    @Column(name = "revision", nullable = false)
+    private long revision;
+
+    // Le journal focus_config_change contient toutes les révisions postérieures à celle-ci
+    @Column(name = "log_start_revision", nullable = false)
+    private long logStartRevision;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -1,6 +1,7 @@
 package com.dev.focusshield.entities;
 
 
+import com.dev.focusshield.utils.converters.BlockedSitesConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,7 +15,13 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "focus_config")
+// Historique d'un utilisateur, du plus récent au plus ancien (liste, repli de /latest, remplacement après suppression)
+@Table(name = "focus_config",
+        uniqueConstraints = @UniqueConstraint(name = "uk_focus_config_user_version", columnNames = {"user_id", "version_number"}),
+        indexes = {
+                @Index(name = "idx_focus_config_user_active_saved_at", columnList = "user_id, active, saved_at"),
+                @Index(name = "idx_focus_config_user_saved_at", columnList = "user_id, saved_at, id")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,16 +31,23 @@ public class FocusConfigEntity {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @ElementCollection
-    @CollectionTable(name = "blocked_sites", joinColumns = @JoinColumn(name = "config_id"))
-    @Column(name = "site")
+    // Une seule colonne au lieu d'une ligne par site dans blocked_sites (migrée au démarrage, voir BlockedSitesMigration).
+    // Toujours remplacer la liste, ne pas la modifier en place.
+    @Convert(converter = BlockedSitesConverter.class)
+    @Column(name = "blocked_sites_data", length = 16_777_215)
     private List<String> blockedSites;
 
     private Integer durationMinutes;
 
+    // Une seule version active par utilisateur : enregistrer une version désactive la précédente
     private boolean active;
 
+    // Révision à laquelle la version est devenue courante (croissante par utilisateur) ; null avant le versionnage
+    @Column(name = "version_number")
+    private Long versionNumber;
+
     @CreationTimestamp
+    @Column(name = "saved_at")
     private LocalDateTime savedAt;
 
     @ManyToOne(fetch = FetchType.LAZY)
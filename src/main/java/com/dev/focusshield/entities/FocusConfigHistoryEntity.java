@@ -0,0 +1,45 @@
+package com.dev.focusshield.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Anciennes versions inactives d'un utilisateur, retirées de {@code focus_config} par la compaction et conservées
+ * ici en un seul bloc : tableau JSON des configurations (format de l'API), compressé en gzip.
+ */
+@Entity
+@Table(name = "focus_config_history",
+        indexes = @Index(name = "idx_focus_config_history_user_last_saved_at", columnList = "user_id, last_saved_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FocusConfigHistoryEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "first_saved_at", nullable = false)
+    private LocalDateTime firstSavedAt;
+
+    @Column(name = "last_saved_at", nullable = false)
+    private LocalDateTime lastSavedAt;
+
+    @Column(name = "config_count", nullable = false)
+    private int configCount;
+
+    @Column(name = "snapshot", nullable = false, length = 16_777_215)
+    private byte[] snapshot;
+
+    @Column(name = "compacted_at", nullable = false)
+    private LocalDateTime compactedAt;
+}
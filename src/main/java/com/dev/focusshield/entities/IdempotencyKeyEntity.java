@@ -0,0 +1,66 @@
+package com.dev.focusshield.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Clé d'idempotence récente ({@code Idempotency-Key}) et réponse de la première requête qui l'a portée.
+ *
+ * <p>Seules des empreintes sont stockées : celle de la clé (portée par l'utilisateur et la route) et celle du corps
+ * de la requête. Tant que {@link #status} est null, la première requête est encore en cours. Les lignes sont purgées
+ * une fois {@link #expiresAt} passé.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKeyEntity implements Persistable<String> {
+
+    public static final int MAX_BODY_BYTES = 16_384;
+
+    @Id
+    @Column(name = "key_hash", length = 43)
+    private String keyHash;
+
+    @Column(name = "request_hash", nullable = false, length = 43)
+    private String requestHash;
+
+    @Column(name = "status")
+    private Integer status;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "etag", length = 64)
+    private String etag;
+
+    @ToString.Exclude
+    @Column(name = "body", length = MAX_BODY_BYTES)
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Override
+    public String getId() {
+        return keyHash;
+    }
+
+    // Toujours inséré, jamais fusionné : une clé déjà prise fait échouer l'INSERT sur la clé primaire
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
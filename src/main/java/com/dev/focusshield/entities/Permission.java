@@ -0,0 +1,53 @@
+package com.dev.focusshield.entities;
+
+import lombok.Getter;
+
+/**
+ * Permissions élémentaires. Un rôle porte un masque de permissions ({@code roles.permissions}) et un token porte
+ * le masque effectif de l'utilisateur (claim "perm") : une autorisation se réduit à un test de bits.
+ *
+ * <p>Le numéro de bit est persisté : ne jamais réutiliser ni renuméroter un bit existant.
+ */
+@Getter
+public enum Permission {
+    PROFILE(0),
+    FOCUS_CONFIG_READ(1),
+    FOCUS_CONFIG_WRITE(2),
+    USERS_ADMIN(3),
+    ROLES_ADMIN(4);
+
+    private final long mask;
+
+    Permission(int bit) {
+        this.mask = 1L << bit;
+    }
+
+    public static long maskOf(Permission... permissions) {
+        long mask = 0L;
+        for (Permission permission : permissions) {
+            mask |= permission.mask;
+        }
+        return mask;
+    }
+
+    /**
+     * Permissions des rôles créés par défaut, utilisées quand {@code roles.permissions} n'est pas renseigné.
+     */
+    public static long defaultsFor(String roleName) {
+        if (roleName == null) {
+            return 0L;
+        }
+        return switch (roleName) {
+            case "ROLE_USER" -> maskOf(PROFILE, FOCUS_CONFIG_READ, FOCUS_CONFIG_WRITE);
+            case "ROLE_ADMIN" -> maskOf(USERS_ADMIN, ROLES_ADMIN);
+            default -> 0L;
+        };
+    }
+
+    /**
+     * @return le masque stocké du rôle, ou les permissions par défaut de son nom
+     */
+    public static long of(RoleEntity role) {
+        return role.getPermissions() != null ? role.getPermissions() : defaultsFor(role.getRoleName());
+    }
+}
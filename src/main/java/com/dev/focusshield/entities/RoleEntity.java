@@ -38,6 +38,13 @@ public class RoleEntity implements Serializable {
     @JsonProperty("level")
     private Integer level;
 
+    /**
+     * Masque de {@link Permission} propres au rôle (null = permissions par défaut du nom du rôle).
+     */
+    @JsonProperty("permissions")
+    @Column(name = "permissions")
+    private Long permissions;
+
     @ManyToMany(mappedBy = "roles")
     private List<UserEntity> users;
 
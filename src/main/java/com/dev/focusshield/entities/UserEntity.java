@@ -22,7 +22,10 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+        indexes = @Index(name = "idx_users_status_changed_at", columnList = "status_changed_at"),
+        // Chaque requête authentifiée résout son principal par universalId
+        uniqueConstraints = @UniqueConstraint(name = "uk_users_universal_id", columnNames = "universal_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -55,6 +58,7 @@ public class UserEntity implements UserDetails {
 
     public static final String SERIALIZED_NAME_UNIVERSAL_ID = "universalId";
     @SerializedName(SERIALIZED_NAME_UNIVERSAL_ID)
+    @Column(name = "universal_id", updatable = false)
     private UUID universalId;
 
     public static final String SERIALIZED_NAME_PHONE = "phone";
@@ -69,6 +73,10 @@ public class UserEntity implements UserDetails {
     @Column(nullable = false)
     private AccountStatus status;
 
+    // Watermark used by the other instances to refresh their in-memory denylist incrementally
+    @Column(name = "status_changed_at")
+    private LocalDateTime statusChangedAt;
+
     public static final String SERIALIZED_NAME_AUTHENTICATION_CODE = "authenticationCode";
     @SerializedName(SERIALIZED_NAME_AUTHENTICATION_CODE)
     private String authenticationCode;
@@ -84,6 +92,11 @@ public class UserEntity implements UserDetails {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    // Verrou optimiste : incrémenté à chaque modification, sert d'ETag à GET / PUT /users/{userId}
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<FocusConfigEntity> focusConfigs = new ArrayList<>();
 
@@ -100,6 +113,7 @@ public class UserEntity implements UserDetails {
         LocalDateTime now = LocalDateTime.now();
         this.createdAt = now;
         this.updatedAt = now;
+        this.statusChangedAt = now;
         this.universalId = UUID.randomUUID();
     }
 
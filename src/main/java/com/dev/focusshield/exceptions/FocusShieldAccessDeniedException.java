@@ -0,0 +1,7 @@
+package com.dev.focusshield.exceptions;
+
+public class FocusShieldAccessDeniedException extends FocusShieldException {
+    public FocusShieldAccessDeniedException(FocusShieldErrorCode error) {
+        super(error);
+    }
+}
@@ -0,0 +1,7 @@
+package com.dev.focusshield.exceptions;
+
+public class FocusShieldConflictException extends FocusShieldException {
+    public FocusShieldConflictException(FocusShieldErrorCode error) {
+        super(error);
+    }
+}
@@ -16,10 +16,23 @@ public enum FocusShieldErrorCode {
     DATA_ERROR_DEFAULT_ROLE_NOT_FOUND("404-003", "Default role not found"),
     DATA_ERROR_UNKNOWN_CONSTRAINT("409-999", "A database constraint violation occurred"),
     DATA_ERROR_INVALID_CREDENTIALS("401-001", "Invalid email or password"),
+    DATA_ERROR_INVALID_REFRESH_TOKEN("401-002", "Invalid or expired refresh token"),
+    DATA_ERROR_ACCOUNT_DISABLED("403-001", "Account is blocked or banned"),
+    DATA_ERROR_TOO_MANY_ATTEMPTS("429-001", "Too many attempts, please retry later"),
+    DATA_ERROR_SERVICE_BUSY("503-001", "Server is busy, please retry later"),
 
     // ⭐ NEW ERROR CODES ⭐
     DATA_ERROR_JSON_CONVERSION("400-010", "Error during JSON data conversion."),
-    DATA_ERROR_INVALID_TIME_FORMAT("400-011", "Invalid time format provided.");
+    DATA_ERROR_INVALID_TIME_FORMAT("400-011", "Invalid time format provided."),
+    DATA_ERROR_INVALID_CURSOR("400-012", "Invalid pagination cursor."),
+    DATA_ERROR_INVALID_PATCH("400-013", "Invalid patch operation or path."),
+    DATA_ERROR_CONFIG_NOT_CURRENT("409-003", "This focus configuration is no longer the current one"),
+    DATA_ERROR_PATCH_TEST_FAILED("409-004", "A patch test operation failed"),
+    DATA_ERROR_CONCURRENT_UPDATE("409-005", "The resource was modified by another request, please retry"),
+    DATA_ERROR_PRECONDITION_FAILED("412-001", "The resource was modified since it was read (If-Match)"),
+    DATA_ERROR_INVALID_IDEMPOTENCY_KEY("400-014", "Idempotency-Key must be 1 to 255 characters"),
+    DATA_ERROR_IDEMPOTENCY_IN_PROGRESS("409-006", "A request with this Idempotency-Key is still in progress, please retry"),
+    DATA_ERROR_IDEMPOTENCY_KEY_REUSED("422-001", "This Idempotency-Key was already used with a different request body");
 
     private final String code;
     private final String label;
@@ -0,0 +1,7 @@
+package com.dev.focusshield.exceptions;
+
+public class FocusShieldPreconditionFailedException extends FocusShieldException {
+    public FocusShieldPreconditionFailedException(FocusShieldErrorCode error) {
+        super(error);
+    }
+}
@@ -0,0 +1,7 @@
+package com.dev.focusshield.exceptions;
+
+public class FocusShieldServiceUnavailableException extends FocusShieldException {
+    public FocusShieldServiceUnavailableException(FocusShieldErrorCode error) {
+        super(error);
+    }
+}
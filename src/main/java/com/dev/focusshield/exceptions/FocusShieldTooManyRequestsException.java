@@ -0,0 +1,13 @@
+package com.dev.focusshield.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class FocusShieldTooManyRequestsException extends FocusShieldException {
+    private final long retryAfterSeconds;
+
+    public FocusShieldTooManyRequestsException(FocusShieldErrorCode error, long retryAfterSeconds) {
+        super(error);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -1,10 +1,13 @@
 package com.dev.focusshield.exceptions;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -154,6 +157,61 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
+    @ExceptionHandler(FocusShieldConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<FocusShieldError> handleConflict(FocusShieldConflictException ex) {
+        LOGGER.warn("Handling FocusShieldConflictException: {}", ex.getMessage());
+
+        var error = FocusShieldError.builder()
+                .code(ex.getError().getCode())
+                .message(ex.getMessage())
+                .timestamp(LocalDateTime.now().toString())
+                .build();
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(FocusShieldPreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ResponseEntity<FocusShieldError> handlePreconditionFailed(FocusShieldPreconditionFailedException ex) {
+        LOGGER.warn("Handling FocusShieldPreconditionFailedException: {}", ex.getMessage());
+
+        var error = FocusShieldError.builder()
+                .code(ex.getError().getCode())
+                .message(ex.getMessage())
+                .timestamp(LocalDateTime.now().toString())
+                .build();
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    // Écriture concurrente détectée par @Version sur une requête sans If-Match : le client peut simplement réessayer
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<FocusShieldError> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        LOGGER.warn("Handling OptimisticLockingFailureException: {}", ex.getMessage());
+
+        FocusShieldErrorCode errorCode = FocusShieldErrorCode.DATA_ERROR_CONCURRENT_UPDATE;
+        var error = FocusShieldError.builder()
+                .code(errorCode.getCode())
+                .message(errorCode.getLabel())
+                .timestamp(LocalDateTime.now().toString())
+                .build();
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    // Configuration absente ou déjà repliée dans l'historique par la compaction
+    @ExceptionHandler(EntityNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ResponseEntity<FocusShieldError> handleEntityNotFound(EntityNotFoundException ex) {
+        LOGGER.warn("Handling EntityNotFoundException: {}", ex.getMessage());
+
+        var error = FocusShieldError.builder()
+                .code(String.valueOf(HttpStatus.NOT_FOUND.value()))
+                .message(ex.getMessage())
+                .timestamp(LocalDateTime.now().toString())
+                .build();
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
     @ExceptionHandler(FocusShieldInvalidCredentials.class)
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     public ResponseEntity<FocusShieldError> handleInvalidCredentials(FocusShieldInvalidCredentials ex) {
@@ -167,6 +225,49 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
     }
 
+    @ExceptionHandler(FocusShieldAccessDeniedException.class)
+    @ResponseStatus(HttpStatus.FORBIDDEN)
+    public ResponseEntity<FocusShieldError> handleAccessDenied(FocusShieldAccessDeniedException ex) {
+        LOGGER.error("Handling FocusShieldAccessDeniedException: {}", ex.getMessage());
+
+        var error = FocusShieldError.builder()
+                .code(ex.getError().getCode())
+                .message(ex.getMessage())
+                .timestamp(LocalDateTime.now().toString())
+                .build();
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+    }
+
+    @ExceptionHandler(FocusShieldTooManyRequestsException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ResponseEntity<FocusShieldError> handleTooManyRequests(FocusShieldTooManyRequestsException ex) {
+        LOGGER.warn("Handling FocusShieldTooManyRequestsException: {}", ex.getMessage());
+
+        var error = FocusShieldError.builder()
+                .code(ex.getError().getCode())
+                .message(ex.getMessage())
+                .timestamp(LocalDateTime.now().toString())
+                .build();
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    @ExceptionHandler(FocusShieldServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<FocusShieldError> handleServiceUnavailable(FocusShieldServiceUnavailableException ex) {
+        LOGGER.warn("Handling FocusShieldServiceUnavailableException: {}", ex.getMessage());
+
+        var error = FocusShieldError.builder()
+                .code(ex.getError().getCode())
+                .message(ex.getMessage())
+                .timestamp(LocalDateTime.now().toString())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<FocusShieldError> handleIllegalArgument(IllegalArgumentException ex) {
         LOGGER.error("Handling handleIllegalArgument: {}", ex.getMessage());
@@ -0,0 +1,28 @@
+package com.dev.focusshield.repositories;
+
+import com.dev.focusshield.entities.FocusConfigChangeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface FocusConfigChangeRepository extends JpaRepository<FocusConfigChangeEntity, UUID> {
+
+    /**
+     * Changes written after the given revision, oldest first (index on user_id, revision).
+     */
+    List<FocusConfigChangeEntity> findByUserIdAndRevisionGreaterThanOrderByRevisionAsc(UUID userId, long revision);
+
+    @Modifying
+    @Query("delete from FocusConfigChangeEntity c where c.userId = :userId and c.revision <= :revision")
+    int deleteUpTo(@Param("userId") UUID userId, @Param("revision") long revision);
+
+    @Modifying
+    @Query("delete from FocusConfigChangeEntity c where c.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+}
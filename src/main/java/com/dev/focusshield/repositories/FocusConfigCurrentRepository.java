@@ -0,0 +1,68 @@
+package com.dev.focusshield.repositories;
+
+import com.dev.focusshield.dto.FocusConfigRevision;
+import com.dev.focusshield.entities.FocusConfigCurrentEntity;
+import com.dev.focusshield.entities.FocusConfigEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface FocusConfigCurrentRepository extends JpaRepository<FocusConfigCurrentEntity, UUID> {
+
+    /**
+     * Primary-key lookup on the pointer joined to the configuration by its primary key.
+     */
+    @Query("select c.config from FocusConfigCurrentEntity c where c.userId = :userId")
+    Optional<FocusConfigEntity> findConfigByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Version of the user's configurations, read without touching focus_config (conditional GETs).
+     */
+    @Query("select c.revision from FocusConfigCurrentEntity c where c.userId = :userId")
+    Optional<Long> findRevisionByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Revisions written after the given watermark, oldest first (propagates changes made on other instances).
+     */
+    @Query("select new com.dev.focusshield.dto.FocusConfigRevision(c.userId, c.revision, c.updatedAt) "
+            + "from FocusConfigCurrentEntity c where c.updatedAt > :since order by c.updatedAt")
+    List<FocusConfigRevision> findRevisionsSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Claims the next revision with a single conditional UPDATE, before the pointer is loaded. The updated row stays
+     * locked until commit, so concurrent writes of the same user are serialized without a locking read.
+     *
+     * The persistence context is flushed, then cleared: a pointer already loaded by the request (a buffered save
+     * flushed just before, with open-in-view) must not hide the claimed revision from the read that follows.
+     *
+     * @param expected revision the client read (If-Match), or null for an unconditional write
+     * @return 1 if the revision was claimed, 0 if the user has no pointer yet or its revision is no longer {@code expected}
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update FocusConfigCurrentEntity c set c.revision = c.revision + 1 "
+            + "where c.userId = :userId and (:expected is null or c.revision = :expected)")
+    int incrementRevision(@Param("userId") UUID userId, @Param("expected") Long expected);
+
+    /**
+     * Creates the user's pointer at revision 0 unless it exists; a concurrent first write waits on the row inserted by
+     * the other one instead of failing on the primary key.
+     *
+     * @return 1 if the pointer was created, 0 if it already existed
+     */
+    @Modifying
+    @Query("insert into FocusConfigCurrentEntity (userId, revision, logStartRevision, updatedAt) "
+            + "values (:userId, 0, 0, :now) on conflict do nothing")
+    int insertIfAbsent(@Param("userId") UUID userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from FocusConfigCurrentEntity c where c.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+}
@@ -0,0 +1,22 @@
+package com.dev.focusshield.repositories;
+
+import com.dev.focusshield.entities.FocusConfigHistoryEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface FocusConfigHistoryRepository extends JpaRepository<FocusConfigHistoryEntity, UUID> {
+
+    List<FocusConfigHistoryEntity> findByUserIdOrderByLastSavedAtDesc(UUID userId, Limit limit);
+
+    @Modifying
+    @Query("delete from FocusConfigHistoryEntity h where h.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+}
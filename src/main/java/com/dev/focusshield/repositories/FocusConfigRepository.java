@@ -2,9 +2,16 @@ package com.dev.focusshield.repositories;
 
 import com.dev.focusshield.entities.FocusConfigEntity;
 import com.dev.focusshield.entities.UserEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,4 +29,74 @@ public interface FocusConfigRepository extends JpaRepository<FocusConfigEntity,
      */
     Optional<FocusConfigEntity> findTopByUserAndActiveOrderBySavedAtDesc(UserEntity user, boolean isActive);
 
+    /*
+     * Same queries keyed by the foreign key itself (user_id), for callers that only know the user's primary key:
+     * no join on users and no UserEntity to load first.
+     */
+    /**
+     * One keyset page of a user's history, newest first: only ids, read from the (user_id, saved_at) or
+     * (user_id, active, saved_at) index, so deep pages cost the same as the first one (no OFFSET).
+     * Null filters are ignored; {@code afterSavedAt}/{@code afterId} is the last row of the previous page.
+     */
+    @Query("select f.id from FocusConfigEntity f where f.user.id = :userId"
+            + " and (:active is null or f.active = :active)"
+            + " and (:from is null or f.savedAt >= :from)"
+            + " and (:to is null or f.savedAt < :to)"
+            + " and (:afterSavedAt is null or f.savedAt < :afterSavedAt or (f.savedAt = :afterSavedAt and f.id < :afterId))"
+            + " order by f.savedAt desc, f.id desc")
+    List<UUID> findPageIds(@Param("userId") UUID userId,
+                           @Param("active") Boolean active,
+                           @Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to,
+                           @Param("afterSavedAt") LocalDateTime afterSavedAt,
+                           @Param("afterId") UUID afterId,
+                           Limit limit);
+
+    // Propriétaire chargé dans la même requête (les sites sont dans la ligne) : pas de N+1 quand le mapper les lit
+    @EntityGraph(attributePaths = "user")
+    List<FocusConfigEntity> findByIdIn(Collection<UUID> ids);
+
+    Optional<FocusConfigEntity> findTopByUserIdAndActiveOrderBySavedAtDesc(UUID userId, boolean isActive);
+
+    Optional<FocusConfigEntity> findByIdAndUserId(UUID id, UUID userId);
+
+    /**
+     * Most recent configuration other than the given one, used to re-point the current config on delete.
+     */
+    Optional<FocusConfigEntity> findTopByUserIdAndIdNotOrderBySavedAtDesc(UUID userId, UUID excludedId);
+
+    /**
+     * Active configurations that are not their owner's current one: left over from before versioning, when saves
+     * did not deactivate the previous configuration. Users without a current pointer are not touched.
+     */
+    @Query("select f.id from FocusConfigEntity f where f.active = true and exists ("
+            + "select c.userId from FocusConfigCurrentEntity c where c.userId = f.user.id"
+            + " and (c.config is null or c.config <> f))")
+    List<UUID> findStaleActiveIds(Limit limit);
+
+    @Modifying
+    @Query("update FocusConfigEntity f set f.active = false where f.id in :ids"
+            + " and not exists (select c.userId from FocusConfigCurrentEntity c where c.config = f)")
+    int deactivate(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Users owning inactive configurations saved before the cutoff, i.e. history the compaction can fold.
+     */
+    @Query("select distinct f.user.id from FocusConfigEntity f where f.active = false and f.savedAt < :cutoff")
+    List<UUID> findUserIdsWithInactiveBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    /**
+     * Oldest inactive configurations of a user saved before the cutoff, never the current one.
+     */
+    @EntityGraph(attributePaths = "user")
+    @Query("select f from FocusConfigEntity f where f.user.id = :userId and f.active = false and f.savedAt < :cutoff"
+            + " and not exists (select c.userId from FocusConfigCurrentEntity c where c.config = f)"
+            + " order by f.savedAt asc, f.id asc")
+    List<FocusConfigEntity> findInactiveBefore(@Param("userId") UUID userId, @Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    // Ne supprime que des versions encore inactives : une ligne réactivée entre-temps n'est pas compactée
+    @Modifying
+    @Query("delete from FocusConfigEntity f where f.id in :ids and f.active = false")
+    int deleteInactive(@Param("ids") Collection<UUID> ids);
+
 }
@@ -0,0 +1,55 @@
+package com.dev.focusshield.repositories;
+
+import com.dev.focusshield.entities.IdempotencyKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+
+    /**
+     * Stores the response of the request that claimed the key; a key taken over in the meantime is left untouched.
+     *
+     * @return 1 if the response was stored, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyKeyEntity k set k.status = :status, k.contentType = :contentType, k.etag = :etag, "
+            + "k.body = :body where k.keyHash = :keyHash and k.requestHash = :requestHash and k.status is null")
+    int complete(@Param("keyHash") String keyHash,
+                 @Param("requestHash") String requestHash,
+                 @Param("status") int status,
+                 @Param("contentType") String contentType,
+                 @Param("etag") String etag,
+                 @Param("body") byte[] body);
+
+    /**
+     * Frees a key whose request ended without a response worth replaying, so that a retry executes again.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKeyEntity k where k.keyHash = :keyHash and k.requestHash = :requestHash and k.status is null")
+    int release(@Param("keyHash") String keyHash, @Param("requestHash") String requestHash);
+
+    /**
+     * Deletes an expired key, or a key whose first request never completed (node stopped mid-request).
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKeyEntity k where k.keyHash = :keyHash "
+            + "and (k.expiresAt < :now or (k.status is null and k.createdAt < :staleBefore))")
+    int deleteIfAbandoned(@Param("keyHash") String keyHash,
+                          @Param("now") LocalDateTime now,
+                          @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKeyEntity k where k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,44 @@
+package com.dev.focusshield.repositories;
+
+import com.dev.focusshield.entities.RefreshTokenEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshTokenEntity, UUID> {
+
+    /**
+     * Finds a refresh token by its hash, fetching the owner and its roles in the same query.
+     */
+    @EntityGraph(attributePaths = {"user", "user.roles"})
+    Optional<RefreshTokenEntity> findByTokenHash(String tokenHash);
+
+    /**
+     * Revokes a single token only if it is still active.
+     *
+     * @return 1 if this call revoked the token, 0 if it was already revoked (concurrent rotation or replay)
+     */
+    @Modifying
+    @Query("update RefreshTokenEntity t set t.revokedAt = :now where t.id = :id and t.revokedAt is null")
+    int revokeIfActive(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update RefreshTokenEntity t set t.revokedAt = :now where t.user.id = :userId and t.revokedAt is null")
+    int revokeAllForUser(@Param("userId") UUID userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from RefreshTokenEntity t where t.user.id = :userId")
+    void deleteAllByUserId(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("delete from RefreshTokenEntity t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
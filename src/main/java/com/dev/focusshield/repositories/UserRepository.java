@@ -1,9 +1,19 @@
 package com.dev.focusshield.repositories;
 
+import com.dev.focusshield.dto.UserStatusChange;
+import com.dev.focusshield.entities.AccountStatus;
 import com.dev.focusshield.entities.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,9 +21,63 @@ import java.util.UUID;
 public interface UserRepository extends JpaRepository<UserEntity, UUID> {
     Optional<UserEntity> findByEmail(String email);
     Optional<UserEntity> findByUniversalId(UUID universalId);
+
+    /**
+     * Resolves the primary key behind a token subject without loading the entity (unique index on universal_id).
+     */
+    @Query("select u.id from UserEntity u where u.universalId = :universalId")
+    Optional<UUID> findIdByUniversalId(@Param("universalId") UUID universalId);
+
+    @Query("select u.universalId from UserEntity u where u.id = :id")
+    Optional<UUID> findUniversalIdById(@Param("id") UUID id);
     boolean existsByEmail(String email);
 
     boolean existsByUsername(String username);
 
     Optional<UserEntity> findByUsername(String username);
+
+    /**
+     * Replaces a password hash only if it has not changed since it was read, so a concurrent password change wins.
+     *
+     * @return 1 if the hash was upgraded, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("update UserEntity u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int updatePasswordIfUnchanged(@Param("id") UUID id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    /**
+     * Applies the non-null fields of a profile update in a single conditional UPDATE, without reading the user first.
+     * Null fields keep their stored value; the version is incremented like a {@code @Version} update.
+     * The persistence context is cleared so that the user read back afterwards is the updated row.
+     *
+     * @param expectedVersion version the client read (If-Match), or null for an unconditional update
+     * @return 1 if the user was updated, 0 if it does not exist or its version is no longer {@code expectedVersion}
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserEntity u set u.firstname = coalesce(:firstname, u.firstname), "
+            + "u.surname = coalesce(:surname, u.surname), u.username = coalesce(:username, u.username), "
+            + "u.phone = coalesce(:phone, u.phone), u.email = coalesce(:email, u.email), "
+            + "u.dateOfBirth = coalesce(:dateOfBirth, u.dateOfBirth), "
+            + "u.updatedAt = :now, u.version = u.version + 1 "
+            + "where u.id = :id and (:expectedVersion is null or u.version = :expectedVersion)")
+    int updateProfile(@Param("id") UUID id,
+                      @Param("firstname") String firstname,
+                      @Param("surname") String surname,
+                      @Param("username") String username,
+                      @Param("phone") String phone,
+                      @Param("email") String email,
+                      @Param("dateOfBirth") LocalDate dateOfBirth,
+                      @Param("now") LocalDateTime now,
+                      @Param("expectedVersion") Long expectedVersion);
+
+    @Query("select u.universalId from UserEntity u where u.status in :statuses")
+    List<UUID> findUniversalIdsByStatusIn(@Param("statuses") Collection<AccountStatus> statuses);
+
+    /**
+     * Lists the status changes recorded after the given watermark, oldest first.
+     */
+    @Query("select new com.dev.focusshield.dto.UserStatusChange(u.universalId, u.status, u.statusChangedAt) "
+            + "from UserEntity u where u.statusChangedAt > :since order by u.statusChangedAt")
+    List<UserStatusChange> findStatusChangesSince(@Param("since") LocalDateTime since);
 }
@@ -1,6 +1,7 @@
 package com.dev.focusshield.service;
 
 import com.dev.focusshield.entities.AccountStatus;
+import com.dev.focusshield.entities.Permission;
 import com.dev.focusshield.entities.RoleEntity;
 import com.dev.focusshield.entities.UserEntity;
 import com.dev.focusshield.repositories.RoleRepository;
@@ -34,30 +35,39 @@ public class DataInitializer implements CommandLineRunner {
 
     private static final String ROLE_USER = "ROLE_USER";
     private static final String ROLE_ADMIN = "ROLE_ADMIN";
+    private static final int USER_LEVEL = 1;
+    private static final int ADMIN_LEVEL = 10;
 
     @Override
     public void run(String... args) {
 
         // 1. Ensure ROLE_USER exists
-        roleRepository.findByRoleName(ROLE_USER).orElseGet(() -> {
-            RoleEntity userRole = RoleEntity.builder()
+        RoleEntity userRole = roleRepository.findByRoleName(ROLE_USER).orElseGet(() -> {
+            RoleEntity role = RoleEntity.builder()
                     .roleName(ROLE_USER)
-                    .level(1)
+                    .level(USER_LEVEL)
+                    .permissions(Permission.defaultsFor(ROLE_USER))
                     .build();
             log.info("🛠️ Creating default user role: {}", ROLE_USER);
-            return roleRepository.save(userRole);
+            return roleRepository.save(role);
         });
 
         // 2. Ensure ROLE_ADMIN exists
         RoleEntity adminRole = roleRepository.findByRoleName(ROLE_ADMIN).orElseGet(() -> {
             RoleEntity role = RoleEntity.builder()
                     .roleName(ROLE_ADMIN)
-                    .level(1)
+                    .level(ADMIN_LEVEL)
+                    .permissions(Permission.defaultsFor(ROLE_ADMIN))
                     .build();
             log.info("🛠️ Creating default admin role: {}", ROLE_ADMIN);
             return roleRepository.save(role);
         });
 
+        // Default roles created before permissions existed: store their bitmask, and put ROLE_ADMIN above
+        // ROLE_USER so that it inherits the user permissions through the level hierarchy
+        backfillPermissions(userRole, USER_LEVEL);
+        backfillPermissions(adminRole, ADMIN_LEVEL);
+
         // 3. Create a default admin user if not exists
         boolean adminExists = userRepository.findByUsername(adminUsername).isPresent()
                 || userRepository.findByEmail(adminEmail).isPresent();
@@ -76,4 +86,16 @@ public class DataInitializer implements CommandLineRunner {
             log.info("✅ Default admin user created: {}", adminUsername);
         }
     }
-}
\ No newline at end of file
+
+    private void backfillPermissions(RoleEntity role, int defaultLevel) {
+        if (role.getPermissions() != null) {
+            return;
+        }
+        role.setPermissions(Permission.defaultsFor(role.getRoleName()));
+        if (role.getLevel() == null || role.getLevel() < defaultLevel) {
+            role.setLevel(defaultLevel);
+        }
+        roleRepository.save(role);
+        log.info("🛠️ Permissions initialized for role {} (level {})", role.getRoleName(), role.getLevel());
+    }
+}
@@ -0,0 +1,103 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.utils.converters.BlockedSitesConverter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migre les sites bloqués de l'ancienne table {@code blocked_sites} (une ligne par site) vers la colonne
+ * {@code focus_config.blocked_sites_data}, par lots de {@code batch-size} configurations et une transaction par lot.
+ *
+ * <p>Exécutée une fois les singletons créés, donc avant le démarrage du serveur web : aucune requête ne voit une
+ * configuration pas encore migrée (liste vide), qu'un PATCH enregistrerait sans ses sites ou que le cache de
+ * {@code /latest} garderait.
+ *
+ * <p>Idempotente et reprenable : un lot migré est supprimé de {@code blocked_sites}, et une configuration dont la
+ * colonne est déjà remplie n'est jamais réécrite. Une fois la table vide, elle peut être supprimée à la main.
+ */
+@Component
+@Slf4j
+public class BlockedSitesMigration implements SmartInitializingSingleton {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockedSitesConverter converter = new BlockedSitesConverter();
+    private final int batchSize;
+
+    public BlockedSitesMigration(NamedParameterJdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${focus-config.blocked-sites-migration.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!legacyTableExists()) {
+            return; // base créée après le passage à la colonne unique
+        }
+        int migrated = 0;
+        Integer batch;
+        while ((batch = transactionTemplate.execute(status -> migrateBatch())) != null && batch > 0) {
+            migrated += batch;
+        }
+        if (migrated > 0) {
+            log.info("🗜️ Blocked sites of {} focus config(s) moved to focus_config.blocked_sites_data; "
+                    + "the blocked_sites table can now be dropped", migrated);
+        }
+    }
+
+    private int migrateBatch() {
+        List<Object> ids = jdbcTemplate.queryForList(
+                "select distinct b.config_id from blocked_sites b join focus_config f on f.id = b.config_id"
+                        + " where f.blocked_sites_data is null limit " + batchSize,
+                new MapSqlParameterSource(), Object.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Les identifiants sont repassés tels que lus (binary(16) sous MySQL, uuid sous H2)
+        Map<Object, List<String>> sitesByConfig = new LinkedHashMap<>();
+        Map<Object, Object> keys = new LinkedHashMap<>();
+        jdbcTemplate.query("select config_id, site from blocked_sites where config_id in (:ids)",
+                new MapSqlParameterSource("ids", ids),
+                rs -> {
+                    Object configId = rs.getObject("config_id");
+                    Object key = configId instanceof byte[] bytes ? new String(bytes, StandardCharsets.ISO_8859_1) : configId;
+                    keys.putIfAbsent(key, configId);
+                    sitesByConfig.computeIfAbsent(key, k -> new ArrayList<>()).add(rs.getString("site"));
+                });
+
+        List<MapSqlParameterSource> updates = new ArrayList<>(sitesByConfig.size());
+        sitesByConfig.forEach((key, sites) -> updates.add(new MapSqlParameterSource()
+                .addValue("id", keys.get(key))
+                .addValue("data", converter.convertToDatabaseColumn(sites))));
+        jdbcTemplate.batchUpdate(
+                "update focus_config set blocked_sites_data = :data where id = :id and blocked_sites_data is null",
+                updates.toArray(MapSqlParameterSource[]::new));
+        jdbcTemplate.update("delete from blocked_sites where config_id in (:ids)", new MapSqlParameterSource("ids", ids));
+        return ids.size();
+    }
+
+    private boolean legacyTableExists() {
+        try {
+            jdbcTemplate.queryForList("select config_id from blocked_sites where 1 = 0", new MapSqlParameterSource(), Object.class);
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+}
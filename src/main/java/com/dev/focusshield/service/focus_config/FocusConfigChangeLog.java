@@ -0,0 +1,162 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.entities.FocusConfigChangeEntity;
+import com.dev.focusshield.entities.FocusConfigChangeType;
+import com.dev.focusshield.entities.FocusConfigCurrentEntity;
+import com.dev.focusshield.entities.FocusConfigEntity;
+import com.dev.focusshield.model.FocusConfigDelta;
+import com.dev.focusshield.repositories.FocusConfigChangeRepository;
+import com.dev.focusshield.utils.mappers.FocusConfigMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Journal des changements de sites et de sélecteurs entre deux révisions de la configuration courante.
+ *
+ * <p>Chaque révision n'enregistre que la différence avec la précédente. Le journal est borné : il ne garde que les
+ * {@code max-revisions} dernières révisions, et il est remis à zéro quand une révision n'a pas d'état de référence
+ * (première configuration) ou change plus de {@code max-entries-per-revision} éléments. Un client plus ancien que
+ * {@link FocusConfigCurrentEntity#getLogStartRevision()} reçoit alors un snapshot complet.
+ */
+@Component
+public class FocusConfigChangeLog {
+
+    private final FocusConfigChangeRepository focusConfigChangeRepository;
+    private final FocusConfigMapper focusConfigMapper;
+    private final int maxRevisions;
+    private final int maxEntriesPerRevision;
+
+    public FocusConfigChangeLog(FocusConfigChangeRepository focusConfigChangeRepository,
+                                FocusConfigMapper focusConfigMapper,
+                                @Value("${focus-config.changes.max-revisions:100}") int maxRevisions,
+                                @Value("${focus-config.changes.max-entries-per-revision:1000}") int maxEntriesPerRevision) {
+        this.focusConfigChangeRepository = focusConfigChangeRepository;
+        this.focusConfigMapper = focusConfigMapper;
+        this.maxRevisions = maxRevisions;
+        this.maxEntriesPerRevision = maxEntriesPerRevision;
+    }
+
+    /**
+     * Enregistre le passage de {@code previous} à {@code next} sous la révision courante du pointeur (déjà incrémentée).
+     *
+     * @param current  pointeur de l'utilisateur, mis à jour si le début du journal avance
+     * @param previous configuration courante avant le changement, ou null
+     * @param next     nouvelle configuration courante, ou null si l'utilisateur n'en a plus
+     */
+    public void record(FocusConfigCurrentEntity current, FocusConfigEntity previous, FocusConfigEntity next) {
+        UUID userId = current.getUserId();
+        long revision = current.getRevision();
+        List<FocusConfigChangeEntity> changes = previous != null ? diff(userId, revision, previous, next) : null;
+
+        if (changes == null || changes.size() > maxEntriesPerRevision) {
+            // Un snapshot coûte alors moins cher qu'un delta : les clients en retard repartent de cette révision
+            focusConfigChangeRepository.deleteByUserId(userId);
+            current.setLogStartRevision(revision);
+            return;
+        }
+        focusConfigChangeRepository.saveAll(changes);
+
+        long oldestKept = revision - maxRevisions;
+        if (oldestKept > current.getLogStartRevision()) {
+            focusConfigChangeRepository.deleteUpTo(userId, oldestKept);
+            current.setLogStartRevision(oldestKept);
+        }
+    }
+
+    /**
+     * Cumule les changements postérieurs à {@code since} : pour chaque site ou sélecteur, seul le dernier compte.
+     *
+     * @param delta réponse à compléter (listes de sites et de sélecteurs)
+     */
+    public void fillChangesSince(UUID userId, long since, FocusConfigDelta delta) {
+        Map<String, Boolean> sites = new LinkedHashMap<>(); // true = ajouté, false = retiré
+        Map<String, String> selectors = new LinkedHashMap<>(); // valeur null = retiré
+        for (FocusConfigChangeEntity change
+                : focusConfigChangeRepository.findByUserIdAndRevisionGreaterThanOrderByRevisionAsc(userId, since)) {
+            switch (change.getType()) {
+                case SITE_ADDED -> sites.put(change.getItem(), Boolean.TRUE);
+                case SITE_REMOVED -> sites.put(change.getItem(), Boolean.FALSE);
+                case SELECTOR_SET -> selectors.put(change.getItem(), change.getSelector());
+                case SELECTOR_REMOVED -> selectors.put(change.getItem(), null);
+            }
+        }
+
+        List<String> addedSites = new ArrayList<>();
+        List<String> removedSites = new ArrayList<>();
+        sites.forEach((site, added) -> (added ? addedSites : removedSites).add(site));
+        List<String> removedSelectors = new ArrayList<>();
+        Map<String, String> changedSelectors = new LinkedHashMap<>();
+        selectors.forEach((site, selector) -> {
+            if (selector == null) {
+                removedSelectors.add(site);
+            } else {
+                changedSelectors.put(site, selector);
+            }
+        });
+        delta.addedSites(addedSites)
+                .removedSites(removedSites)
+                .changedSelectors(changedSelectors)
+                .removedSelectors(removedSelectors);
+    }
+
+    private List<FocusConfigChangeEntity> diff(UUID userId, long revision, FocusConfigEntity previous, FocusConfigEntity next) {
+        List<FocusConfigChangeEntity> changes = new ArrayList<>();
+
+        Set<String> previousSites = sitesOf(previous);
+        Set<String> nextSites = sitesOf(next);
+        for (String site : nextSites) {
+            if (!previousSites.contains(site)) {
+                changes.add(change(userId, revision, FocusConfigChangeType.SITE_ADDED, site, null));
+            }
+        }
+        for (String site : previousSites) {
+            if (!nextSites.contains(site)) {
+                changes.add(change(userId, revision, FocusConfigChangeType.SITE_REMOVED, site, null));
+            }
+        }
+
+        Map<String, String> previousSelectors = selectorsOf(previous);
+        Map<String, String> nextSelectors = selectorsOf(next);
+        nextSelectors.forEach((site, selector) -> {
+            if (!Objects.equals(previousSelectors.get(site), selector)) {
+                changes.add(change(userId, revision, FocusConfigChangeType.SELECTOR_SET, site, selector));
+            }
+        });
+        for (String site : previousSelectors.keySet()) {
+            if (!nextSelectors.containsKey(site)) {
+                changes.add(change(userId, revision, FocusConfigChangeType.SELECTOR_REMOVED, site, null));
+            }
+        }
+        return changes;
+    }
+
+    private static Set<String> sitesOf(FocusConfigEntity config) {
+        return config != null && config.getBlockedSites() != null
+                ? new LinkedHashSet<>(config.getBlockedSites())
+                : Set.of();
+    }
+
+    private Map<String, String> selectorsOf(FocusConfigEntity config) {
+        return config != null ? focusConfigMapper.jsonStringToMap(config.getCustomSelectorsJson()) : Map.of();
+    }
+
+    private static FocusConfigChangeEntity change(UUID userId, long revision, FocusConfigChangeType type,
+                                                  String item, String selector) {
+        return FocusConfigChangeEntity.builder()
+                .userId(userId)
+                .revision(revision)
+                .type(type)
+                .item(item)
+                .selector(selector)
+                .build();
+    }
+}
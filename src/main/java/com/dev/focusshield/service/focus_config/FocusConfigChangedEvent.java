@@ -0,0 +1,12 @@
+package com.dev.focusshield.service.focus_config;
+
+import java.util.UUID;
+
+/**
+ * Publié par {@link FocusConfigServiceImpl} à chaque enregistrement ou suppression ; traité après le commit.
+ *
+ * @param userId   clé primaire de l'utilisateur
+ * @param revision nouvelle révision de ses configurations (voir {@code focus_config_current.revision})
+ */
+public record FocusConfigChangedEvent(UUID userId, long revision) {
+}
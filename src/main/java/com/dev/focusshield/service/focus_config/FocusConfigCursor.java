@@ -0,0 +1,47 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.exceptions.FocusShieldException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+import static com.dev.focusshield.exceptions.FocusShieldErrorCode.DATA_ERROR_INVALID_CURSOR;
+
+/**
+ * Position de pagination (keyset) dans l'historique d'un utilisateur : le dernier élément renvoyé, selon l'ordre
+ * {@code (savedAt desc, id desc)}. Transmise au client sous forme d'un jeton opaque (Base64 URL, 28 octets).
+ */
+record FocusConfigCursor(LocalDateTime savedAt, UUID id) {
+
+    private static final int LENGTH = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH)
+                .putLong(savedAt.toEpochSecond(ZoneOffset.UTC))
+                .putInt(savedAt.getNano())
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws FocusShieldException (400) si le jeton n'a pas été produit par {@link #encode()}
+     */
+    static FocusConfigCursor decode(String token) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buffer.remaining() != LENGTH) {
+                throw new FocusShieldException(DATA_ERROR_INVALID_CURSOR);
+            }
+            LocalDateTime savedAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            return new FocusConfigCursor(savedAt, new UUID(buffer.getLong(), buffer.getLong()));
+        } catch (IllegalArgumentException | BufferUnderflowException | DateTimeException e) {
+            throw new FocusShieldException(DATA_ERROR_INVALID_CURSOR);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.entities.FocusConfigEntity;
+import com.dev.focusshield.entities.FocusConfigHistoryEntity;
+import com.dev.focusshield.repositories.FocusConfigCurrentRepository;
+import com.dev.focusshield.repositories.FocusConfigHistoryRepository;
+import com.dev.focusshield.repositories.FocusConfigRepository;
+import com.dev.focusshield.utils.GzipUtil;
+import com.dev.focusshield.utils.mappers.FocusConfigMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compaction de l'historique des configurations.
+ *
+ * <p>Les versions inactives plus anciennes que {@code retention} sont retirées de {@code focus_config} et repliées,
+ * par utilisateur et par lots de {@code batch-size}, dans une ligne de {@code focus_config_history}. Chaque lot est
+ * une transaction courte, et un passage traite au plus {@code max-batches} lots : le reste attend le passage suivant.
+ * Les configurations encore actives alors qu'elles ne sont plus la courante (enregistrées avant le versionnage)
+ * sont d'abord désactivées, par lots également.
+ *
+ * <p>Chaque lot replié fait avancer la révision de l'utilisateur : la liste de {@code GET /focus-config}, dont elle est
+ * l'ETag, a changé. Les versions repliées restent lisibles par {@code GET /focus-config/history}.
+ *
+ * <p>Plusieurs nœuds peuvent compacter en même temps : un lot dont une partie a déjà été supprimée par un autre nœud
+ * est annulé.
+ */
+@Component
+@Slf4j
+public class FocusConfigHistoryCompactor {
+
+    private final FocusConfigRepository focusConfigRepository;
+    private final FocusConfigHistoryRepository focusConfigHistoryRepository;
+    private final FocusConfigCurrentRepository focusConfigCurrentRepository;
+    private final FocusConfigMapper focusConfigMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public FocusConfigHistoryCompactor(FocusConfigRepository focusConfigRepository,
+                                       FocusConfigHistoryRepository focusConfigHistoryRepository,
+                                       FocusConfigCurrentRepository focusConfigCurrentRepository,
+                                       FocusConfigMapper focusConfigMapper,
+                                       ObjectMapper objectMapper,
+                                       TransactionTemplate transactionTemplate,
+                                       @Value("${focus-config.history.retention:30d}") Duration retention,
+                                       @Value("${focus-config.history.batch-size:100}") int batchSize,
+                                       @Value("${focus-config.history.max-batches:50}") int maxBatches) {
+        this.focusConfigRepository = focusConfigRepository;
+        this.focusConfigHistoryRepository = focusConfigHistoryRepository;
+        this.focusConfigCurrentRepository = focusConfigCurrentRepository;
+        this.focusConfigMapper = focusConfigMapper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(cron = "${focus-config.history.compaction-cron:0 15 4 * * *}")
+    public void compact() {
+        int batches = 0;
+        int deactivated = 0;
+        while (batches < maxBatches) {
+            Integer count = transactionTemplate.execute(status -> deactivateStaleBatch());
+            batches++;
+            if (count == null || count == 0) {
+                break;
+            }
+            deactivated += count;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int folded = 0;
+        while (batches < maxBatches) {
+            List<UUID> userIds = focusConfigRepository.findUserIdsWithInactiveBefore(cutoff, Limit.of(maxBatches - batches));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            for (UUID userId : userIds) {
+                Integer count = transactionTemplate.execute(status -> {
+                    int done = foldBatch(userId, cutoff);
+                    if (done < 0) {
+                        status.setRollbackOnly();
+                    }
+                    return done;
+                });
+                batches++;
+                if (count == null || count < 0) {
+                    log.warn("⚠️ History compaction of user {} raced with another node, stopping this run", userId);
+                    return;
+                }
+                folded += count;
+            }
+        }
+        if (deactivated > 0 || folded > 0) {
+            log.info("🗜️ Focus config history: {} stale active config(s) deactivated, {} old version(s) compacted",
+                    deactivated, folded);
+        }
+    }
+
+    private int deactivateStaleBatch() {
+        List<UUID> ids = focusConfigRepository.findStaleActiveIds(Limit.of(batchSize));
+        return ids.isEmpty() ? 0 : focusConfigRepository.deactivate(ids);
+    }
+
+    /**
+     * @return nombre de versions repliées, ou -1 si un autre nœud en a supprimé une partie (lot à annuler)
+     */
+    int foldBatch(UUID userId, LocalDateTime cutoff) {
+        List<FocusConfigEntity> configs = focusConfigRepository.findInactiveBefore(userId, cutoff, Limit.of(batchSize));
+        if (configs.isEmpty()) {
+            return 0;
+        }
+        byte[] snapshot;
+        try {
+            snapshot = GzipUtil.gzip(objectMapper.writeValueAsBytes(
+                    configs.stream().map(focusConfigMapper::toResponse).toList()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize focus config history", e);
+        }
+
+        List<UUID> ids = configs.stream().map(FocusConfigEntity::getId).toList();
+        if (focusConfigRepository.deleteInactive(ids) != ids.size()) {
+            return -1;
+        }
+        focusConfigHistoryRepository.save(FocusConfigHistoryEntity.builder()
+                .userId(userId)
+                .firstSavedAt(configs.get(0).getSavedAt())
+                .lastSavedAt(configs.get(configs.size() - 1).getSavedAt())
+                .configCount(configs.size())
+                .snapshot(snapshot)
+                .compactedAt(LocalDateTime.now())
+                .build());
+        // Sans pointeur (historique antérieur au versionnage), la liste n'a pas d'ETag : rien à invalider
+        focusConfigCurrentRepository.incrementRevision(userId, null);
+        return configs.size();
+    }
+}
@@ -0,0 +1,279 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.entities.FocusConfigEntity;
+import com.dev.focusshield.exceptions.FocusShieldConflictException;
+import com.dev.focusshield.exceptions.FocusShieldErrorCode;
+import com.dev.focusshield.exceptions.FocusShieldException;
+import com.dev.focusshield.model.FocusConfigPatch;
+import com.dev.focusshield.model.JsonPatchOperation;
+import com.dev.focusshield.utils.mappers.FocusConfigMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applique un patch à une configuration et renvoie la nouvelle version (non enregistrée) ; la configuration de
+ * départ n'est jamais modifiée. Un patch est appliqué entièrement ou pas du tout.
+ *
+ * <p>Deux formats : un diff d'ensembles ({@link FocusConfigPatch}) ou des opérations RFC 6902 sur
+ * {@code /blockedSites}, {@code /customSelectors/{site}}, {@code /durationMinutes}, {@code /pauseStartTime} et
+ * {@code /pauseEndTime}. {@code move} et {@code copy} ne sont pas acceptés.
+ */
+@Component
+@RequiredArgsConstructor
+public class FocusConfigPatcher {
+
+    private static final String SITES = "blockedSites";
+    private static final String SELECTORS = "customSelectors";
+
+    private final FocusConfigMapper focusConfigMapper;
+
+    public FocusConfigEntity apply(FocusConfigEntity base, FocusConfigPatch patch) {
+        Draft draft = new Draft(base);
+        if (patch.getRemoveSites() != null && !patch.getRemoveSites().isEmpty()) {
+            draft.sites.removeAll(new HashSet<>(patch.getRemoveSites()));
+        }
+        if (patch.getAddSites() != null) {
+            Set<String> present = new HashSet<>(draft.sites);
+            for (String site : patch.getAddSites()) {
+                if (present.add(site)) {
+                    draft.sites.add(site);
+                }
+            }
+        }
+        if (patch.getRemoveSelectors() != null) {
+            patch.getRemoveSelectors().forEach(draft.selectors::remove);
+        }
+        if (patch.getSetSelectors() != null) {
+            draft.selectors.putAll(patch.getSetSelectors());
+        }
+        if (patch.getDurationMinutes() != null) {
+            draft.durationMinutes = patch.getDurationMinutes();
+        }
+        if (patch.getPauseStartTime() != null) {
+            draft.pauseStartTime = focusConfigMapper.stringToLocalTime(patch.getPauseStartTime());
+        }
+        if (patch.getPauseEndTime() != null) {
+            draft.pauseEndTime = focusConfigMapper.stringToLocalTime(patch.getPauseEndTime());
+        }
+        return draft.toEntity();
+    }
+
+    public FocusConfigEntity apply(FocusConfigEntity base, List<JsonPatchOperation> operations) {
+        Draft draft = new Draft(base);
+        for (JsonPatchOperation operation : operations) {
+            if (operation == null || operation.getOp() == null || operation.getPath() == null) {
+                throw invalid();
+            }
+            String[] path = parsePointer(operation.getPath());
+            switch (path[0]) {
+                case SITES -> applyToSites(draft, operation, path);
+                case SELECTORS -> applyToSelectors(draft, operation, path);
+                case "durationMinutes", "pauseStartTime", "pauseEndTime" -> applyToScalar(draft, operation, path);
+                default -> throw invalid();
+            }
+        }
+        return draft.toEntity();
+    }
+
+    private void applyToSites(Draft draft, JsonPatchOperation operation, String[] path) {
+        if (path.length == 1) {
+            switch (operation.getOp()) {
+                case "add", "replace" -> draft.sites = new ArrayList<>(stringList(operation.getValue()));
+                case "test" -> check(draft.sites.equals(stringList(operation.getValue())));
+                default -> throw invalid();
+            }
+            return;
+        }
+        if (path.length != 2) {
+            throw invalid();
+        }
+        if ("-".equals(path[1])) {
+            if (!"add".equals(operation.getOp())) {
+                throw invalid();
+            }
+            draft.sites.add(string(operation.getValue()));
+            return;
+        }
+        int index = index(path[1]);
+        switch (operation.getOp()) {
+            case "add" -> {
+                checkIndex(index, draft.sites.size() + 1);
+                draft.sites.add(index, string(operation.getValue()));
+            }
+            case "remove" -> {
+                checkIndex(index, draft.sites.size());
+                draft.sites.remove(index);
+            }
+            case "replace" -> {
+                checkIndex(index, draft.sites.size());
+                draft.sites.set(index, string(operation.getValue()));
+            }
+            case "test" -> {
+                checkIndex(index, draft.sites.size());
+                check(draft.sites.get(index).equals(operation.getValue()));
+            }
+            default -> throw invalid();
+        }
+    }
+
+    private void applyToSelectors(Draft draft, JsonPatchOperation operation, String[] path) {
+        if (path.length == 1) {
+            switch (operation.getOp()) {
+                case "add", "replace" -> draft.selectors = new LinkedHashMap<>(stringMap(operation.getValue()));
+                case "test" -> check(draft.selectors.equals(stringMap(operation.getValue())));
+                default -> throw invalid();
+            }
+            return;
+        }
+        if (path.length != 2) {
+            throw invalid();
+        }
+        String site = path[1];
+        switch (operation.getOp()) {
+            case "add" -> draft.selectors.put(site, string(operation.getValue()));
+            case "replace" -> {
+                if (!draft.selectors.containsKey(site)) {
+                    throw invalid();
+                }
+                draft.selectors.put(site, string(operation.getValue()));
+            }
+            case "remove" -> {
+                if (draft.selectors.remove(site) == null) {
+                    throw invalid();
+                }
+            }
+            case "test" -> check(Objects.equals(draft.selectors.get(site), operation.getValue()));
+            default -> throw invalid();
+        }
+    }
+
+    private void applyToScalar(Draft draft, JsonPatchOperation operation, String[] path) {
+        if (path.length != 1) {
+            throw invalid();
+        }
+        String field = path[0];
+        switch (operation.getOp()) {
+            case "add", "replace" -> setScalar(draft, field, operation.getValue());
+            case "remove" -> setScalar(draft, field, null);
+            case "test" -> check(Objects.equals(scalar(draft, field), operation.getValue()));
+            default -> throw invalid();
+        }
+    }
+
+    private void setScalar(Draft draft, String field, Object value) {
+        switch (field) {
+            case "durationMinutes" -> {
+                if (value != null && !(value instanceof Integer)) {
+                    throw invalid();
+                }
+                draft.durationMinutes = (Integer) value;
+            }
+            case "pauseStartTime" -> draft.pauseStartTime = focusConfigMapper.stringToLocalTime(value != null ? string(value) : null);
+            default -> draft.pauseEndTime = focusConfigMapper.stringToLocalTime(value != null ? string(value) : null);
+        }
+    }
+
+    private Object scalar(Draft draft, String field) {
+        return switch (field) {
+            case "durationMinutes" -> draft.durationMinutes;
+            case "pauseStartTime" -> focusConfigMapper.localTimeToString(draft.pauseStartTime);
+            default -> focusConfigMapper.localTimeToString(draft.pauseEndTime);
+        };
+    }
+
+    // Pointeur JSON (RFC 6901) : "/a/b~1c" -> ["a", "b/c"]
+    private static String[] parsePointer(String pointer) {
+        if (!pointer.startsWith("/") || pointer.length() == 1) {
+            throw invalid();
+        }
+        String[] tokens = pointer.substring(1).split("/", -1);
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = tokens[i].replace("~1", "/").replace("~0", "~");
+        }
+        return tokens;
+    }
+
+    private static int index(String token) {
+        if (!token.matches("0|[1-9][0-9]{0,8}")) {
+            throw invalid();
+        }
+        return Integer.parseInt(token);
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index >= bound) {
+            throw invalid();
+        }
+    }
+
+    private static void check(boolean test) {
+        if (!test) {
+            throw new FocusShieldConflictException(FocusShieldErrorCode.DATA_ERROR_PATCH_TEST_FAILED);
+        }
+    }
+
+    private static String string(Object value) {
+        if (!(value instanceof String string)) {
+            throw invalid();
+        }
+        return string;
+    }
+
+    private static List<String> stringList(Object value) {
+        if (!(value instanceof List<?> list)) {
+            throw invalid();
+        }
+        return list.stream().map(FocusConfigPatcher::string).toList();
+    }
+
+    private static Map<String, String> stringMap(Object value) {
+        if (!(value instanceof Map<?, ?> map)) {
+            throw invalid();
+        }
+        Map<String, String> selectors = new LinkedHashMap<>();
+        map.forEach((site, selector) -> selectors.put(string(site), string(selector)));
+        return selectors;
+    }
+
+    private static FocusShieldException invalid() {
+        return new FocusShieldException(FocusShieldErrorCode.DATA_ERROR_INVALID_PATCH);
+    }
+
+    /**
+     * Copie de travail : nouvelles listes et nouvelle map, jamais celles de la configuration de départ.
+     */
+    private final class Draft {
+        private List<String> sites;
+        private Map<String, String> selectors;
+        private Integer durationMinutes;
+        private LocalTime pauseStartTime;
+        private LocalTime pauseEndTime;
+
+        private Draft(FocusConfigEntity base) {
+            this.sites = base.getBlockedSites() != null ? new ArrayList<>(base.getBlockedSites()) : new ArrayList<>();
+            this.selectors = new LinkedHashMap<>(focusConfigMapper.jsonStringToMap(base.getCustomSelectorsJson()));
+            this.durationMinutes = base.getDurationMinutes();
+            this.pauseStartTime = base.getPauseStartTime();
+            this.pauseEndTime = base.getPauseEndTime();
+        }
+
+        private FocusConfigEntity toEntity() {
+            return FocusConfigEntity.builder()
+                    .blockedSites(sites)
+                    .customSelectorsJson(focusConfigMapper.mapToJsonString(selectors))
+                    .durationMinutes(durationMinutes)
+                    .pauseStartTime(pauseStartTime)
+                    .pauseEndTime(pauseEndTime)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.config.UserIdResolver;
+import com.dev.focusshield.dto.SerializedResponse;
+import com.dev.focusshield.model.FocusConfig;
+import com.dev.focusshield.utils.GzipUtil;
+import com.dev.focusshield.utils.cache.BoundedCache;
+import com.dev.focusshield.utils.concurrent.SingleFlight;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Réponses de {@code GET /focus-config/latest} déjà sérialisées et compressées, par utilisateur et par révision.
+ *
+ * <p>La clé contient la révision lue pour l'ETag : une écriture faite sur un autre nœud change la révision et
+ * l'entrée n'est simplement plus lue. Les écritures de ce nœud retirent tout de suite l'entrée de la révision
+ * précédente. Le cache est borné par la taille totale des corps gardés ({@code max-bytes}, formes JSON et gzip
+ * comptées) ; les corps plus gros que {@code max-entry-bytes} ne sont pas gardés.
+ *
+ * <p>Les requêtes simultanées d'un même utilisateur (plusieurs onglets ou profils) qui manquent le cache partagent
+ * un seul chargement ; une requête qui attend plus de {@code load-max-wait} charge elle-même.
+ */
+@Component
+public class FocusConfigResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final UserIdResolver userIdResolver;
+    private final BoundedCache<Key, SerializedResponse> responses;
+    private final SingleFlight<Key, SerializedResponse> loads;
+    private final int maxEntryBytes;
+
+    public FocusConfigResponseCache(ObjectMapper objectMapper,
+                                    UserIdResolver userIdResolver,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${focus-config.response-cache.max-bytes:33554432}") long maxBytes,
+                                    @Value("${focus-config.response-cache.max-entry-bytes:65536}") int maxEntryBytes,
+                                    @Value("${focus-config.response-cache.load-max-wait:2s}") Duration loadMaxWait) {
+        this.objectMapper = objectMapper;
+        this.userIdResolver = userIdResolver;
+        this.responses = new BoundedCache<Key, SerializedResponse>(maxBytes, SerializedResponse::size)
+                .bindTo(meterRegistry, "focusshield.focus_config.response.cache");
+        this.loads = new SingleFlight<Key, SerializedResponse>(loadMaxWait)
+                .bindTo(meterRegistry, "focusshield.focus_config.load");
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * @param revision révision courante de l'utilisateur authentifié (celle de l'ETag)
+     * @param loader   charge la configuration en cas d'absence
+     * @return le corps de la réponse, sans accès à la base s'il est en cache
+     */
+    public SerializedResponse getLatest(long revision, Supplier<FocusConfig> loader) {
+        Key key = new Key(userIdResolver.currentUserId(), revision);
+        SerializedResponse response = responses.get(key);
+        if (response != null) {
+            return response;
+        }
+        return loads.execute(key, () -> {
+            SerializedResponse loaded = serialize(loader.get());
+            if (loaded.size() <= maxEntryBytes) {
+                responses.put(key, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Sérialise sans mettre en cache (historique sans révision).
+     */
+    public SerializedResponse serialize(FocusConfig config) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(config);
+            return new SerializedResponse(json, GzipUtil.gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize focus config", e);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onConfigChanged(FocusConfigChangedEvent event) {
+        responses.invalidate(new Key(event.userId(), event.revision() - 1));
+    }
+
+    private record Key(UUID userId, long revision) {
+    }
+}
@@ -1,10 +1,16 @@
 package com.dev.focusshield.service.focus_config;
 
 
+import com.dev.focusshield.dto.FocusConfigPage;
 import com.dev.focusshield.model.FocusConfig;
+import com.dev.focusshield.model.FocusConfigDelta;
+import com.dev.focusshield.model.FocusConfigPatch;
 import com.dev.focusshield.model.FocusConfigRequest;
+import com.dev.focusshield.model.JsonPatchOperation;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface FocusConfigService {
@@ -12,9 +18,19 @@ public interface FocusConfigService {
     /**
      * Save the user's focus configuration.
      *
+     * @param configRequest    the focus configuration to save
+     * @param expectedRevision revision the client read (If-Match), or null for an unconditional save
+     * @return the new revision
+     */
+    long saveFocusConfiguration(FocusConfigRequest configRequest, Long expectedRevision);
+
+    /**
+     * Save a focus configuration for a given user, outside of that user's request (write-behind flush).
+     *
+     * @param userId        the user's primary key
      * @param configRequest the focus configuration to save
      */
-    void saveFocusConfiguration(FocusConfigRequest configRequest);
+    void saveFocusConfiguration(UUID userId, FocusConfigRequest configRequest);
 
     /**
      * Retrieve the user's latest saved focus configuration.
@@ -24,7 +40,74 @@ public interface FocusConfigService {
     FocusConfig getLatestFocusConfiguration();
 
 
-    List<FocusConfig> getAllConfigsForUser();
+    /**
+     * One page of the user's saved configurations, newest first (keyset pagination on savedAt, id).
+     *
+     * @param active only active / inactive configurations, or null for both
+     * @param from   saved at or after this instant (UTC), or null
+     * @param to     saved before this instant (UTC), or null
+     * @param limit  page size, capped; null for the default size
+     * @param cursor continuation token of the previous page, or null for the first page
+     * @return the page and the cursor of the next one (null on the last page)
+     */
+    FocusConfigPage getConfigsForUser(Boolean active, LocalDateTime from, LocalDateTime to, Integer limit, String cursor);
+
+    /**
+     * The user's compacted versions (older than the history retention), newest first.
+     *
+     * @param limit number of versions, capped; null for the default size
+     * @return the versions, as they were when compacted
+     */
+    List<FocusConfig> getCompactedHistory(Integer limit);
+
+    /**
+     * Delete one of the user's configurations; deleting the current one reactivates the most recent of the others.
+     *
+     * @param id               id of the configuration
+     * @param expectedRevision revision the client read (If-Match), or null for an unconditional delete
+     */
+    void deleteFocusConfig(UUID id, Long expectedRevision);
+
+    /**
+     * Apply a set diff to the current configuration and save the result as a new version.
+     *
+     * @param id               id of the user's current configuration
+     * @param patch            sites and selectors to add or remove, scalar fields to change
+     * @param expectedRevision revision the client read (If-Match), or null
+     * @return the new version
+     */
+    FocusConfig patchFocusConfig(UUID id, FocusConfigPatch patch, Long expectedRevision);
+
+    /**
+     * Apply RFC 6902 operations to the current configuration and save the result as a new version.
+     *
+     * @param id               id of the user's current configuration
+     * @param operations       operations applied in order, all or nothing
+     * @param expectedRevision revision the client read (If-Match), or null
+     * @return the new version
+     */
+    FocusConfig patchFocusConfig(UUID id, List<JsonPatchOperation> operations, Long expectedRevision);
 
-    void deleteFocusConfig(UUID id);
+    /**
+     * Changes of the current configuration since a version held by the client.
+     *
+     * @param since version returned by the previous call, or null
+     * @return added / removed sites and changed selectors, or a full snapshot when {@code since} is too old
+     */
+    FocusConfigDelta getConfigChanges(Long since);
+
+    /**
+     * Version of the user's focus configurations, incremented by every save and delete.
+     *
+     * @return the current revision, or empty if the user's history predates revision tracking
+     */
+    Optional<Long> getConfigRevision();
+
+    /**
+     * Current configuration of a given user, for pushes made outside of that user's request.
+     *
+     * @param userId the user's primary key
+     * @return the current configuration, or empty if the user has none
+     */
+    Optional<FocusConfig> getCurrentConfig(UUID userId);
 }
@@ -1,94 +1,326 @@
 package com.dev.focusshield.service.focus_config;
 
+import com.dev.focusshield.config.UserIdResolver;
+import com.dev.focusshield.dto.FocusConfigPage;
+import com.dev.focusshield.entities.FocusConfigCurrentEntity;
 import com.dev.focusshield.entities.FocusConfigEntity;
-import com.dev.focusshield.entities.UserEntity;
+import com.dev.focusshield.entities.FocusConfigHistoryEntity;
+import com.dev.focusshield.exceptions.FocusShieldConflictException;
+import com.dev.focusshield.exceptions.FocusShieldErrorCode;
+import com.dev.focusshield.exceptions.FocusShieldPreconditionFailedException;
 import com.dev.focusshield.model.FocusConfig;
+import com.dev.focusshield.model.FocusConfigDelta;
+import com.dev.focusshield.model.FocusConfigPatch;
 import com.dev.focusshield.model.FocusConfigRequest;
+import com.dev.focusshield.model.JsonPatchOperation;
+import com.dev.focusshield.repositories.FocusConfigCurrentRepository;
+import com.dev.focusshield.repositories.FocusConfigHistoryRepository;
 import com.dev.focusshield.repositories.FocusConfigRepository;
 import com.dev.focusshield.repositories.UserRepository;
+import com.dev.focusshield.utils.GzipUtil;
 import com.dev.focusshield.utils.mappers.FocusConfigMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class FocusConfigServiceImpl implements FocusConfigService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
     private final FocusConfigRepository focusConfigRepository;
+    private final FocusConfigCurrentRepository focusConfigCurrentRepository;
     private final UserRepository userRepository;
     private final FocusConfigMapper focusConfigMapper;
+    private final FocusConfigChangeLog focusConfigChangeLog;
+    private final FocusConfigPatcher focusConfigPatcher;
+    private final UserIdResolver userIdResolver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FocusConfigHistoryRepository focusConfigHistoryRepository;
+    private final ObjectMapper objectMapper;
 
     @Override
-    public void saveFocusConfiguration(FocusConfigRequest configRequest) {
+    @Transactional
+    public long saveFocusConfiguration(FocusConfigRequest configRequest, Long expectedRevision) {
+        FocusConfigEntity entity = focusConfigMapper.toEntity(configRequest);
+        FocusConfigCurrentEntity current = claimNextRevision(userIdResolver.currentUserId(), expectedRevision);
+        saveNewVersion(current, entity);
+        return current.getRevision();
+    }
 
-        String universalIdString =  getUniversalIdString();
+    @Override
+    @Transactional
+    public void saveFocusConfiguration(UUID userId, FocusConfigRequest configRequest) {
+        FocusConfigEntity entity = focusConfigMapper.toEntity(configRequest);
+        saveNewVersion(claimNextRevision(userId, null), entity);
+    }
 
-        if (universalIdString == null) {
-            // This should ideally not happen if authentication is mandatory for this endpoint
-            throw new IllegalStateException("Authenticated user's universal ID not found in security context.");
-        }
-        UUID universalId = UUID.fromString(universalIdString);
+    @Override
+    @Transactional
+    public FocusConfig patchFocusConfig(UUID id, FocusConfigPatch patch, Long expectedRevision) {
+        FocusConfigCurrentEntity current = claimNextRevision(userIdResolver.currentUserId(), expectedRevision);
+        FocusConfigEntity patched = focusConfigPatcher.apply(currentConfig(current, id), patch);
+        return focusConfigMapper.toResponse(saveNewVersion(current, patched));
+    }
 
+    @Override
+    @Transactional
+    public FocusConfig patchFocusConfig(UUID id, List<JsonPatchOperation> operations, Long expectedRevision) {
+        FocusConfigCurrentEntity current = claimNextRevision(userIdResolver.currentUserId(), expectedRevision);
+        FocusConfigEntity patched = focusConfigPatcher.apply(currentConfig(current, id), operations);
+        return focusConfigMapper.toResponse(saveNewVersion(current, patched));
+    }
 
-        UserEntity user = userRepository.findByUniversalId(universalId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + universalId));
+    @Override
+    @Transactional(readOnly = true)
+    public FocusConfig getLatestFocusConfiguration() {
+        UUID userId = userIdResolver.currentUserId();
 
-        FocusConfigEntity entity = focusConfigMapper.toEntity(configRequest);
-        entity.setUser(user);
-        entity.setActive(true);
+        // Lecture par clé primaire ; repli sur l'index (user_id, active, saved_at) pour un historique antérieur au pointeur
+        FocusConfigEntity latest = focusConfigCurrentRepository.findConfigByUserId(userId)
+                .or(() -> focusConfigRepository.findTopByUserIdAndActiveOrderBySavedAtDesc(userId, true))
+                .orElseThrow(() -> new EntityNotFoundException("No active focus config found for user " + getUniversalIdString()));
 
-        focusConfigRepository.save(entity);
+        return focusConfigMapper.toResponse(latest);
     }
 
-    private static String getUniversalIdString(){
-        return SecurityContextHolder.getContext().getAuthentication().getName();
+    @Override
+    @Transactional(readOnly = true)
+    public FocusConfigPage getConfigsForUser(Boolean active, LocalDateTime from, LocalDateTime to,
+                                             Integer limit, String cursor) {
+        UUID userId = userIdResolver.currentUserId();
+        int pageSize = pageSize(limit);
+        FocusConfigCursor after = cursor != null ? FocusConfigCursor.decode(cursor) : null;
+
+        // Une ligne de plus que la page pour savoir s'il existe une suite
+        List<UUID> ids = focusConfigRepository.findPageIds(userId, active, from, to,
+                after != null ? after.savedAt() : null, after != null ? after.id() : null, Limit.of(pageSize + 1));
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+        if (ids.isEmpty()) {
+            return new FocusConfigPage(List.of(), null);
+        }
+
+        // Puis la page complète (sites et propriétaire compris) en une requête, remise dans l'ordre des ids
+        Map<UUID, FocusConfigEntity> byId = focusConfigRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(FocusConfigEntity::getId, Function.identity()));
+        List<FocusConfigEntity> page = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+
+        String nextCursor = null;
+        if (hasMore && !page.isEmpty()) {
+            FocusConfigEntity last = page.get(page.size() - 1);
+            nextCursor = new FocusConfigCursor(last.getSavedAt(), last.getId()).encode();
+        }
+        return new FocusConfigPage(page.stream().map(focusConfigMapper::toResponse).toList(), nextCursor);
     }
+
     @Override
-    public FocusConfig getLatestFocusConfiguration() {
-        // This method should also get the universalId from the SecurityContext
-        String universalIdString =  getUniversalIdString();
-        if (universalIdString == null) {
-            throw new IllegalStateException("Authenticated user's universal ID not found in security context.");
+    @Transactional(readOnly = true)
+    public List<FocusConfig> getCompactedHistory(Integer limit) {
+        int size = pageSize(limit);
+        List<FocusConfig> versions = new ArrayList<>(size);
+        // Au moins une version par bloc : size blocs suffisent toujours
+        for (FocusConfigHistoryEntity block
+                : focusConfigHistoryRepository.findByUserIdOrderByLastSavedAtDesc(userIdResolver.currentUserId(), Limit.of(size))) {
+            List<FocusConfig> configs = readSnapshot(block);
+            // Un bloc est rangé du plus ancien au plus récent
+            for (int i = configs.size() - 1; i >= 0 && versions.size() < size; i--) {
+                versions.add(configs.get(i));
+            }
+            if (versions.size() == size) {
+                break;
+            }
         }
-        UUID universalId = UUID.fromString(universalIdString);
+        return versions;
+    }
 
-        UserEntity user = userRepository.findByUniversalId(universalId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + universalId));
+    @Override
+    @Transactional
+    public void deleteFocusConfig(UUID id, Long expectedRevision) {
+        UUID userId = userIdResolver.currentUserId();
+        FocusConfigCurrentEntity pointer = claimNextRevision(userId, expectedRevision);
+        // Une configuration appartenant à un autre utilisateur est traitée comme inexistante
+        FocusConfigEntity config = focusConfigRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new EntityNotFoundException("FocusConfig not found"));
 
-        FocusConfigEntity latest = focusConfigRepository
-                .findTopByUserAndActiveOrderBySavedAtDesc(user, true) // ⭐ ADD FILTER BY USER ⭐
-                .orElseThrow(() -> new EntityNotFoundException("No active focus config found for user " + universalId));
+        // Le pointeur est déplacé avant la suppression de la ligne qu'il référence ;
+        // supprimer la version courante réactive la plus récente des autres
+        FocusConfigEntity current = Optional.ofNullable(pointer.getConfig())
+                .filter(pointed -> !pointed.getId().equals(id))
+                .orElseGet(() -> focusConfigRepository
+                        .findTopByUserIdAndIdNotOrderBySavedAtDesc(userId, id)
+                        .orElse(null));
+        if (current != null) {
+            current.setActive(true);
+        }
+        pointCurrentConfigTo(pointer, current);
+        focusConfigCurrentRepository.flush();
 
-        return focusConfigMapper.toResponse(latest);
+        focusConfigRepository.delete(config);
     }
 
     @Override
-    public List<FocusConfig> getAllConfigsForUser() {
-        // ⭐ MODIFIED: Get universalId from SecurityContext instead of HttpServletRequest ⭐
-        String universalIdString =  getUniversalIdString();
-        if (universalIdString == null) {
-            throw new IllegalStateException("Authenticated user's universal ID not found in security context.");
+    @Transactional(readOnly = true)
+    public Optional<FocusConfig> getCurrentConfig(UUID userId) {
+        return focusConfigCurrentRepository.findConfigByUserId(userId)
+                .map(focusConfigMapper::toResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FocusConfigDelta getConfigChanges(Long since) {
+        UUID userId = userIdResolver.currentUserId();
+        FocusConfigCurrentEntity current = focusConfigCurrentRepository.findById(userId).orElse(null);
+        if (current == null) {
+            // Historique antérieur au pointeur : pas encore de version, snapshot à chaque appel
+            FocusConfig latest = focusConfigRepository.findTopByUserIdAndActiveOrderBySavedAtDesc(userId, true)
+                    .map(focusConfigMapper::toResponse)
+                    .orElse(null);
+            return new FocusConfigDelta().version(0L).snapshot(true).config(latest);
         }
-        UUID universalId = UUID.fromString(universalIdString);
 
-        UserEntity user = userRepository.findByUniversalId(universalId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + universalId));
+        FocusConfigDelta delta = new FocusConfigDelta().version(current.getRevision());
+        FocusConfigEntity config = current.getConfig();
+        if (since == null || since < current.getLogStartRevision() || since > current.getRevision()) {
+            return delta.snapshot(true).config(config != null ? focusConfigMapper.toResponse(config) : null);
+        }
 
-        return focusConfigRepository.findByUser(user).stream()
-                .map(focusConfigMapper::toResponse)
-                .toList();
+        delta.snapshot(false);
+        if (config != null) {
+            // Champs scalaires toujours renvoyés : quelques octets, sans charger les sites ni parser les sélecteurs
+            delta.configId(config.getId())
+                    .durationMinutes(config.getDurationMinutes())
+                    .pauseStartTime(focusConfigMapper.localTimeToString(config.getPauseStartTime()))
+                    .pauseEndTime(focusConfigMapper.localTimeToString(config.getPauseEndTime()));
+        }
+        if (since < current.getRevision()) {
+            focusConfigChangeLog.fillChangesSince(userId, since, delta);
+        } else {
+            delta.addedSites(List.of()).removedSites(List.of()).removedSelectors(List.of());
+        }
+        return delta;
     }
 
     @Override
-    public void deleteFocusConfig(UUID id) {
-        FocusConfigEntity config = focusConfigRepository.findById(id)
+    public Optional<Long> getConfigRevision() {
+        return focusConfigCurrentRepository.findRevisionByUserId(userIdResolver.currentUserId());
+    }
+
+    private static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private List<FocusConfig> readSnapshot(FocusConfigHistoryEntity block) {
+        try {
+            return objectMapper.readValue(GzipUtil.gunzip(block.getSnapshot()), new TypeReference<List<FocusConfig>>() {
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read focus config history " + block.getId(), e);
+        }
+    }
+
+    /**
+     * Enregistre une nouvelle version active et en fait la configuration courante ; la précédente est désactivée.
+     */
+    private FocusConfigEntity saveNewVersion(FocusConfigCurrentEntity current, FocusConfigEntity entity) {
+        // Simple référence (pas de SELECT sur users) : seule la clé étrangère est écrite
+        entity.setUser(userRepository.getReferenceById(current.getUserId()));
+        entity.setActive(true);
+
+        focusConfigRepository.save(entity);
+        FocusConfigEntity previous = pointCurrentConfigTo(current, entity);
+        if (previous != null) {
+            previous.setActive(false); // la version remplacée reste dans l'historique
+        }
+        return entity;
+    }
+
+    /**
+     * Configuration courante de l'utilisateur, qui doit être {@code id} : un patch porte sur la version que le client
+     * a lue, pas sur une version remplacée depuis.
+     */
+    private FocusConfigEntity currentConfig(FocusConfigCurrentEntity pointer, UUID id) {
+        UUID userId = pointer.getUserId();
+        FocusConfigEntity config = focusConfigRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new EntityNotFoundException("FocusConfig not found"));
+        FocusConfigEntity current = Optional.ofNullable(pointer.getConfig())
+                .or(() -> focusConfigRepository.findTopByUserIdAndActiveOrderBySavedAtDesc(userId, true))
+                .orElse(null);
+        if (current == null || !current.getId().equals(id)) {
+            throw new FocusShieldConflictException(FocusShieldErrorCode.DATA_ERROR_CONFIG_NOT_CURRENT);
+        }
+        return config;
+    }
 
-        focusConfigRepository.delete(config);
+    /**
+     * Réserve la révision suivante par un UPDATE conditionnel, avant toute lecture du pointeur. La ligne reste
+     * verrouillée par cet UPDATE jusqu'au commit : deux écritures du même utilisateur passent l'une après l'autre,
+     * sans lecture verrouillante, et aucune ne perd celle de l'autre.
+     *
+     * <p>Sans pointeur (premier enregistrement, ou historique antérieur au pointeur), il est d'abord créé à la
+     * révision 0 par un INSERT sans conflit : deux premières écritures simultanées passent aussi l'une après l'autre
+     * au lieu d'insérer deux fois la révision 1.
+     *
+     * @param expectedRevision révision lue par le client (If-Match), ou null pour une écriture inconditionnelle
+     * @return le pointeur, qui porte déjà la nouvelle révision
+     * @throws FocusShieldPreconditionFailedException si la révision courante n'est plus {@code expectedRevision}
+     */
+    private FocusConfigCurrentEntity claimNextRevision(UUID userId, Long expectedRevision) {
+        if (focusConfigCurrentRepository.incrementRevision(userId, expectedRevision) == 1) {
+            return focusConfigCurrentRepository.findById(userId).orElseThrow();
+        }
+        if (expectedRevision != null) {
+            throw new FocusShieldPreconditionFailedException(FocusShieldErrorCode.DATA_ERROR_PRECONDITION_FAILED);
+        }
+        focusConfigCurrentRepository.insertIfAbsent(userId, LocalDateTime.now());
+        if (focusConfigCurrentRepository.incrementRevision(userId, null) != 1) {
+            throw new IllegalStateException("Focus config pointer missing after insert for user " + userId);
+        }
+        return focusConfigCurrentRepository.findById(userId).orElseThrow();
+    }
+
+    /**
+     * Met à jour le pointeur (config null : plus aucune configuration) sous la révision réservée par
+     * {@link #claimNextRevision}. Une configuration qui n'a pas encore de numéro de version prend cette révision.
+     *
+     * @return la configuration courante précédente, ou null
+     */
+    private FocusConfigEntity pointCurrentConfigTo(FocusConfigCurrentEntity current, FocusConfigEntity config) {
+        FocusConfigEntity previous = current.getConfig();
+        current.setConfig(config);
+        current.setUpdatedAt(LocalDateTime.now());
+        if (config != null && config.getVersionNumber() == null) {
+            config.setVersionNumber(current.getRevision());
+        }
+        focusConfigChangeLog.record(current, previous, config);
+        focusConfigCurrentRepository.save(current);
+        // Diffusé aux flux SSE après le commit uniquement
+        eventPublisher.publishEvent(new FocusConfigChangedEvent(current.getUserId(), current.getRevision()));
+        return previous;
+    }
+
+    private static String getUniversalIdString(){
+        return SecurityContextHolder.getContext().getAuthentication().getName();
     }
 }
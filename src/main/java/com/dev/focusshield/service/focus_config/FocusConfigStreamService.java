@@ -0,0 +1,21 @@
+package com.dev.focusshield.service.focus_config;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface FocusConfigStreamService {
+
+    /**
+     * Opens a server-sent event stream of the authenticated user's focus configuration.
+     * The current configuration is sent first unless {@code lastEventId} already matches its revision.
+     *
+     * @param lastEventId the {@code Last-Event-ID} sent by a reconnecting client, or null
+     * @return the emitter, kept open until the configured timeout, the expiry of the caller's access token, a
+     * block or revocation of that access, or until the client disconnects
+     */
+    SseEmitter subscribe(String lastEventId);
+
+    /**
+     * @return number of streams currently open on this node
+     */
+    int connectionCount();
+}
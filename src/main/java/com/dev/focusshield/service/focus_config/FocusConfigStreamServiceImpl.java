@@ -0,0 +1,371 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.config.AccessRevokedEvent;
+import com.dev.focusshield.config.AuthenticatedUser;
+import com.dev.focusshield.config.FocusConfigStreamProperties;
+import com.dev.focusshield.config.UserIdResolver;
+import com.dev.focusshield.dto.FocusConfigRevision;
+import com.dev.focusshield.exceptions.FocusShieldServiceUnavailableException;
+import com.dev.focusshield.model.FocusConfig;
+import com.dev.focusshield.repositories.FocusConfigCurrentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.dev.focusshield.exceptions.FocusShieldErrorCode.DATA_ERROR_SERVICE_BUSY;
+
+/**
+ * Flux SSE des configurations : chaque enregistrement ou suppression est poussé aux appareils connectés de
+ * l'utilisateur dès le commit, au lieu d'attendre leur prochain poll de {@code /focus-config/latest}.
+ *
+ * <p>Un flux inactif ne coûte qu'une connexion asynchrone et quelques objets : aucun thread n'est bloqué. Les
+ * écritures passent par un petit pool borné ; chaque flux a un tampon d'un seul événement, où un événement plus
+ * récent remplace le précédent (le client n'a besoin que de l'état courant). Les heartbeats ne sont envoyés
+ * qu'aux flux restés silencieux pendant {@code heartbeat-interval}.
+ *
+ * <p>Un flux ne reste jamais ouvert au-delà de l'expiration du token qui l'a ouvert, et il est fermé dès que le
+ * compte est bloqué ou le token révoqué ({@link AccessRevokedEvent}).
+ *
+ * <p>Les changements faits sur les autres nœuds sont récupérés périodiquement via le watermark
+ * {@code focus_config_current.updated_at}, comme pour {@link com.dev.focusshield.config.AccessDenylist}.
+ */
+@Service
+public class FocusConfigStreamServiceImpl implements FocusConfigStreamService {
+    private static final Logger logger = LoggerFactory.getLogger(FocusConfigStreamServiceImpl.class);
+
+    static final String CONFIG_EVENT = "focus-config";
+    static final String CLEARED_EVENT = "focus-config-cleared";
+
+    private static final Push HEARTBEAT = new Push(-1, null, null);
+
+    private final FocusConfigService focusConfigService;
+    private final FocusConfigCurrentRepository focusConfigCurrentRepository;
+    private final UserIdResolver userIdResolver;
+    private final FocusConfigStreamProperties properties;
+    private final Duration refreshOverlap;
+    private final ExecutorService sender;
+    private final Counter droppedCounter;
+
+    private final Map<UUID, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile LocalDateTime watermark = LocalDateTime.now();
+
+    public FocusConfigStreamServiceImpl(FocusConfigService focusConfigService,
+                                        FocusConfigCurrentRepository focusConfigCurrentRepository,
+                                        UserIdResolver userIdResolver,
+                                        FocusConfigStreamProperties properties,
+                                        @Value("${focus-config.stream.refresh-overlap-ms:10000}") long refreshOverlapMs,
+                                        MeterRegistry meterRegistry) {
+        this.focusConfigService = focusConfigService;
+        this.focusConfigCurrentRepository = focusConfigCurrentRepository;
+        this.userIdResolver = userIdResolver;
+        this.properties = properties;
+        this.refreshOverlap = Duration.ofMillis(refreshOverlapMs);
+        // Au plus une écriture en attente par flux et un chargement par changement : la file ne peut pas grossir au-delà
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                properties.getSenderThreads(), properties.getSenderThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getMaxConnections()) * 2),
+                new CustomizableThreadFactory("focus-config-stream-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.sender = ExecutorServiceMetrics.monitor(meterRegistry, pool, "focusshield.focus-config.stream.sender");
+        this.droppedCounter = Counter.builder("focusshield.focus-config.stream.dropped")
+                .description("Events not sent because the sender queue was full")
+                .register(meterRegistry);
+        Gauge.builder("focusshield.focus-config.stream.connections", connections, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribe(String lastEventId) {
+        UUID userId = userIdResolver.currentUserId();
+        if (connections.incrementAndGet() > properties.getMaxConnections()) {
+            connections.decrementAndGet();
+            throw new FocusShieldServiceUnavailableException(DATA_ERROR_SERVICE_BUSY);
+        }
+
+        // Jamais ouvert plus longtemps que le token présenté
+        AuthenticatedUser principal = currentPrincipal();
+        long timeoutMillis = properties.getTimeout().toMillis();
+        if (principal != null) {
+            timeoutMillis = Math.max(1, Math.min(timeoutMillis, principal.getExpiresAtMillis() - System.currentTimeMillis()));
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, principal, emitter);
+        Channel channel = channels.compute(userId, (id, existing) -> {
+            Channel target = existing != null ? existing : new Channel();
+            target.subscribers.add(subscriber);
+            return target;
+        });
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        // Trop d'appareils ou d'onglets : le plus ancien flux est fermé
+        while (channel.subscribers.size() > properties.getMaxPerUser()) {
+            Subscriber oldest = channel.subscribers.peek();
+            if (oldest == null || oldest == subscriber) {
+                break;
+            }
+            unsubscribe(oldest);
+            oldest.emitter.complete();
+        }
+
+        // Un client qui se reconnecte avec la révision courante n'a rien manqué
+        focusConfigService.getConfigRevision()
+                .filter(revision -> !Long.toString(revision).equals(lastEventId))
+                .ifPresent(revision -> submit(() -> subscriber.offer(load(userId, revision))));
+        return emitter;
+    }
+
+    @Override
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Changement fait sur ce nœud : diffusé une fois la transaction commitée, jamais pour un rollback.
+     */
+    @TransactionalEventListener
+    public void onConfigChanged(FocusConfigChangedEvent event) {
+        publish(event.userId(), event.revision());
+    }
+
+    /**
+     * Compte bloqué ou token révoqué (ici ou sur un autre nœud) : les flux ouverts avec cet accès sont fermés.
+     * Parcours de tous les flux du nœud, acceptable pour un événement rare et borné par {@code max-connections}.
+     */
+    @EventListener
+    public void onAccessRevoked(AccessRevokedEvent event) {
+        for (Channel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                if (subscriber.isRevokedBy(event)) {
+                    unsubscribe(subscriber);
+                    subscriber.emitter.complete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Récupère les changements faits sur les autres nœuds pour les utilisateurs connectés à celui-ci.
+     */
+    @Scheduled(fixedDelayString = "${focus-config.stream.refresh-interval-ms:5000}",
+            initialDelayString = "${focus-config.stream.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (channels.isEmpty()) {
+            watermark = LocalDateTime.now();
+            return;
+        }
+        for (FocusConfigRevision change : focusConfigCurrentRepository.findRevisionsSince(watermark.minus(refreshOverlap))) {
+            publish(change.userId(), change.revision());
+            if (change.updatedAt().isAfter(watermark)) {
+                watermark = change.updatedAt();
+            }
+        }
+    }
+
+    /**
+     * Heartbeats coalescés : seuls les flux restés silencieux depuis {@code heartbeat-interval} reçoivent un commentaire.
+     */
+    @Scheduled(fixedDelayString = "${focus-config.stream.heartbeat-sweep-ms:5000}")
+    public void sendHeartbeats() {
+        long idleSince = System.nanoTime() - properties.getHeartbeatInterval().toNanos();
+        for (Channel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                if (subscriber.lastSentNanos - idleSince < 0) {
+                    subscriber.offer(HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdownNow();
+    }
+
+    private void publish(UUID userId, long revision) {
+        Channel channel = channels.get(userId);
+        if (channel == null || !channel.advanceTo(revision)) {
+            return; // personne n'écoute sur ce nœud, ou révision déjà diffusée
+        }
+        // Chargée une seule fois, puis partagée par tous les flux de l'utilisateur
+        boolean submitted = submit(() -> {
+            Push push;
+            try {
+                push = load(userId, revision);
+            } catch (RuntimeException e) {
+                channel.release(revision);
+                logger.warn("⚠️ Focus config revision {} of user {} not pushed: {}", revision, userId, e.getMessage());
+                return;
+            }
+            channel.subscribers.forEach(subscriber -> subscriber.offer(push));
+        });
+        if (!submitted) {
+            channel.release(revision);
+        }
+    }
+
+    private static AuthenticatedUser currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal
+                ? principal
+                : null;
+    }
+
+    private Push load(UUID userId, long revision) {
+        return focusConfigService.getCurrentConfig(userId)
+                .map(config -> new Push(revision, CONFIG_EVENT, config))
+                .orElseGet(() -> new Push(revision, CLEARED_EVENT, null));
+    }
+
+    private boolean submit(Runnable task) {
+        try {
+            sender.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            droppedCounter.increment();
+            return false;
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        Channel channel = channels.get(subscriber.userId);
+        if (channel == null || !channel.subscribers.remove(subscriber)) {
+            return;
+        }
+        connections.decrementAndGet();
+        channels.computeIfPresent(subscriber.userId, (id, existing) -> existing.subscribers.isEmpty() ? null : existing);
+    }
+
+    /**
+     * Flux ouverts d'un utilisateur, du plus ancien au plus récent.
+     */
+    private static final class Channel {
+        final Queue<Subscriber> subscribers = new ConcurrentLinkedQueue<>();
+        final AtomicLong publishedRevision = new AtomicLong(-1);
+
+        boolean advanceTo(long revision) {
+            long current;
+            do {
+                current = publishedRevision.get();
+                if (revision <= current) {
+                    return false;
+                }
+            } while (!publishedRevision.compareAndSet(current, revision));
+            return true;
+        }
+
+        /**
+         * Révision réservée par {@link #advanceTo} mais jamais envoyée : elle pourra l'être au prochain changement
+         * ou au prochain {@code refresh}. Sans effet si une révision plus récente a été réservée entre-temps.
+         */
+        void release(long revision) {
+            publishedRevision.compareAndSet(revision, revision - 1);
+        }
+    }
+
+    /**
+     * Événement à envoyer ; {@code revision} sert d'identifiant SSE ({@code Last-Event-ID}) et d'ETag.
+     */
+    private record Push(long revision, String name, FocusConfig config) {
+
+        SseEmitter.SseEventBuilder toEvent() {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).id(Long.toString(revision));
+            return config != null
+                    ? event.data(config, MediaType.APPLICATION_JSON)
+                    : event.data(Long.toString(revision));
+        }
+    }
+
+    private final class Subscriber {
+        final UUID userId;
+        final UUID universalId;
+        final String tokenId;
+        final SseEmitter emitter;
+        // Tampon d'un seul événement : le plus récent gagne, un heartbeat ne remplace jamais un vrai événement
+        final AtomicReference<Push> pending = new AtomicReference<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile long lastSentNanos = System.nanoTime();
+        long sentRevision = -1; // lu et écrit uniquement par le drain en cours
+
+        Subscriber(UUID userId, AuthenticatedUser principal, SseEmitter emitter) {
+            this.userId = userId;
+            this.universalId = principal != null ? principal.getUniversalId() : null;
+            this.tokenId = principal != null ? principal.getTokenId() : null;
+            this.emitter = emitter;
+        }
+
+        boolean isRevokedBy(AccessRevokedEvent event) {
+            return (event.universalId() != null && event.universalId().equals(universalId))
+                    || (event.tokenId() != null && event.tokenId().equals(tokenId));
+        }
+
+        void offer(Push push) {
+            pending.accumulateAndGet(push, (current, next) ->
+                    current == null || next.revision() > current.revision() ? next : current);
+            if (draining.compareAndSet(false, true) && !submit(this::drain)) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    Push push = pending.getAndSet(null);
+                    if (push == null) {
+                        draining.set(false);
+                        // Un offer a pu arriver entre le getAndSet et le set(false)
+                        if (pending.get() == null || !draining.compareAndSet(false, true)) {
+                            return;
+                        }
+                        continue;
+                    }
+                    if (push == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else if (push.revision() > sentRevision) {
+                        emitter.send(push.toEvent());
+                        sentRevision = push.revision();
+                    }
+                    lastSentNanos = System.nanoTime();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client parti : le conteneur notifie aussi l'emitter, on libère la place sans attendre
+                logger.debug("📴 Focus config stream closed for user {}: {}", userId, e.getMessage());
+                unsubscribe(this);
+            }
+        }
+    }
+}
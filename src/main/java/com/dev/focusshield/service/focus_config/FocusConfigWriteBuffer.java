@@ -0,0 +1,221 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.config.UserIdResolver;
+import com.dev.focusshield.model.FocusConfigRequest;
+import com.dev.focusshield.utils.mappers.FocusConfigMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mode write-behind des enregistrements de configuration (désactivé par défaut, {@code focus-config.write-behind.enabled}).
+ *
+ * <p>L'extension enregistre en continu pendant l'édition de la liste : les enregistrements d'un même utilisateur
+ * reçus pendant {@code window} sont fusionnés en mémoire (le dernier remplace les précédents, comme en base) puis
+ * écrits en une seule transaction. Les lectures et suppressions de l'utilisateur écrivent d'abord ce qui est en
+ * attente pour lui ({@link #flushCurrentUser()}) : il lit toujours ses propres écritures sur ce nœud. Tout ce qui
+ * est en attente est écrit à l'arrêt.
+ *
+ * <p>Un arrêt brutal du processus perd au plus {@code window} d'enregistrements. Au-delà de
+ * {@code max-pending-users} utilisateurs en attente, les enregistrements repassent en écriture directe.
+ */
+@Component
+@Slf4j
+public class FocusConfigWriteBuffer {
+
+    private static final int LOCK_STRIPES = 256;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final FocusConfigService focusConfigService;
+    private final FocusConfigMapper focusConfigMapper;
+    private final UserIdResolver userIdResolver;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxPendingUsers;
+
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private final LongAdder buffered = new LongAdder();
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public FocusConfigWriteBuffer(FocusConfigService focusConfigService,
+                                  FocusConfigMapper focusConfigMapper,
+                                  UserIdResolver userIdResolver,
+                                  EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${focus-config.write-behind.enabled:false}") boolean enabled,
+                                  @Value("${focus-config.write-behind.window:2s}") Duration window,
+                                  @Value("${focus-config.write-behind.max-pending-users:10000}") int maxPendingUsers) {
+        this.focusConfigService = focusConfigService;
+        this.focusConfigMapper = focusConfigMapper;
+        this.userIdResolver = userIdResolver;
+        this.entityManager = entityManager;
+        // Jamais dans la transaction de l'appelant : l'écriture est commitée (ou abandonnée) pour elle-même
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxPendingUsers = maxPendingUsers;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+
+        String name = "focusshield.focus_config.write_behind";
+        FunctionCounter.builder(name + ".saves", buffered, LongAdder::sum).tag("result", "buffered").register(meterRegistry);
+        FunctionCounter.builder(name + ".saves", merged, LongAdder::sum).tag("result", "merged").register(meterRegistry);
+        FunctionCounter.builder(name + ".saves", dropped, LongAdder::sum).tag("result", "dropped").register(meterRegistry);
+        FunctionCounter.builder(name + ".flushes", flushed, LongAdder::sum).register(meterRegistry);
+        Gauge.builder(name + ".pending", pending, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Met en attente l'enregistrement de l'utilisateur authentifié.
+     *
+     * @return false si le mode est désactivé ou le tampon plein : l'appelant enregistre lui-même
+     */
+    public boolean offer(FocusConfigRequest configRequest) {
+        if (!enabled) {
+            return false;
+        }
+        // Erreurs de format renvoyées tout de suite (400), pas au moment de l'écriture
+        focusConfigMapper.toEntity(configRequest);
+
+        UUID userId = userIdResolver.currentUserId();
+        if (pending.size() >= maxPendingUsers && !pending.containsKey(userId)) {
+            return false;
+        }
+        pending.compute(userId, (id, previous) -> {
+            if (previous == null) {
+                buffered.increment();
+                return new Pending(configRequest, System.nanoTime(), 0);
+            }
+            merged.increment();
+            return new Pending(configRequest, previous.firstBufferedNanos, 0);
+        });
+        return true;
+    }
+
+    /**
+     * Écrit l'enregistrement en attente de l'utilisateur authentifié, s'il y en a un, avant une lecture ou une suppression.
+     */
+    public void flushCurrentUser() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flush(userIdResolver.currentUserId());
+    }
+
+    @Scheduled(fixedDelayString = "${focus-config.write-behind.flush-interval-ms:500}")
+    public void flushDue() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Map.Entry<UUID, Pending> entry : pending.entrySet()) {
+            if (now - entry.getValue().firstBufferedNanos >= windowNanos) {
+                flushQuietly(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Écrit tout ce qui est en attente avant l'arrêt. Il n'y aura pas de passage suivant : chaque enregistrement
+     * épuise ici ses {@code MAX_ATTEMPTS} tentatives, et ceux qui restent perdus sont comptés dans un log ERROR.
+     */
+    @PreDestroy
+    public void flushAll() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        log.info("💾 Flushing {} buffered focus config save(s) before shutdown", pending.size());
+        long droppedBefore = dropped.sum();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            pending.keySet().forEach(this::flushQuietly);
+        }
+        long lost = dropped.sum() - droppedBefore + pending.size();
+        if (lost > 0) {
+            log.error("❌ {} buffered focus config save(s) lost at shutdown", lost);
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Écrit l'enregistrement en attente d'un utilisateur. Le verrou de l'utilisateur est tenu jusqu'au commit, si bien
+     * qu'une lecture qui arrive pendant l'écriture l'attend ; l'entrée n'est retirée qu'une fois écrite.
+     *
+     * <p>Appelée depuis une requête, l'écriture peut reprendre l'EntityManager open-in-view de la requête : il est
+     * vidé après l'écriture pour que la suite de la requête relise le pointeur et la révision en base.
+     */
+    void flush(UUID userId) {
+        synchronized (locks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)]) {
+            Pending taken = pending.get(userId);
+            if (taken == null) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    focusConfigService.saveFocusConfiguration(userId, taken.request);
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                flushed.increment();
+                // Un enregistrement arrivé pendant l'écriture remplace l'entrée : il reste en attente
+                pending.remove(userId, taken);
+            } catch (RuntimeException e) {
+                if (taken.attempts + 1 >= MAX_ATTEMPTS) {
+                    pending.remove(userId, taken);
+                    dropped.increment();
+                    log.error("❌ Dropping buffered focus config save of user {} after {} attempts", userId, MAX_ATTEMPTS, e);
+                } else {
+                    pending.replace(userId, taken, new Pending(taken.request, taken.firstBufferedNanos, taken.attempts + 1));
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void flushQuietly(UUID userId) {
+        try {
+            flush(userId);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Buffered focus config save of user {} failed: {}", userId, e.getMessage());
+        }
+    }
+
+    // Égalité par identité : retirer exactement l'entrée écrite, jamais une plus récente
+    private static final class Pending {
+        private final FocusConfigRequest request;
+        private final long firstBufferedNanos;
+        private final int attempts;
+
+        private Pending(FocusConfigRequest request, long firstBufferedNanos, int attempts) {
+            this.request = request;
+            this.firstBufferedNanos = firstBufferedNanos;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.dev.focusshield.service.idempotency;
+
+import com.dev.focusshield.entities.IdempotencyKeyEntity;
+import com.dev.focusshield.repositories.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Clés d'idempotence récentes, partagées par toutes les instances (table {@code idempotency_keys}).
+ *
+ * <p>La première requête réserve sa clé par un INSERT sur la clé primaire ; une répétition (même sur un autre nœud)
+ * trouve la ligne et reçoit la réponse enregistrée, sans toucher aux tables métier ni au hachage des mots de passe.
+ * Une clé est gardée {@code ttl} ; une clé réservée par une requête qui n'a jamais terminé est reprise après
+ * {@code in-progress-lease}.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private final IdempotencyKeyRepository repository;
+    private final Duration ttl;
+    private final Duration inProgressLease;
+
+    public IdempotencyStore(IdempotencyKeyRepository repository,
+                            @Value("${idempotency.ttl:24h}") Duration ttl,
+                            @Value("${idempotency.in-progress-lease:60s}") Duration inProgressLease) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.inProgressLease = inProgressLease;
+    }
+
+    /**
+     * Réserve une clé pour la requête courante.
+     *
+     * @param keyHash     empreinte de la clé, portée par l'utilisateur et la route
+     * @param requestHash empreinte du corps de la requête
+     * @return vide si la clé est réservée (la requête s'exécute), sinon la ligne de la requête qui l'a prise avant
+     */
+    public Optional<IdempotencyKeyEntity> claim(String keyHash, String requestHash) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                repository.saveAndFlush(IdempotencyKeyEntity.builder()
+                        .keyHash(keyHash)
+                        .requestHash(requestHash)
+                        .createdAt(now)
+                        .expiresAt(now.plus(ttl))
+                        .build());
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                Optional<IdempotencyKeyEntity> existing = repository.findById(keyHash);
+                if (existing.isPresent() && !isAbandoned(existing.get(), now)) {
+                    return existing;
+                }
+                // Expirée ou abandonnée : supprimée (si personne ne l'a reprise entre-temps) puis réservée à nouveau
+                repository.deleteIfAbandoned(keyHash, now, now.minus(inProgressLease));
+            }
+        }
+        // Reprise par une autre requête à chaque tentative : traitée comme une requête en cours
+        return Optional.of(IdempotencyKeyEntity.builder().keyHash(keyHash).requestHash(requestHash).build());
+    }
+
+    /**
+     * Enregistre la réponse de la requête qui a réservé la clé. Une réponse qui ne doit pas être rejouée
+     * (erreur serveur, 429, corps trop gros) libère la clé : la répétition s'exécutera à nouveau.
+     */
+    public void complete(String keyHash, String requestHash, int status, String contentType, String etag, byte[] body) {
+        if (!isReplayable(status) || body.length > IdempotencyKeyEntity.MAX_BODY_BYTES) {
+            release(keyHash, requestHash);
+            return;
+        }
+        repository.complete(keyHash, requestHash, status, contentType, etag, body);
+    }
+
+    public void release(String keyHash, String requestHash) {
+        repository.release(keyHash, requestHash);
+    }
+
+    @Scheduled(cron = "${idempotency.purge-cron:0 5 * * * *}")
+    public void purgeExpiredKeys() {
+        int purged = repository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("🧹 Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    static boolean isReplayable(int status) {
+        return status < 500 && status != 429;
+    }
+
+    private boolean isAbandoned(IdempotencyKeyEntity key, LocalDateTime now) {
+        return key.getExpiresAt().isBefore(now)
+                || (key.getStatus() == null && key.getCreatedAt().isBefore(now.minus(inProgressLease)));
+    }
+}
@@ -1,5 +1,7 @@
 package com.dev.focusshield.service.roles;
 
+import com.dev.focusshield.config.RoleHierarchy;
+import com.dev.focusshield.entities.RoleEntity;
 import com.dev.focusshield.exceptions.FocusShieldNotFoundException;
 import com.dev.focusshield.model.Role;
 import com.dev.focusshield.model.RoleRequest;
@@ -21,6 +23,7 @@ import static com.dev.focusshield.exceptions.FocusShieldErrorCode.DATA_ERROR_ROL
 public class RoleServiceImpl implements RoleService {
     private final RoleRepository roleRepository;
     private final RoleMapper roleMapper;
+    private final RoleHierarchy roleHierarchy;
 
     /**
      * Creates a new role based on the provided {@link RoleRequest}.
@@ -32,6 +35,7 @@ public class RoleServiceImpl implements RoleService {
     public Role createRole(RoleRequest roleRequest) {
         var roleEntity = roleMapper.roleToRoleEntity(roleRequest);
         var savedRole = roleRepository.save(roleEntity);
+        roleHierarchy.invalidate();
         return roleMapper.roleEntityToRole(savedRole);
     }
 
@@ -73,7 +77,10 @@ public class RoleServiceImpl implements RoleService {
                 .map(entity -> {
                     Optional.of(updateRequest.getRoleName()).ifPresent(entity::setRoleName);
                     Optional.of(updateRequest.getLevel()).ifPresent(entity::setLevel);
-                    return roleRepository.save(entity);
+                    Optional.ofNullable(updateRequest.getPermissions()).ifPresent(entity::setPermissions);
+                    RoleEntity saved = roleRepository.save(entity);
+                    roleHierarchy.invalidate();
+                    return saved;
                 })
                 .map(RoleMapper.INSTANCE::roleEntityToRole);
     }
@@ -89,5 +96,6 @@ public class RoleServiceImpl implements RoleService {
             throw new FocusShieldNotFoundException(DATA_ERROR_ROLE_NOT_FOUND);
         }
         roleRepository.deleteById(roleId);
+        roleHierarchy.invalidate();
     }
 }
\ No newline at end of file
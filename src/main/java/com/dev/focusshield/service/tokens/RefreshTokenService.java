@@ -0,0 +1,33 @@
+package com.dev.focusshield.service.tokens;
+
+import com.dev.focusshield.entities.UserEntity;
+import com.dev.focusshield.model.AuthResponse;
+
+import java.util.UUID;
+
+public interface RefreshTokenService {
+
+    /**
+     * Issues a new access token and a new opaque refresh token for an authenticated user.
+     *
+     * @param user the authenticated user (roles must be loaded)
+     * @return the token pair
+     */
+    AuthResponse issueTokens(UserEntity user);
+
+    /**
+     * Exchanges a refresh token for a new token pair. The presented refresh token is revoked (rotation);
+     * presenting an already revoked token revokes every session of its owner.
+     *
+     * @param refreshToken the opaque refresh token
+     * @return the new token pair
+     */
+    AuthResponse refresh(String refreshToken);
+
+    /**
+     * Revokes every active refresh token of a user.
+     *
+     * @param userId the internal ID of the user
+     */
+    void revokeAll(UUID userId);
+}
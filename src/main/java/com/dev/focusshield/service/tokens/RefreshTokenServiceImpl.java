@@ -0,0 +1,114 @@
+package com.dev.focusshield.service.tokens;
+
+import com.dev.focusshield.config.AccessDenylist;
+import com.dev.focusshield.config.JwtTokenProvider;
+import com.dev.focusshield.entities.RefreshTokenEntity;
+import com.dev.focusshield.entities.UserEntity;
+import com.dev.focusshield.exceptions.FocusShieldAccessDeniedException;
+import com.dev.focusshield.exceptions.FocusShieldInvalidCredentials;
+import com.dev.focusshield.model.AuthResponse;
+import com.dev.focusshield.repositories.RefreshTokenRepository;
+import com.dev.focusshield.utils.DigestUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static com.dev.focusshield.exceptions.FocusShieldErrorCode.DATA_ERROR_ACCOUNT_DISABLED;
+import static com.dev.focusshield.exceptions.FocusShieldErrorCode.DATA_ERROR_INVALID_REFRESH_TOKEN;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final AccessDenylist accessDenylist;
+
+    @Value("${jwt.refresh.expiration.ms}")
+    private long refreshExpirationTime;
+
+    /**
+     * Generates a JWT access token and persists the hash of a fresh refresh token.
+     *
+     * @param user the authenticated user
+     * @return the access token, the refresh token and the access token lifetime
+     */
+    @Override
+    @Transactional
+    public AuthResponse issueTokens(UserEntity user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshTokenEntity.builder()
+                .tokenHash(DigestUtil.sha256Base64Url(refreshToken))
+                .user(user)
+                .expiresAt(LocalDateTime.now().plus(Duration.ofMillis(refreshExpirationTime)))
+                .build());
+
+        var authResponse = new AuthResponse();
+        authResponse.setToken(jwtTokenProvider.generateToken(user));
+        authResponse.setRefreshToken(refreshToken);
+        authResponse.setExpiresIn(jwtTokenProvider.getExpirationTime() / 1000);
+        authResponse.setUniversalId(user.getUniversalId());
+        return authResponse;
+    }
+
+    /**
+     * Rotates a refresh token: one indexed lookup, one conditional update and one insert.
+     *
+     * @param refreshToken the opaque refresh token presented by the client
+     * @return a new token pair
+     * @throws FocusShieldInvalidCredentials if the token is unknown, expired or already used
+     */
+    @Override
+    @Transactional(noRollbackFor = FocusShieldInvalidCredentials.class)
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenEntity stored = refreshTokenRepository.findByTokenHash(DigestUtil.sha256Base64Url(refreshToken))
+                .orElseThrow(() -> new FocusShieldInvalidCredentials(DATA_ERROR_INVALID_REFRESH_TOKEN));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (stored.getExpiresAt().isBefore(now)) {
+            throw new FocusShieldInvalidCredentials(DATA_ERROR_INVALID_REFRESH_TOKEN);
+        }
+        // Only one concurrent caller can win the rotation; a second presentation of the same token is a replay
+        if (stored.getRevokedAt() != null || refreshTokenRepository.revokeIfActive(stored.getId(), now) == 0) {
+            log.warn("🚨 Refresh token reuse detected for user {}: revoking all sessions", stored.getUser().getUniversalId());
+            refreshTokenRepository.revokeAllForUser(stored.getUser().getId(), now);
+            throw new FocusShieldInvalidCredentials(DATA_ERROR_INVALID_REFRESH_TOKEN);
+        }
+        if (accessDenylist.isUserDenied(stored.getUser().getUniversalId())) {
+            throw new FocusShieldAccessDeniedException(DATA_ERROR_ACCOUNT_DISABLED);
+        }
+        return issueTokens(stored.getUser());
+    }
+
+    @Override
+    @Transactional
+    public void revokeAll(UUID userId) {
+        refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+    }
+
+    /**
+     * Purges expired refresh tokens once a day.
+     */
+    @Scheduled(cron = "${jwt.refresh.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpiredTokens() {
+        int purged = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        log.info("🧹 Purged {} expired refresh tokens", purged);
+    }
+}
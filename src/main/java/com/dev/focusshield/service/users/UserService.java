@@ -1,5 +1,6 @@
 package com.dev.focusshield.service.users;
 
+import com.dev.focusshield.entities.AccountStatus;
 import com.dev.focusshield.model.*;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -11,7 +12,7 @@ public interface UserService {
     User register(RegisterRequest registerRequest);
     Page<User> getAllUsers(int page, int size);
     Optional<User> getUserById(UUID userId);
-    Optional <User> updateUser(UUID userId, UpdateRequest updateRequest);
+    Optional <User> updateUser(UUID userId, UpdateRequest updateRequest, Long expectedVersion);
     void deleteUser(UUID userId);
 
     User assignRoleToUser(String email, String role);
@@ -19,4 +20,10 @@ public interface UserService {
     User unassignRoleToUser(String email, String role);
 
     AuthResponse login(@Valid LoginRequest request);
+
+    AuthResponse refreshToken(@Valid RefreshTokenRequest request);
+
+    void logout(String accessToken);
+
+    User updateStatus(UUID userId, AccountStatus status);
 }
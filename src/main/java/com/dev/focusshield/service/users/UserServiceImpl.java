@@ -1,21 +1,33 @@
 package com.dev.focusshield.service.users;
 
+import com.dev.focusshield.config.AccessDenylist;
 import com.dev.focusshield.config.JwtTokenProvider;
+import com.dev.focusshield.config.UserIdResolver;
+import com.dev.focusshield.config.VerifiedToken;
+import com.dev.focusshield.entities.AccountStatus;
 import com.dev.focusshield.entities.RoleEntity;
 import com.dev.focusshield.entities.UserEntity;
 import com.dev.focusshield.exceptions.*;
 import com.dev.focusshield.model.*;
+import com.dev.focusshield.repositories.FocusConfigChangeRepository;
+import com.dev.focusshield.repositories.FocusConfigHistoryRepository;
+import com.dev.focusshield.repositories.FocusConfigCurrentRepository;
+import com.dev.focusshield.repositories.RefreshTokenRepository;
 import com.dev.focusshield.repositories.RoleRepository;
 import com.dev.focusshield.repositories.UserRepository;
+import com.dev.focusshield.service.tokens.RefreshTokenService;
 import com.dev.focusshield.utils.PasswordEncryptionUtil;
 import com.dev.focusshield.utils.PasswordValidator;
 import com.dev.focusshield.utils.mappers.UserMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -26,12 +38,20 @@ import static com.dev.focusshield.exceptions.FocusShieldErrorCode.*;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncryptionUtil passwordEncryptionUtil;
     private final RoleRepository roleRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final FocusConfigCurrentRepository focusConfigCurrentRepository;
+    private final FocusConfigChangeRepository focusConfigChangeRepository;
+    private final FocusConfigHistoryRepository focusConfigHistoryRepository;
+    private final RefreshTokenService refreshTokenService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final AccessDenylist accessDenylist;
+    private final UserIdResolver userIdResolver;
 
 
     /**
@@ -92,28 +112,34 @@ public class UserServiceImpl implements UserService {
     /**
      * Updates an existing user's information.
      *
-     * @param userId        the ID of the user to update
-     * @param updateRequest the new user data
-     * @return Optional of updated User
+     * <p>The non-null fields are written by a single conditional UPDATE: no read beforehand, no lock held between
+     * read and write. With an expected version (If-Match), a user changed in the meantime is left untouched.
+     *
+     * @param userId          the ID of the user to update
+     * @param updateRequest   the new user data
+     * @param expectedVersion the version the client read, or null for an unconditional update
+     * @return Optional of updated User, empty if the user does not exist
+     * @throws FocusShieldPreconditionFailedException if the user's version is no longer {@code expectedVersion}
      */
     @Override
-    public Optional<User> updateUser(UUID userId, UpdateRequest updateRequest) {
+    @Transactional
+    public Optional<User> updateUser(UUID userId, UpdateRequest updateRequest, Long expectedVersion) {
+        int updated = userRepository.updateProfile(userId,
+                updateRequest.getFirstname(),
+                updateRequest.getSurname(),
+                updateRequest.getUsername(),
+                updateRequest.getPhone(),
+                updateRequest.getEmail(),
+                updateRequest.getDateOfBirth(),
+                LocalDateTime.now(),
+                expectedVersion);
+        if (updated == 0) {
+            if (expectedVersion != null && userRepository.existsById(userId)) {
+                throw new FocusShieldPreconditionFailedException(DATA_ERROR_PRECONDITION_FAILED);
+            }
+            return Optional.empty();
+        }
         return userRepository.findById(userId)
-                .map(entity -> {
-                    Optional.ofNullable(updateRequest.getFirstname())
-                            .ifPresent(entity::setFirstname);
-                    Optional.ofNullable(updateRequest.getSurname())
-                            .ifPresent(entity::setSurname);
-                    Optional.ofNullable(updateRequest.getUsername())
-                            .ifPresent(entity::setUsername);
-                    Optional.ofNullable(updateRequest.getPhone())
-                            .ifPresent(entity::setPhone);
-                    Optional.ofNullable(updateRequest.getEmail())
-                            .ifPresent(entity::setEmail);
-                    Optional.ofNullable(updateRequest.getDateOfBirth())
-                            .ifPresent(entity::setDateOfBirth);
-                    return userRepository.save(entity);
-                })
                 .map(UserMapper.INSTANCE::userEntityToUser);
     }
 
@@ -123,11 +149,16 @@ public class UserServiceImpl implements UserService {
      * @param userId the ID of the user to delete
      */
     @Override
+    @Transactional
     public void deleteUser(UUID userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new FocusShieldNotFoundException(DATA_ERROR_USER_NOT_FOUND);
-        }
+        UUID universalId = userRepository.findUniversalIdById(userId)
+                .orElseThrow(() -> new FocusShieldNotFoundException(DATA_ERROR_USER_NOT_FOUND));
+        refreshTokenRepository.deleteAllByUserId(userId);
+        focusConfigCurrentRepository.deleteByUserId(userId); // référence une ligne de focus_config supprimée en cascade
+        focusConfigChangeRepository.deleteByUserId(userId);
+        focusConfigHistoryRepository.deleteByUserId(userId);
         userRepository.deleteById(userId);
+        userIdResolver.evict(universalId);
     }
 
     /**
@@ -184,10 +215,10 @@ public class UserServiceImpl implements UserService {
      *
      * <p>This method checks if a user exists with the given email, then verifies
      * that the provided password matches the stored (encoded) password.
-     * If authentication is successful, a JWT token is generated and returned.
+     * If authentication is successful, a short-lived JWT access token and a refresh token are returned.
      *
      * @param request the login request containing the user's email and password
-     * @return a JWT token if authentication is successful
+     * @return a JWT token and a refresh token if authentication is successful
      * @throws IllegalArgumentException if the email is not found or the password does not match
      */
     @Override
@@ -198,12 +229,89 @@ public class UserServiceImpl implements UserService {
         if (!passwordEncryptionUtil.matches(request.getPassword(), user.getPassword())) {
             throw new FocusShieldInvalidCredentials(DATA_ERROR_INVALID_CREDENTIALS);
         }
-        var authResponse = new AuthResponse();
-        authResponse.setToken(jwtTokenProvider.generateToken(user));
-        authResponse.setUniversalId(user.getUniversalId());
-        return authResponse;
+        if (AccessDenylist.DENIED_STATUSES.contains(user.getStatus())) {
+            throw new FocusShieldAccessDeniedException(DATA_ERROR_ACCOUNT_DISABLED);
+        }
+        if (passwordEncryptionUtil.needsRehash(user.getPassword())) {
+            upgradePasswordHash(user.getId(), request.getPassword(), user.getPassword());
+        }
+        return refreshTokenService.issueTokens(user);
+    }
+
+    /**
+     * Re-hashes the password with the current BCrypt cost in the background, so the login response is not delayed.
+     * The update is conditional on the old hash: a password changed in the meantime is never overwritten.
+     */
+    private void upgradePasswordHash(UUID userId, String rawPassword, String oldHash) {
+        passwordEncryptionUtil.encryptPasswordAsync(rawPassword)
+                .thenAccept(newHash -> {
+                    if (userRepository.updatePasswordIfUnchanged(userId, oldHash, newHash) == 1) {
+                        log.info("🔐 Password hash of user {} upgraded to the current cost", userId);
+                    }
+                })
+                .exceptionally(ex -> {
+                    log.warn("⚠️ Password hash upgrade skipped for user {}: {}", userId, ex.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Renews a session from a refresh token, without re-checking the password.
+     *
+     * @param request the request holding the refresh token
+     * @return a new access token and a new refresh token (the presented one is revoked)
+     */
+    @Override
+    public AuthResponse refreshToken(RefreshTokenRequest request) {
+        return refreshTokenService.refresh(request.getRefreshToken());
+    }
+
+
+    /**
+     * Ends the current session: the access token is revoked on every node and all refresh tokens of the user
+     * are revoked.
+     *
+     * @param accessToken the raw access token of the current request
+     */
+    @Override
+    @Transactional
+    public void logout(String accessToken) {
+        VerifiedToken verified = jwtTokenProvider.verify(accessToken);
+        if (verified == null || verified.universalId() == null) {
+            return;
+        }
+        if (verified.tokenId() != null) {
+            accessDenylist.revokeToken(verified.tokenId(), verified.expiresAtMillis());
+        }
+        userRepository.findByUniversalId(verified.universalId())
+                .ifPresent(user -> refreshTokenService.revokeAll(user.getId()));
     }
 
+    /**
+     * Changes the account status of a user. Blocking or banning takes effect on this node as soon as it commits,
+     * within one denylist refresh interval on the others, and revokes every refresh token of the user.
+     *
+     * @param userId the ID of the user
+     * @param status the new status
+     * @return the updated user
+     * @throws FocusShieldNotFoundException if the user is not found
+     */
+    @Override
+    @Transactional
+    public User updateStatus(UUID userId, AccountStatus status) {
+        UserEntity user = userRepository.findById(userId)
+                .orElseThrow(() -> new FocusShieldNotFoundException(DATA_ERROR_USER_NOT_FOUND));
+
+        user.setStatus(status);
+        user.setStatusChangedAt(LocalDateTime.now());
+        UserEntity saved = userRepository.save(user);
+
+        accessDenylist.applyStatusAfterCommit(saved.getUniversalId(), status);
+        if (AccessDenylist.DENIED_STATUSES.contains(status)) {
+            refreshTokenService.revokeAll(saved.getId());
+        }
+        return UserMapper.INSTANCE.userEntityToUser(saved);
+    }
 
     /**
      * Retrieves a user entity by email or throws a FocusShieldNotFoundException.
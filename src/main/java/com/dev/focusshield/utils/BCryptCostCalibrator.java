@@ -0,0 +1,45 @@
+package com.dev.focusshield.utils;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Choisit le coût BCrypt adapté à la machine : le plus élevé dont un hachage reste sous la latence cible.
+ */
+public final class BCryptCostCalibrator {
+
+    private static final String PROBE = "calibration-Probe#1";
+    private static final int SAMPLES = 3;
+
+    private BCryptCostCalibrator() {
+    }
+
+    /**
+     * Mesure un hachage au coût minimal puis extrapole (chaque +1 de coût double le temps de calcul).
+     *
+     * @param targetMillis latence cible d'un hachage
+     * @param minCost      coût plancher (jamais en dessous, même sur une machine lente)
+     * @param maxCost      coût plafond
+     * @return le coût retenu, entre minCost et maxCost
+     */
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode(PROBE); // warm-up JIT
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.encode(PROBE);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        return costFor(targetMillis, bestNanos / 1_000_000.0, minCost, maxCost);
+    }
+
+    static int costFor(long targetMillis, double millisAtMinCost, int minCost, int maxCost) {
+        int cost = minCost;
+        double millis = millisAtMinCost;
+        while (cost < maxCost && millis * 2 <= targetMillis) {
+            cost++;
+            millis *= 2;
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,38 @@
+package com.dev.focusshield.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Empreintes SHA-256 des tokens (JWT, refresh tokens...) pour les indexer sans conserver la valeur brute.
+ */
+public final class DigestUtil {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private DigestUtil() {
+    }
+
+    public static byte[] sha256(byte[] value) {
+        return SHA_256.get().digest(value);
+    }
+
+    /**
+     * @return l'empreinte SHA-256 de la valeur, encodée en base64url sans padding (43 caractères)
+     */
+    public static String sha256Base64Url(String value) {
+        return sha256Base64Url(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256Base64Url(byte[] value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256(value));
+    }
+}
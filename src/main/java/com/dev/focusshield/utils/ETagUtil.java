@@ -0,0 +1,104 @@
+package com.dev.focusshield.utils;
+
+import com.dev.focusshield.exceptions.FocusShieldErrorCode;
+import com.dev.focusshield.exceptions.FocusShieldPreconditionFailedException;
+
+/**
+ * ETags forts construits sur un numéro de version ({@code "7"}, {@code "7-gz"} pour le corps compressé en gzip),
+ * et lecture des en-têtes {@code If-None-Match} et {@code If-Match}.
+ */
+public final class ETagUtil {
+
+    private static final String GZIP_SUFFIX = "-gz";
+
+    private ETagUtil() {
+    }
+
+    /**
+     * @return l'ETag fort de la version, ou null si la ressource n'a pas encore de version
+     */
+    public static String toETag(Long version) {
+        return version != null ? "\"" + version + "\"" : null;
+    }
+
+    /**
+     * Un ETag fort désigne une suite d'octets précise : le corps gzip a le sien.
+     *
+     * @return l'ETag fort du corps gzip de la version, ou null si la ressource n'a pas encore de version
+     */
+    public static String toGzipETag(Long version) {
+        return version != null ? "\"" + version + GZIP_SUFFIX + "\"" : null;
+    }
+
+    /**
+     * Comparaison faible de {@code If-None-Match} : une même version correspond quel que soit son encodage.
+     *
+     * @param ifNoneMatch valeur de l'en-tête {@code If-None-Match}, ou null
+     * @param version     version courante, ou null
+     * @return true si l'en-tête désigne la version ou vaut {@code *}
+     */
+    public static boolean matchesVersion(String ifNoneMatch, Long version) {
+        if (ifNoneMatch == null || version == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (version.equals(parseVersion(value))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Version attendue par une écriture conditionnelle.
+     *
+     * @param ifMatch valeur de l'en-tête {@code If-Match}, ou null
+     * @return la version portée par l'en-tête, ou null s'il est absent ou vaut {@code *} (écriture inconditionnelle)
+     * @throws FocusShieldPreconditionFailedException si l'en-tête ne peut correspondre à aucune version : ETag faible
+     *                                                (comparaison forte), valeur étrangère ou plusieurs versions
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Long expected = null;
+        for (String tag : ifMatch.split(",")) {
+            Long version = parseVersion(tag.trim());
+            if (version == null) {
+                continue;
+            }
+            if (expected != null && !expected.equals(version)) {
+                // Une seule version vérifiable par UPDATE conditionnel ; un client n'envoie que l'ETag qu'il a lu
+                throw preconditionFailed();
+            }
+            expected = version;
+        }
+        if (expected == null) {
+            throw preconditionFailed();
+        }
+        return expected;
+    }
+
+    // "7" ou "7-gz" ; null pour toute autre valeur
+    private static Long parseVersion(String tag) {
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return null;
+        }
+        String digits = tag.substring(1, tag.length() - 1);
+        if (digits.endsWith(GZIP_SUFFIX)) {
+            digits = digits.substring(0, digits.length() - GZIP_SUFFIX.length());
+        }
+        return digits.matches("[0-9]{1,18}") ? Long.parseLong(digits) : null;
+    }
+
+    private static FocusShieldPreconditionFailedException preconditionFailed() {
+        return new FocusShieldPreconditionFailedException(FocusShieldErrorCode.DATA_ERROR_PRECONDITION_FAILED);
+    }
+}
@@ -1,24 +1,124 @@
 package com.dev.focusshield.utils;
 
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import com.dev.focusshield.config.PasswordHashingProperties;
+import com.dev.focusshield.exceptions.FocusShieldServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.dev.focusshield.exceptions.FocusShieldErrorCode.DATA_ERROR_SERVICE_BUSY;
+
+/**
+ * Hachage et vérification des mots de passe sur un pool dédié et borné.
+ *
+ * <p>BCrypt monopolise un cœur pendant des centaines de millisecondes : exécuté sur les threads Tomcat, un pic de
+ * logins prendrait tout le CPU aux lectures bon marché. Ici au plus {@code threads} hachages tournent en parallèle,
+ * {@code queue-capacity} attendent, et au-delà la requête échoue immédiatement en 503 plutôt que de s'empiler.
+ */
 @Component
 public class PasswordEncryptionUtil {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncryptionUtil.class);
 
     private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final long maxWaitMillis;
+    private final Counter rejectedCounter;
 
-    public PasswordEncryptionUtil() {
-        this.passwordEncoder = new BCryptPasswordEncoder();
+    public PasswordEncryptionUtil(PasswordEncoder passwordEncoder, PasswordHashingProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.maxWaitMillis = properties.getMaxWait().toMillis();
+        this.pool = new ThreadPoolExecutor(
+                properties.getThreads(), properties.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // executor.queued / executor.active / executor.idle (attente en file) / executor (durée d'un hachage)
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "focusshield.password.hashing");
+        this.rejectedCounter = Counter.builder("focusshield.password.hashing.rejected")
+                .description("Hashing requests refused because the queue was full or the wait timed out")
+                .register(meterRegistry);
     }
 
     public String encryptPassword(String password) {
-        return passwordEncoder.encode(password);
+        return await(() -> passwordEncoder.encode(password));
     }
+
     public boolean matches(String rawPassword, String encodedPassword) {
-        return passwordEncoder.matches(rawPassword, encodedPassword);
+        return await(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hachage en arrière-plan (ex: mise à niveau du coût après un login), sans bloquer l'appelant.
+     * Le futur échoue si le pool est saturé : la mise à niveau sera retentée au prochain login.
+     */
+    public CompletableFuture<String> encryptPasswordAsync(String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(password), executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(e);
+        }
     }
-}
 
+    /**
+     * @return true si le hash stocké a été calculé avec un coût inférieur au coût courant
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T await(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            logger.warn("⚠️ Password hashing queue full, rejecting request");
+            throw new FocusShieldServiceUnavailableException(DATA_ERROR_SERVICE_BUSY);
+        }
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Retiré de la file pour rendre sa place ; déjà démarré, il va à son terme et son résultat est ignoré
+            future.cancel(false);
+            pool.purge();
+            rejectedCounter.increment();
+            logger.warn("⚠️ Password hashing did not complete within {} ms", maxWaitMillis);
+            throw new FocusShieldServiceUnavailableException(DATA_ERROR_SERVICE_BUSY);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new FocusShieldServiceUnavailableException(DATA_ERROR_SERVICE_BUSY);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,198 @@
+package com.dev.focusshield.utils.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Small concurrent cache with a hard budget and optional per-entry expiry.
+ *
+ * <p>The budget is a number of entries, or a total weight (e.g. bytes) when the cache is built with a weigher;
+ * the weight of the stored entries is kept as a running sum.
+ *
+ * <p>Reads are a single {@link ConcurrentHashMap} lookup plus an expiry check. When the budget is exceeded,
+ * one writer sweeps expired entries first and then drops entries in iteration order until the cache is back
+ * under its low-water mark, so the cost of eviction is amortized over many puts.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BoundedCache<K, V> {
+
+    /** Expiry value for entries that never expire on their own. */
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long maxWeight;
+    private final long lowWaterMark;
+    private final ToLongFunction<? super V> weigher;
+    private final AtomicLong weight = new AtomicLong();
+    private final LongSupplier clock;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maxEntries) {
+        this(maxEntries, System::currentTimeMillis);
+    }
+
+    public BoundedCache(int maxEntries, LongSupplier clock) {
+        this(maxEntries, value -> 1, clock);
+    }
+
+    /**
+     * @param maxWeight total weight of the entries kept
+     * @param weigher   weight of one value, at least 1; it must not change while the value is cached
+     */
+    public BoundedCache(long maxWeight, ToLongFunction<? super V> weigher) {
+        this(maxWeight, weigher, System::currentTimeMillis);
+    }
+
+    public BoundedCache(long maxWeight, ToLongFunction<? super V> weigher, LongSupplier clock) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive");
+        }
+        this.maxWeight = maxWeight;
+        this.lowWaterMark = Math.max(1, maxWeight - Math.max(1, maxWeight / 10));
+        this.weigher = weigher;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the cached value, or {@code null} when absent or expired
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= clock.getAsLong()) {
+            remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    public void put(K key, V value) {
+        put(key, value, NO_EXPIRY);
+    }
+
+    /**
+     * Stores a value until the given epoch-millisecond instant.
+     */
+    public void put(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= clock.getAsLong()) {
+            return;
+        }
+        Entry<V> entry = new Entry<>(value, expiresAtMillis, Math.max(1, weigher.applyAsLong(value)));
+        Entry<V> previous = entries.put(key, entry);
+        long total = weight.addAndGet(previous != null ? entry.weight() - previous.weight() : entry.weight());
+        if (total > maxWeight) {
+            evict();
+        }
+    }
+
+    public void invalidate(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            weight.addAndGet(-removed.weight());
+        }
+    }
+
+    public void clear() {
+        entries.forEach(this::remove);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return total weight of the entries, their count when the cache has no weigher
+     */
+    public long weight() {
+        return weight.get();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Publishes {@code <name>.requests{result=hit|miss}}, {@code <name>.evictions}, {@code <name>.size}
+     * and {@code <name>.weight}.
+     */
+    public BoundedCache<K, V> bindTo(MeterRegistry registry, String name) {
+        FunctionCounter.builder(name + ".requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(name + ".requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder(name + ".evictions", evictions, LongAdder::sum)
+                .register(registry);
+        Gauge.builder(name + ".size", entries, Map::size)
+                .register(registry);
+        Gauge.builder(name + ".weight", weight, AtomicLong::get)
+                .register(registry);
+        return this;
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return; // another writer is already sweeping
+        }
+        try {
+            long now = clock.getAsLong();
+            entries.forEach((key, entry) -> {
+                if (entry.expiresAtMillis() <= now && remove(key, entry)) {
+                    evictions.increment();
+                }
+            });
+
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (weight.get() > lowWaterMark && it.hasNext()) {
+                Map.Entry<K, Entry<V>> e = it.next();
+                if (remove(e.getKey(), e.getValue())) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    // Only the caller that actually removed the entry gives its weight back
+    private boolean remove(K key, Entry<V> entry) {
+        if (entries.remove(key, entry)) {
+            weight.addAndGet(-entry.weight());
+            return true;
+        }
+        return false;
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis, long weight) {
+    }
+}
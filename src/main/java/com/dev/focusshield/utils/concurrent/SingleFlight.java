@@ -0,0 +1,127 @@
+package com.dev.focusshield.utils.concurrent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into a single call.
+ *
+ * <p>The first caller for a key runs the loader on its own thread; callers arriving while it runs wait for its
+ * result (or its exception) instead of loading again. Nothing is kept once the load completes, so a caller that
+ * arrives afterwards starts a new load. A waiter that is still waiting after {@code maxWait} gives up and runs the
+ * loader itself, so a slow load never holds other requests longer than that.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SingleFlight(Duration maxWait) {
+        if (maxWait.isNegative() || maxWait.isZero()) {
+            throw new IllegalArgumentException("maxWait must be positive");
+        }
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /**
+     * Runs {@code loader}, or waits for the run already in flight for the same key.
+     *
+     * @return the loaded value
+     * @throws RuntimeException the exception thrown by the loader, for the caller that ran it and for every waiter
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing == null) {
+            leaders.increment();
+            try {
+                V value = loader.get();
+                flight.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, flight);
+            }
+        }
+        return await(existing, loader);
+    }
+
+    private V await(CompletableFuture<V> flight, Supplier<V> loader) {
+        try {
+            V value = flight.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            shared.increment();
+            return value;
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            shared.increment();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared load", e);
+        }
+    }
+
+    /**
+     * @return loads currently running
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    public long leaderCount() {
+        return leaders.sum();
+    }
+
+    public long sharedCount() {
+        return shared.sum();
+    }
+
+    public long timeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Publishes {@code <name>.calls{result=loaded|shared|timeout}}: calls that ran the loader, calls that got the
+     * result of another one, and calls that stopped waiting and loaded on their own.
+     */
+    public SingleFlight<K, V> bindTo(MeterRegistry registry, String name) {
+        FunctionCounter.builder(name + ".calls", leaders, LongAdder::sum)
+                .tag("result", "loaded")
+                .register(registry);
+        FunctionCounter.builder(name + ".calls", shared, LongAdder::sum)
+                .tag("result", "shared")
+                .register(registry);
+        FunctionCounter.builder(name + ".calls", timeouts, LongAdder::sum)
+                .tag("result", "timeout")
+                .register(registry);
+        return this;
+    }
+}
@@ -11,5 +11,8 @@ abstract public class ApiRoutes {
     public static final  String FOCUS_CONFIG = "/focus-config";
     public static final  String USERS_ASSIGN_ROLE = "/assign-role";
     public static final  String USERS_UNASSIGN_ROLE = "/unassign-role";
+    public static final  String USERS_TOKEN_REFRESH = "/token/refresh";
+    public static final  String USERS_LOGOUT = "/logout";
+    public static final  String JWKS = "/.well-known/jwks.json";
 
 }
@@ -18,7 +18,9 @@ public class Constant {
             "/users",                   // Maps to /focus-shield-service/api/v1/users
             "/users/assign-role",       // Maps to /focus-shield-service/api/v1/users/assign-role
             "/users/login",              // Maps to /focus-shield-service/api/v1/users/login
+            "/users/token/refresh",      // Maps to /focus-shield-service/api/v1/users/token/refresh
             "/app-info",                // Maps to /focus-shield-service/api/v1/app-info (we start after the context path)
+            "/.well-known/jwks.json",   // Public JWT verification keys
             "/actuator/**"
     };
 
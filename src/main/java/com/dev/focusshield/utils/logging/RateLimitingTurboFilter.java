@@ -0,0 +1,91 @@
+package com.dev.focusshield.utils.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Logback turbo filter limiting each message key (logger + message pattern, before formatting) to
+ * {@code maxPerPeriod} events per {@code periodSeconds}.
+ *
+ * <p>Events over the limit are dropped before any formatting or appender work, so log I/O stays bounded whatever
+ * the request rate. The number of dropped events is reported in a single summary line, logged with the next
+ * occurrence of the same key once its window has rolled over.
+ */
+public class RateLimitingTurboFilter extends TurboFilter {
+
+    static final String SUMMARY = "⏩ {} similar log event(s) suppressed in the last {} s: \"{}\"";
+    private static final String FQCN = RateLimitingTurboFilter.class.getName();
+
+    private final Map<Key, Window> windows = new ConcurrentHashMap<>();
+
+    private int maxPerPeriod = 20;
+    private long periodSeconds = 10;
+    private int maxKeys = 10_000;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format == null: appel isXxxEnabled(), pas un événement
+        if (!isStarted() || format == null || level == null || format == SUMMARY
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Key key = new Key(logger.getName(), format);
+        Window window = windows.get(key);
+        if (window == null) {
+            if (windows.size() >= maxKeys) {
+                return FilterReply.NEUTRAL; // patterns built by concatenation: ne pas laisser la map grossir
+            }
+            window = windows.computeIfAbsent(key, k -> new Window());
+        }
+
+        long now = System.currentTimeMillis();
+        long suppressed = 0;
+        FilterReply reply;
+        synchronized (window) {
+            if (now - window.startMillis >= periodSeconds * 1000) {
+                suppressed = window.suppressed;
+                window.startMillis = now;
+                window.count = 0;
+                window.suppressed = 0;
+            }
+            if (++window.count <= maxPerPeriod) {
+                reply = FilterReply.NEUTRAL;
+            } else {
+                window.suppressed++;
+                reply = FilterReply.DENY;
+            }
+        }
+        if (suppressed > 0) {
+            logger.log(marker, FQCN, Level.toLocationAwareLoggerInteger(level), SUMMARY,
+                    new Object[]{suppressed, periodSeconds, format}, null);
+        }
+        return reply;
+    }
+
+    public void setMaxPerPeriod(int maxPerPeriod) {
+        this.maxPerPeriod = maxPerPeriod;
+    }
+
+    public void setPeriodSeconds(long periodSeconds) {
+        this.periodSeconds = periodSeconds;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    private record Key(String loggerName, String format) {
+    }
+
+    private static final class Window {
+        private long startMillis = System.currentTimeMillis();
+        private int count;
+        private long suppressed;
+    }
+}
@@ -0,0 +1,40 @@
+package com.dev.focusshield.utils.logging;
+
+import ch.qos.logback.classic.pattern.ThrowableProxyConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.core.CoreConstants;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code %sampledEx}: prints the full stack trace of a given exception type, per logger, at most once a minute.
+ * Other occurrences are reduced to a single "Class: message" line.
+ */
+public class SampledThrowableConverter extends ThrowableProxyConverter {
+
+    private static final long SAMPLE_PERIOD_MILLIS = 60_000;
+    private static final int MAX_KEYS = 10_000;
+
+    private final Map<String, Long> lastFullTrace = new ConcurrentHashMap<>();
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        IThrowableProxy proxy = event.getThrowableProxy();
+        if (proxy == null) {
+            return CoreConstants.EMPTY_STRING;
+        }
+        String key = event.getLoggerName() + '|' + proxy.getClassName();
+        long now = event.getTimeStamp();
+        Long last = lastFullTrace.get(key);
+        if (last == null || now - last >= SAMPLE_PERIOD_MILLIS) {
+            if (lastFullTrace.size() >= MAX_KEYS) {
+                lastFullTrace.clear();
+            }
+            lastFullTrace.put(key, now);
+            return super.convert(event);
+        }
+        return proxy.getClassName() + ": " + proxy.getMessage() + " [stack trace sampled out]" + CoreConstants.LINE_SEPARATOR;
+    }
+}
@@ -0,0 +1,36 @@
+package com.dev.focusshield.utils.logging;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.regex.Pattern;
+
+/**
+ * {@code %redactedMsg}: the formatted message with JWTs and Bearer credentials masked, so a token never reaches
+ * the log files even if a caller logs it by mistake.
+ */
+public class TokenRedactingConverter extends MessageConverter {
+
+    private static final Pattern JWT = Pattern.compile("eyJ[A-Za-z0-9_-]*\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]*");
+    private static final Pattern BEARER = Pattern.compile("(Bearer\\s+)[A-Za-z0-9._~+/=-]+");
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return redact(event.getFormattedMessage());
+    }
+
+    static String redact(String message) {
+        if (message == null) {
+            return null;
+        }
+        // Chemin rapide : la très grande majorité des messages ne contient rien à masquer
+        String redacted = message;
+        if (redacted.contains("eyJ")) {
+            redacted = JWT.matcher(redacted).replaceAll("[REDACTED JWT]");
+        }
+        if (redacted.contains("Bearer")) {
+            redacted = BEARER.matcher(redacted).replaceAll("$1[REDACTED]");
+        }
+        return redacted;
+    }
+}
@@ -0,0 +1,144 @@
+package com.dev.focusshield.utils.ratelimit;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process token-bucket rate limiter keyed by an arbitrary string (email, client IP...).
+ *
+ * <p>Buckets are spread over lock stripes so concurrent requests for different keys rarely contend. Each stripe
+ * is an access-ordered map with a hard key budget (least recently used keys are dropped first), and buckets that
+ * have been idle long enough to be full again are evicted by {@link #evictIdle()}: dropping them is invisible,
+ * since a missing key starts with a full bucket.
+ */
+public class StripedTokenBucketLimiter {
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final long idleNanos;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param capacity         burst size: attempts allowed back to back for one key
+     * @param refillPerMinute  sustained rate: tokens given back per minute
+     * @param stripeCount      number of lock stripes (rounded up to a power of two)
+     * @param maxKeysPerStripe key budget per stripe, so memory stays bounded under a flood of distinct keys
+     * @param nanoClock        monotonic clock, e.g. {@code System::nanoTime}
+     */
+    public StripedTokenBucketLimiter(int capacity, double refillPerMinute, int stripeCount, int maxKeysPerStripe,
+                                     LongSupplier nanoClock) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("capacity and refillPerMinute must be positive");
+        }
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(maxKeysPerStripe);
+        }
+        this.mask = size - 1;
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / NANOS_PER_MINUTE;
+        this.idleNanos = (long) Math.ceil(capacity / tokensPerNano);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one token from the bucket of the given key.
+     *
+     * @return 0 if the attempt is allowed, otherwise the number of nanoseconds until the next token is available
+     */
+    public long tryAcquire(String key) {
+        Stripe stripe = stripes[spread(key.hashCode()) & mask];
+        synchronized (stripe) {
+            long now = nanoClock.getAsLong(); // read under the lock so refills never go back in time
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.put(key, bucket);
+            } else {
+                bucket.refill(now, capacity, tokensPerNano);
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / tokensPerNano);
+        }
+    }
+
+    /**
+     * Drops the buckets that would be full again by now.
+     *
+     * @return the number of evicted keys
+     */
+    public int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                // Access order == last refill order: stop at the first bucket that is still recovering
+                Iterator<Bucket> it = stripe.values().iterator();
+                while (it.hasNext() && now - it.next().lastRefillNanos >= idleNanos) {
+                    it.remove();
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * @return the number of keys currently tracked
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        private final int maxKeys;
+
+        private Stripe(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxKeys;
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefillNanos;
+
+        private Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+
+        private void refill(long now, double capacity, double tokensPerNano) {
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
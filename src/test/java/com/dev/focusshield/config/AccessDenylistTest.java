@@ -0,0 +1,146 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.dto.UserStatusChange;
+import com.dev.focusshield.entities.AccountStatus;
+import com.dev.focusshield.entities.RevokedTokenEntity;
+import com.dev.focusshield.repositories.RevokedTokenRepository;
+import com.dev.focusshield.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AccessDenylistTest {
+
+    private static final long OVERLAP_MS = 60_000;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final AccessDenylist denylist = new AccessDenylist(userRepository, revokedTokenRepository, eventPublisher,
+            OVERLAP_MS, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void startupShouldLoadBlockedAccountsAndUnexpiredRevocations() {
+        UUID blocked = UUID.randomUUID();
+        when(userRepository.findUniversalIdsByStatusIn(AccessDenylist.DENIED_STATUSES)).thenReturn(List.of(blocked));
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of(revoked("jti-1", 10)));
+
+        denylist.afterSingletonsInstantiated();
+
+        assertThat(denylist.isUserDenied(blocked)).isTrue();
+        assertThat(denylist.isDenied(token("jti-1", UUID.randomUUID()))).isTrue();
+        assertThat(denylist.isDenied(token("jti-2", UUID.randomUUID()))).isFalse();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void refreshShouldReadChangesSinceTheWatermarkMinusTheOverlap() {
+        UUID user = UUID.randomUUID();
+        LocalDateTime changedAt = LocalDateTime.now().plusSeconds(5);
+        when(userRepository.findStatusChangesSince(any()))
+                .thenReturn(List.of(new UserStatusChange(user, AccountStatus.BANNED, changedAt)))
+                .thenReturn(List.of(new UserStatusChange(user, AccountStatus.VALIDATED, changedAt.plusSeconds(1))));
+        denylist.afterSingletonsInstantiated();
+
+        denylist.refresh();
+        assertThat(denylist.isUserDenied(user)).isTrue();
+        verify(eventPublisher).publishEvent(new AccessRevokedEvent(user, null));
+        denylist.refresh();
+        assertThat(denylist.isUserDenied(user)).isFalse();
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userRepository, times(2)).findStatusChangesSince(since.capture());
+        assertThat(since.getAllValues().get(0)).isBefore(LocalDateTime.now().minusSeconds(59));
+        // Le watermark avance jusqu'au changement lu, toujours avec le recouvrement
+        assertThat(since.getAllValues().get(1)).isEqualTo(changedAt.minus(Duration.ofMillis(OVERLAP_MS)));
+    }
+
+    @Test
+    void refreshShouldPickUpRevocationsAndDropExpiredOnes() {
+        when(revokedTokenRepository.findByRevokedAtAfter(any()))
+                .thenReturn(List.of(revoked("live", 10), revoked("expired", -10)));
+
+        denylist.refresh();
+
+        assertThat(denylist.isDenied(token("live", UUID.randomUUID()))).isTrue();
+        assertThat(denylist.isDenied(token("expired", UUID.randomUUID()))).isFalse();
+    }
+
+    @Test
+    void purgeShouldDeleteExpiredRevocations() {
+        denylist.purgeExpiredRevocations();
+
+        verify(revokedTokenRepository).deleteExpired(any());
+    }
+
+    @Test
+    void statusChangesShouldOnlyApplyOnceCommitted() {
+        UUID committed = UUID.randomUUID();
+        UUID rolledBack = UUID.randomUUID();
+
+        TransactionSynchronizationManager.initSynchronization();
+        denylist.applyStatusAfterCommit(committed, AccountStatus.BLOCKED);
+        assertThat(denylist.isUserDenied(committed)).isFalse();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(denylist.isUserDenied(committed)).isTrue();
+
+        TransactionSynchronizationManager.initSynchronization();
+        denylist.applyStatusAfterCommit(rolledBack, AccountStatus.BANNED);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(denylist.isUserDenied(rolledBack)).isFalse();
+        verify(eventPublisher, never()).publishEvent(new AccessRevokedEvent(rolledBack, null));
+    }
+
+    @Test
+    void revokedTokenShouldBePersistedAndAppliedOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        denylist.revokeToken("jti-1", System.currentTimeMillis() + 60_000);
+
+        verify(revokedTokenRepository).save(any(RevokedTokenEntity.class));
+        assertThat(denylist.isDenied(token("jti-1", UUID.randomUUID()))).isFalse();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(denylist.isDenied(token("jti-1", UUID.randomUUID()))).isTrue();
+        verify(eventPublisher).publishEvent(new AccessRevokedEvent(null, "jti-1"));
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static RevokedTokenEntity revoked(String tokenId, long expiresInMinutes) {
+        return RevokedTokenEntity.builder()
+                .tokenId(tokenId)
+                .expiresAt(LocalDateTime.now().plusMinutes(expiresInMinutes))
+                .revokedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static VerifiedToken token(String tokenId, UUID universalId) {
+        return new VerifiedToken(tokenId, universalId, 0, System.currentTimeMillis() + 60_000);
+    }
+}
@@ -0,0 +1,66 @@
+package com.dev.focusshield.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorsPreflightFilterTest {
+
+    private static final String ORIGIN = "chrome-extension://abc";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CorsPreflightFilter filter = new CorsPreflightFilter(ORIGIN, Duration.ofHours(2), meterRegistry);
+
+    @Test
+    void shouldAnswerPreflightFromExtensionWithoutCallingTheChain() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(preflight(ORIGIN, "GET"), response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isEqualTo(ORIGIN);
+        assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS)).isEqualTo("authorization,content-type");
+        assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE)).isEqualTo("7200");
+        assertThat(meterRegistry.get("focusshield.cors.preflight").tag("result", "answered").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldForwardPreflightFromUnknownOrigin() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(preflight("https://evil.example", "GET"), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isNull();
+        assertThat(meterRegistry.get("focusshield.cors.preflight").tag("result", "forwarded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldIgnoreNonPreflightRequests() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/focus-config");
+        request.addHeader(HttpHeaders.ORIGIN, ORIGIN);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+    }
+
+    private static MockHttpServletRequest preflight(String origin, String method) {
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/focus-config/latest");
+        request.addHeader(HttpHeaders.ORIGIN, origin);
+        request.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, method);
+        request.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "authorization,content-type");
+        return request;
+    }
+}
@@ -0,0 +1,79 @@
+package com.dev.focusshield.config;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.RemoteIpValve;
+import org.apache.catalina.valves.ValveBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatWebServerFactoryCustomizer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Profil prod : l'IP vue par {@link AuthRateLimiter} ({@code getRemoteAddr()}) est celle du client derrière le
+ * load balancer, pas celle du load balancer.
+ */
+class ForwardedHeadersTest {
+
+    private static final String CLIENT_IP = "198.51.100.7";
+
+    private RemoteIpValve valve;
+    private String remoteAddrSeen;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StandardEnvironment environment = new StandardEnvironment();
+        new PropertiesPropertySourceLoader()
+                .load("prod", new ClassPathResource("application-prod.properties"))
+                .forEach(environment.getPropertySources()::addFirst);
+        ServerProperties serverProperties = Binder.get(environment).bindOrCreate("server", ServerProperties.class);
+
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+        new TomcatWebServerFactoryCustomizer(environment, serverProperties).customize(factory);
+
+        valve = factory.getEngineValves().stream()
+                .filter(RemoteIpValve.class::isInstance)
+                .map(RemoteIpValve.class::cast)
+                .findFirst()
+                .orElseThrow();
+        valve.setNext(new ValveBase() {
+            @Override
+            public void invoke(Request request, Response response) {
+                remoteAddrSeen = request.getRemoteAddr();
+            }
+        });
+    }
+
+    @Test
+    void xForwardedForFromTheLoadBalancerShouldBecomeTheRemoteAddress() throws Exception {
+        valve.invoke(request("10.0.0.5"), null);
+
+        assertThat(remoteAddrSeen).isEqualTo(CLIENT_IP);
+    }
+
+    @Test
+    void xForwardedForSentDirectlyByAClientShouldBeIgnored() throws Exception {
+        valve.invoke(request("203.0.113.9"), null);
+
+        assertThat(remoteAddrSeen).isEqualTo("203.0.113.9");
+    }
+
+    private static Request request(String peer) {
+        Request request = new Request(new Connector());
+        request.setCoyoteRequest(new org.apache.coyote.Request());
+        request.setRemoteAddr(peer);
+        request.setRemoteHost(peer);
+        request.getCoyoteRequest().getMimeHeaders().addValue("X-Forwarded-For").setString(CLIENT_IP);
+        return request;
+    }
+}
@@ -0,0 +1,203 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.entities.IdempotencyKeyEntity;
+import com.dev.focusshield.service.idempotency.IdempotencyStore;
+import com.dev.focusshield.utils.DigestUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"durationMinutes\":25}";
+
+    private final IdempotencyStore store = mock(IdempotencyStore.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IdempotencyFilter filter = new IdempotencyFilter(store, new ObjectMapper(), meterRegistry);
+
+    @Test
+    void firstRequestShouldExecuteAndStoreItsResponse() throws Exception {
+        when(store.claim(anyString(), anyString())).thenReturn(Optional.empty());
+        AtomicReference<String> bodySeenByController = new AtomicReference<>();
+        FilterChain controller = (request, response) -> {
+            bodySeenByController.set(new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(201);
+            http.setHeader(HttpHeaders.ETAG, "\"3\"");
+            http.setContentType("application/json");
+            response.getWriter().write("{\"id\":1}");
+        };
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(post("/focus-config", "key-1", BODY), response, controller);
+
+        assertThat(bodySeenByController.get()).isEqualTo(BODY);
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+        verify(store).claim(anyString(), eq(DigestUtil.sha256Base64Url(BODY.getBytes(StandardCharsets.UTF_8))));
+        verify(store).complete(anyString(), anyString(), eq(201), eq("application/json"), eq("\"3\""),
+                eq("{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+        assertThat(meterRegistry.get("focusshield.idempotency.requests").tag("result", "executed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void retryShouldBeAnsweredFromTheStoreWithoutCallingTheController() throws Exception {
+        String requestHash = DigestUtil.sha256Base64Url(BODY.getBytes(StandardCharsets.UTF_8));
+        when(store.claim(anyString(), eq(requestHash))).thenReturn(Optional.of(IdempotencyKeyEntity.builder()
+                .requestHash(requestHash).status(201).contentType("application/json").etag("\"3\"")
+                .body("{\"id\":1}".getBytes(StandardCharsets.UTF_8)).build()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(post("/focus-config", "key-1", BODY), response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"3\"");
+        assertThat(response.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isEqualTo("true");
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+        verify(store, never()).complete(anyString(), anyString(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void sameKeyWithAnotherBodyShouldBeRejected() throws Exception {
+        when(store.claim(anyString(), anyString())).thenReturn(Optional.of(IdempotencyKeyEntity.builder()
+                .requestHash("other").status(201).build()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(post("/users", "key-1", BODY), response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(422);
+        assertThat(response.getContentAsString()).contains("422-001");
+    }
+
+    @Test
+    void retryDuringTheFirstRequestShouldBeAskedToWait() throws Exception {
+        String requestHash = DigestUtil.sha256Base64Url(BODY.getBytes(StandardCharsets.UTF_8));
+        when(store.claim(anyString(), anyString())).thenReturn(Optional.of(IdempotencyKeyEntity.builder()
+                .requestHash(requestHash).build()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(post("/focus-config", "key-1", BODY), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(409);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+        assertThat(response.getContentAsString()).contains("409-006");
+    }
+
+    @Test
+    void failedRequestShouldReleaseItsKey() {
+        when(store.claim(anyString(), anyString())).thenReturn(Optional.empty());
+        FilterChain failing = (request, response) -> {
+            throw new IllegalStateException("boom");
+        };
+
+        assertThatThrownBy(() -> filter.doFilter(post("/focus-config", "key-1", BODY), new MockHttpServletResponse(), failing))
+                .isInstanceOf(IllegalStateException.class);
+        verify(store).release(anyString(), anyString());
+    }
+
+    @Test
+    void keysShouldBeScopedToTheRoute() throws Exception {
+        when(store.claim(anyString(), anyString())).thenReturn(Optional.empty());
+
+        filter.doFilter(post("/focus-config", "key-1", BODY), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(post("/users", "key-1", BODY), new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(store).claim(eq(DigestUtil.sha256Base64Url("anonymous\n/focus-config\nkey-1")), anyString());
+        verify(store).claim(eq(DigestUtil.sha256Base64Url("anonymous\n/users\nkey-1")), anyString());
+    }
+
+    @Test
+    void requestsWithoutKeyOrOutsideTheRoutesShouldPassThrough() throws Exception {
+        MockHttpServletRequest withoutKey = post("/focus-config", null, BODY);
+        MockHttpServletRequest login = post("/users/login", "key-1", BODY);
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/focus-config");
+        get.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, "key-1");
+
+        for (MockHttpServletRequest request : new MockHttpServletRequest[]{withoutKey, login, get}) {
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            assertThat(chain.getRequest()).isSameAs(request);
+        }
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    void replayedBodyShouldSupportNonBlockingReads() throws Exception {
+        when(store.claim(anyString(), anyString())).thenReturn(Optional.empty());
+        ByteArrayOutputStream bodySeenByController = new ByteArrayOutputStream();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+        FilterChain controller = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        bodySeenByController.write(in.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new AssertionError(t);
+                }
+            });
+        };
+
+        filter.doFilter(post("/focus-config", "key-1", BODY), new MockHttpServletResponse(), controller);
+
+        assertThat(bodySeenByController.toString(StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(allDataRead).isTrue();
+    }
+
+    @Test
+    void blankKeyShouldBeRejected() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(post("/focus-config", " ", BODY), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        verifyNoInteractions(store);
+    }
+
+    private static MockHttpServletRequest post(String path, String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
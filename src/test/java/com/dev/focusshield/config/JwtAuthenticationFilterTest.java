@@ -0,0 +1,78 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.entities.AccountStatus;
+import com.dev.focusshield.repositories.RevokedTokenRepository;
+import com.dev.focusshield.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private final UUID universalId = UUID.randomUUID();
+    private final JwtTokenProvider jwtTokenProvider = mock(JwtTokenProvider.class);
+    private final AccessDenylist accessDenylist = new AccessDenylist(mock(UserRepository.class),
+            mock(RevokedTokenRepository.class), mock(ApplicationEventPublisher.class), 60_000, new SimpleMeterRegistry());
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenProvider, new SecurityProperties(),
+            accessDenylist);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenShouldAuthenticateTheRequest() throws Exception {
+        when(jwtTokenProvider.verify("token")).thenReturn(token("jti-1"));
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo(universalId.toString());
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertThat(principal.getTokenId()).isEqualTo("jti-1");
+    }
+
+    @Test
+    void blockedUserShouldNotBeAuthenticated() throws Exception {
+        when(jwtTokenProvider.verify("token")).thenReturn(token("jti-1"));
+        accessDenylist.applyStatus(universalId, AccountStatus.BLOCKED);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void revokedTokenShouldNotBeAuthenticated() throws Exception {
+        when(jwtTokenProvider.verify("token")).thenReturn(token("jti-1"));
+        accessDenylist.revokeToken("jti-1", System.currentTimeMillis() + 60_000);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private VerifiedToken token(String tokenId) {
+        return new VerifiedToken(tokenId, universalId, 0, System.currentTimeMillis() + 60_000);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/focus-config/latest");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+        return request;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.entities.Permission;
+import com.dev.focusshield.entities.RoleEntity;
+import com.dev.focusshield.entities.UserEntity;
+import com.dev.focusshield.repositories.RoleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        JwtKeyManager keyManager = new JwtKeyManager(new JwtKeyProperties(), new DefaultResourceLoader());
+        jwtTokenProvider = new JwtTokenProvider(keyManager, roleHierarchy(), 100, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtTokenProvider, "expirationTime", 60_000L);
+    }
+
+    @Test
+    void shouldVerifyTokenOnceAndServeRepeatsFromCache() {
+        UUID universalId = UUID.randomUUID();
+        String token = jwtTokenProvider.generateToken(user(universalId, "ROLE_USER"));
+
+        VerifiedToken first = jwtTokenProvider.verify(token);
+        VerifiedToken second = jwtTokenProvider.verify(token);
+
+        assertThat(first).isNotNull();
+        assertThat(first.universalId()).isEqualTo(universalId);
+        assertThat(first.permissions()).isEqualTo(Permission.defaultsFor("ROLE_USER"));
+        assertThat(first.authorities()).isSameAs(PermissionAuthority.authoritiesOf(first.permissions()));
+        assertThat(second).isSameAs(first);
+        assertThat(jwtTokenProvider.getCacheMissCount()).isEqualTo(1);
+        assertThat(jwtTokenProvider.getCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectTamperedToken() {
+        String token = jwtTokenProvider.generateToken(user(UUID.randomUUID(), "ROLE_USER"));
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signatureStart) + replacement + token.substring(signatureStart + 1);
+
+        assertThat(jwtTokenProvider.verify(tampered)).isNull();
+        assertThat(jwtTokenProvider.validateToken(tampered)).isFalse();
+    }
+
+    @Test
+    void shouldSignWithActiveKeyIdAndPublishIt() {
+        JwtKeyManager keyManager = new JwtKeyManager(new JwtKeyProperties(), new DefaultResourceLoader());
+        JwtTokenProvider provider = new JwtTokenProvider(keyManager, roleHierarchy(), 100, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(provider, "expirationTime", 60_000L);
+        String token = provider.generateToken(user(UUID.randomUUID(), "ROLE_USER"));
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+
+        assertThat(header).contains("\"alg\":\"ES256\"").contains("\"kid\":\"" + keyManager.getActiveKid() + "\"");
+        assertThat((List<?>) keyManager.getJwks().get("keys")).hasSize(1);
+        // A token signed by another instance's key is rejected
+        assertThat(jwtTokenProvider.verify(token)).isNull();
+    }
+
+    private static RoleHierarchy roleHierarchy() {
+        return new RoleHierarchy(mock(RoleRepository.class), 60_000L);
+    }
+
+    private static UserEntity user(UUID universalId, String roleName) {
+        RoleEntity role = new RoleEntity();
+        role.setRoleName(roleName);
+        return UserEntity.builder()
+                .username("jane")
+                .email("jane@example.com")
+                .universalId(universalId)
+                .roles(List.of(role))
+                .build();
+    }
+}
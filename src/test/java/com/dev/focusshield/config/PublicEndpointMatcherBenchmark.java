@@ -0,0 +1,80 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.utils.contants.Constant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare le matcher précompilé au parcours {@link AntPathMatcher} historique quand la whitelist grossit.
+ * Le temps par requête du matcher précompilé doit rester plat (il ne dépend que de la longueur du chemin) ;
+ * lancer avec {@code -prof gc} pour vérifier qu'il n'alloue rien.
+ *
+ * <p>Non exécuté par surefire : lancer {@link #main(String[])} depuis l'IDE après {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublicEndpointMatcherBenchmark {
+
+    private static final String CONTEXT_PATH = "/focus-shield-service/api/v1";
+    private static final String PUBLIC_URI = CONTEXT_PATH + "/users/login";
+    private static final String PROTECTED_URI = CONTEXT_PATH + "/focus-config/latest";
+
+    @Param({"12", "100", "1000"})
+    public int whitelistSize;
+
+    private PublicEndpointMatcher matcher;
+    private List<String> patterns;
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    @Setup
+    public void setUp() {
+        patterns = new ArrayList<>(List.of(Constant.AUTH_WHITELIST));
+        for (int i = 0; patterns.size() < whitelistSize; i++) {
+            patterns.add(i % 2 == 0 ? "/generated/route-" + i + "/**" : "/generated/route-" + i);
+        }
+        matcher = new PublicEndpointMatcher(patterns);
+    }
+
+    @Benchmark
+    public boolean precompiledPublic() {
+        return matcher.matches(PUBLIC_URI, CONTEXT_PATH.length());
+    }
+
+    @Benchmark
+    public boolean precompiledProtected() {
+        return matcher.matches(PROTECTED_URI, CONTEXT_PATH.length());
+    }
+
+    @Benchmark
+    public boolean antPathMatcherProtected() {
+        String path = PROTECTED_URI.substring(CONTEXT_PATH.length());
+        return patterns.stream().anyMatch(pattern -> antPathMatcher.match(pattern, path));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PublicEndpointMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
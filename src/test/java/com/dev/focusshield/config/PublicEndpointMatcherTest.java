@@ -0,0 +1,55 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.utils.contants.Constant;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublicEndpointMatcherTest {
+
+    private static final String CONTEXT_PATH = "/focus-shield-service/api/v1";
+
+    private final List<String> whitelist = List.of(Constant.AUTH_WHITELIST);
+    private final PublicEndpointMatcher matcher = new PublicEndpointMatcher(whitelist);
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    @Test
+    void shouldAgreeWithAntPathMatcherOnWhitelist() {
+        List<String> paths = List.of(
+                "/users", "/users/", "/users/login", "/users/loginx", "/users/me", "/users/token/refresh",
+                "/api-docs", "/api-docs/", "/api-docs/swagger-config", "/api-docsx",
+                "/swagger-ui.html", "/swagger-ui/index.html", "/health/healthcheck", "/health/healthcheck/db",
+                "/actuator", "/actuator/health/liveness", "/.well-known/jwks.json", "/app-info",
+                "/focus-config", "/focus-config/latest", "/admin/users", "/logout", "/");
+
+        for (String path : paths) {
+            boolean expected = whitelist.stream().anyMatch(pattern -> antPathMatcher.match(pattern, path));
+            assertThat(matcher.matches(path, 0)).as(path).isEqualTo(expected);
+            assertThat(matcher.matches(CONTEXT_PATH + path, CONTEXT_PATH.length())).as(CONTEXT_PATH + path).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldDelegateOtherWildcardsToAntPathMatcher() {
+        PublicEndpointMatcher wildcardMatcher = new PublicEndpointMatcher(Arrays.asList("/**", "/files/*.txt"));
+        PublicEndpointMatcher partialMatcher = new PublicEndpointMatcher(List.of("/files/*.txt", "/users/{id}/avatar"));
+
+        assertThat(wildcardMatcher.matches("/anything/at/all", 0)).isTrue();
+        assertThat(partialMatcher.matches("/files/readme.txt", 0)).isTrue();
+        assertThat(partialMatcher.matches("/files/readme.md", 0)).isFalse();
+        assertThat(partialMatcher.matches("/users/42/avatar", 0)).isTrue();
+        assertThat(partialMatcher.matches("/users/42", 0)).isFalse();
+    }
+
+    @Test
+    void shouldTreatBareContextPathAsRoot() {
+        PublicEndpointMatcher rootMatcher = new PublicEndpointMatcher(List.of("/"));
+
+        assertThat(rootMatcher.matches(CONTEXT_PATH, CONTEXT_PATH.length())).isTrue();
+        assertThat(matcher.matches(CONTEXT_PATH, CONTEXT_PATH.length())).isFalse();
+    }
+}
@@ -0,0 +1,54 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.entities.Permission;
+import com.dev.focusshield.entities.RoleEntity;
+import com.dev.focusshield.repositories.RoleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoleHierarchyTest {
+
+    private final RoleEntity user = role("ROLE_USER", 1, null);
+    private final RoleEntity support = role("ROLE_SUPPORT", 5, Permission.maskOf(Permission.USERS_ADMIN));
+    private final RoleEntity admin = role("ROLE_ADMIN", 10, null);
+
+    @Test
+    void shouldInheritPermissionsOfLowerLevels() {
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(user, support, admin));
+        RoleHierarchy hierarchy = new RoleHierarchy(roleRepository, 60_000L);
+
+        assertThat(hierarchy.resolvePermissions(List.of(user))).isEqualTo(Permission.defaultsFor("ROLE_USER"));
+        assertThat(hierarchy.resolvePermissions(List.of(support)))
+                .isEqualTo(Permission.defaultsFor("ROLE_USER") | Permission.USERS_ADMIN.getMask());
+        assertThat(hierarchy.resolvePermissions(List.of(admin)))
+                .isEqualTo(Permission.defaultsFor("ROLE_USER") | Permission.defaultsFor("ROLE_ADMIN"));
+        assertThat(hierarchy.resolvePermissions(List.of())).isZero();
+    }
+
+    @Test
+    void shouldAuthorizeWithBitTests() {
+        PermissionAuthorizationManager rolesAdmin = PermissionAuthorizationManager.hasPermissions(Permission.ROLES_ADMIN);
+        long userMask = Permission.defaultsFor("ROLE_USER");
+        long adminMask = userMask | Permission.defaultsFor("ROLE_ADMIN");
+
+        assertThat(rolesAdmin.check(() -> authentication(userMask), null).isGranted()).isFalse();
+        assertThat(rolesAdmin.check(() -> authentication(adminMask), null).isGranted()).isTrue();
+        assertThat(PermissionAuthority.authoritiesOf(adminMask)).isSameAs(PermissionAuthority.authoritiesOf(adminMask));
+    }
+
+    private static Authentication authentication(long mask) {
+        return new UsernamePasswordAuthenticationToken("user", null, PermissionAuthority.authoritiesOf(mask));
+    }
+
+    private static RoleEntity role(String name, int level, Long permissions) {
+        return RoleEntity.builder().roleName(name).level(level).permissions(permissions).build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.dev.focusshield.config;
+
+import com.dev.focusshield.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class UserIdResolverTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserIdResolver resolver = new UserIdResolver(userRepository, 100, new SimpleMeterRegistry());
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldResolveOncePerRequestAndCacheAcrossRequests() {
+        UUID universalId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        when(userRepository.findIdByUniversalId(universalId)).thenReturn(Optional.of(userId));
+
+        AuthenticatedUser principal = authenticate(universalId);
+        assertThat(resolver.currentUserId()).isEqualTo(userId);
+        assertThat(resolver.currentUserId()).isEqualTo(userId);
+        assertThat(principal.getUserId()).isEqualTo(userId);
+
+        authenticate(universalId); // requête suivante, nouveau principal
+        assertThat(resolver.currentUserId()).isEqualTo(userId);
+
+        verify(userRepository, times(1)).findIdByUniversalId(universalId);
+    }
+
+    @Test
+    void shouldExposeUniversalIdAsAuthenticationName() {
+        UUID universalId = UUID.randomUUID();
+        authenticate(universalId);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo(universalId.toString());
+    }
+
+    @Test
+    void shouldQueryAgainAfterEviction() {
+        UUID universalId = UUID.randomUUID();
+        when(userRepository.findIdByUniversalId(universalId))
+                .thenReturn(Optional.of(UUID.randomUUID()))
+                .thenReturn(Optional.empty());
+
+        resolver.resolve(universalId);
+        resolver.evict(universalId);
+
+        assertThatThrownBy(() -> resolver.resolve(universalId)).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    private static AuthenticatedUser authenticate(UUID universalId) {
+        AuthenticatedUser principal = new AuthenticatedUser(universalId);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+        return principal;
+    }
+}
@@ -0,0 +1,39 @@
+package com.dev.focusshield.controller;
+
+import com.dev.focusshield.entities.AccountStatus;
+import com.dev.focusshield.model.User;
+import com.dev.focusshield.service.users.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AdminControllerTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AdminController(userService)).build();
+
+    @Test
+    void statusChangeShouldBeAppliedThroughTheService() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(userService.updateStatus(userId, AccountStatus.BANNED)).thenReturn(new User());
+
+        mockMvc.perform(patch("/admin/users/{userId}/status", userId).param("status", "BANNED"))
+                .andExpect(status().isOk());
+
+        verify(userService).updateStatus(userId, AccountStatus.BANNED);
+    }
+
+    @Test
+    void unknownStatusShouldBeRejected() throws Exception {
+        mockMvc.perform(patch("/admin/users/{userId}/status", UUID.randomUUID()).param("status", "DELETED"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+}
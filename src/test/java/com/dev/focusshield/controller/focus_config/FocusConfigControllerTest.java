@@ -0,0 +1,237 @@
+package com.dev.focusshield.controller.focus_config;
+
+import com.dev.focusshield.config.UserIdResolver;
+import com.dev.focusshield.dto.FocusConfigPage;
+import com.dev.focusshield.exceptions.FocusShieldErrorCode;
+import com.dev.focusshield.exceptions.FocusShieldPreconditionFailedException;
+import com.dev.focusshield.exceptions.GlobalExceptionHandler;
+import com.dev.focusshield.model.FocusConfig;
+import com.dev.focusshield.model.FocusConfigRequest;
+import com.dev.focusshield.service.focus_config.FocusConfigResponseCache;
+import com.dev.focusshield.service.focus_config.FocusConfigService;
+import com.dev.focusshield.service.focus_config.FocusConfigStreamService;
+import com.dev.focusshield.service.focus_config.FocusConfigWriteBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FocusConfigControllerTest {
+
+    private final FocusConfigService focusConfigService = mock(FocusConfigService.class);
+    private final UserIdResolver userIdResolver = mock(UserIdResolver.class);
+    private final FocusConfigWriteBuffer writeBuffer = mock(FocusConfigWriteBuffer.class);
+    private final FocusConfigResponseCache responseCache = new FocusConfigResponseCache(
+            Jackson2ObjectMapperBuilder.json().build(), userIdResolver, new SimpleMeterRegistry(), 1 << 20, 65536, Duration.ofSeconds(2));
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                    new FocusConfigController(focusConfigService, mock(FocusConfigStreamService.class), responseCache, writeBuffer))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        when(userIdResolver.currentUserId()).thenReturn(UUID.randomUUID());
+    }
+
+    @Test
+    void shouldReturnConfigWithETagAndCacheControl() throws Exception {
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.of(7L));
+        when(focusConfigService.getLatestFocusConfiguration()).thenReturn(new FocusConfig().durationMinutes(25));
+
+        mockMvc.perform(get("/focus-config/latest"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+    }
+
+    @Test
+    void shouldServeCachedBodyUntilTheRevisionChanges() throws Exception {
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.of(7L));
+        when(focusConfigService.getLatestFocusConfiguration()).thenReturn(new FocusConfig().durationMinutes(25));
+
+        mockMvc.perform(get("/focus-config/latest")).andExpect(status().isOk());
+        mockMvc.perform(get("/focus-config/latest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.durationMinutes").value(25));
+        verify(focusConfigService, times(1)).getLatestFocusConfiguration();
+
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.of(8L));
+        when(focusConfigService.getLatestFocusConfiguration()).thenReturn(new FocusConfig().durationMinutes(50));
+
+        mockMvc.perform(get("/focus-config/latest"))
+                .andExpect(jsonPath("$.durationMinutes").value(50));
+        verify(focusConfigService, times(2)).getLatestFocusConfiguration();
+    }
+
+    @Test
+    void shouldGzipTheBodyWhenAccepted() throws Exception {
+        List<String> sites = IntStream.range(0, 200).mapToObj(i -> "site-" + i + ".example.com").toList();
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.of(3L));
+        when(focusConfigService.getLatestFocusConfiguration()).thenReturn(new FocusConfig().blockedSites(sites));
+
+        byte[] gzipped = mockMvc.perform(get("/focus-config/latest").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-gz\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] identity = mockMvc.perform(get("/focus-config/latest"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertThat(in.readAllBytes()).isEqualTo(identity);
+        }
+    }
+
+    @Test
+    void shouldAnswerAcceptedWhenTheSaveIsBuffered() throws Exception {
+        when(writeBuffer.offer(any())).thenReturn(true);
+
+        mockMvc.perform(post("/focus-config").contentType(MediaType.APPLICATION_JSON).content("{\"durationMinutes\":25}"))
+                .andExpect(status().isAccepted());
+        verify(focusConfigService, never()).saveFocusConfiguration(any(FocusConfigRequest.class), any());
+    }
+
+    @Test
+    void conditionalSavesShouldBypassTheBufferAndReturnTheNewETag() throws Exception {
+        when(writeBuffer.offer(any())).thenReturn(true);
+        when(focusConfigService.saveFocusConfiguration(any(FocusConfigRequest.class), eq(7L))).thenReturn(8L);
+
+        mockMvc.perform(post("/focus-config").header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"durationMinutes\":25}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"8\""));
+        verify(writeBuffer, never()).offer(any());
+        verify(writeBuffer).flushCurrentUser();
+    }
+
+    @Test
+    void staleIfMatchShouldAnswerPreconditionFailed() throws Exception {
+        when(focusConfigService.saveFocusConfiguration(any(FocusConfigRequest.class), eq(7L)))
+                .thenThrow(new FocusShieldPreconditionFailedException(FocusShieldErrorCode.DATA_ERROR_PRECONDITION_FAILED));
+
+        mockMvc.perform(post("/focus-config").header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"durationMinutes\":25}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code").value("412-001"));
+        mockMvc.perform(delete("/focus-config/" + UUID.randomUUID()).header(HttpHeaders.IF_MATCH, "W/\"7\""))
+                .andExpect(status().isPreconditionFailed());
+        verify(focusConfigService, never()).deleteFocusConfig(any(), any());
+    }
+
+    @Test
+    void shouldFlushBufferedSavesBeforeReading() throws Exception {
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.of(7L));
+
+        mockMvc.perform(get("/focus-config/latest").header(HttpHeaders.IF_NONE_MATCH, "\"7\""));
+
+        InOrder inOrder = inOrder(writeBuffer, focusConfigService);
+        inOrder.verify(writeBuffer).flushCurrentUser();
+        inOrder.verify(focusConfigService).getConfigRevision();
+    }
+
+    @Test
+    void shouldFlushBufferedSavesBeforeReadingTheHistoryRevision() throws Exception {
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.of(7L));
+
+        mockMvc.perform(get("/focus-config/history").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isNotModified());
+
+        InOrder inOrder = inOrder(writeBuffer, focusConfigService);
+        inOrder.verify(writeBuffer).flushCurrentUser();
+        inOrder.verify(focusConfigService).getConfigRevision();
+        verify(focusConfigService, never()).getCompactedHistory(any());
+    }
+
+    @Test
+    void shouldParseAcceptEncoding() {
+        assertThat(FocusConfigController.acceptsGzip("gzip")).isTrue();
+        assertThat(FocusConfigController.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(FocusConfigController.acceptsGzip("*")).isTrue();
+        assertThat(FocusConfigController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(FocusConfigController.acceptsGzip("identity")).isFalse();
+        assertThat(FocusConfigController.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWithoutLoadingConfigs() throws Exception {
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.of(7L));
+
+        mockMvc.perform(get("/focus-config/latest").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+        mockMvc.perform(get("/focus-config").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isNotModified());
+
+        verify(focusConfigService, never()).getLatestFocusConfiguration();
+        verify(focusConfigService, never()).getConfigsForUser(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void eitherEncodingOfTheRevisionShouldAnswerNotModified() throws Exception {
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.of(7L));
+
+        mockMvc.perform(get("/focus-config/latest").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"7-gz\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7-gz\""));
+        mockMvc.perform(get("/focus-config/latest").header(HttpHeaders.IF_NONE_MATCH, "\"6-gz\", \"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+
+        verify(focusConfigService, never()).getLatestFocusConfiguration();
+    }
+
+    @Test
+    void shouldServeFullResponseWhenRevisionChanged() throws Exception {
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.of(8L));
+        when(focusConfigService.getConfigsForUser(null, null, null, null, null))
+                .thenReturn(new FocusConfigPage(List.of(), null));
+
+        mockMvc.perform(get("/focus-config").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"8\""))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void shouldPassFiltersAndReturnTheNextCursor() throws Exception {
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.empty());
+        when(focusConfigService.getConfigsForUser(true, LocalDateTime.of(2026, 1, 1, 8, 0), null, 20, "abc"))
+                .thenReturn(new FocusConfigPage(List.of(new FocusConfig()), "def"));
+
+        mockMvc.perform(get("/focus-config")
+                        .param("active", "true")
+                        .param("from", "2026-01-01T10:00:00+02:00")
+                        .param("limit", "20")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "def"));
+    }
+}
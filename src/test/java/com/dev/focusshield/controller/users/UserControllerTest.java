@@ -0,0 +1,35 @@
+package com.dev.focusshield.controller.users;
+
+import com.dev.focusshield.config.AuthRateLimiter;
+import com.dev.focusshield.service.users.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserControllerTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+            new UserController(userService, mock(AuthRateLimiter.class))).build();
+
+    @Test
+    void logoutShouldRevokeTheBearerToken() throws Exception {
+        mockMvc.perform(post("/users/logout").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isNoContent());
+
+        verify(userService).logout("token");
+    }
+
+    @Test
+    void logoutWithoutBearerTokenShouldDoNothing() throws Exception {
+        mockMvc.perform(post("/users/logout").header(HttpHeaders.AUTHORIZATION, "Basic abc"))
+                .andExpect(status().isNoContent());
+
+        verifyNoInteractions(userService);
+    }
+}
@@ -0,0 +1,169 @@
+package com.dev.focusshield.repositories;
+
+import com.dev.focusshield.entities.AccountStatus;
+import com.dev.focusshield.entities.FocusConfigCurrentEntity;
+import com.dev.focusshield.entities.FocusConfigEntity;
+import com.dev.focusshield.entities.UserEntity;
+import com.dev.focusshield.model.FocusConfig;
+import com.dev.focusshield.utils.mappers.FocusConfigMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FocusConfigRepositoryTest {
+
+    @Autowired
+    private FocusConfigRepository focusConfigRepository;
+
+    @Autowired
+    private FocusConfigCurrentRepository currentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void listingAPageShouldCostTwoQueriesWhateverItsSize() {
+        assertThat(queriesToListAndMap(1)).isEqualTo(2);
+        assertThat(queriesToListAndMap(50)).isEqualTo(2);
+    }
+
+    @Test
+    void keysetPagesShouldWalkTheWholeHistoryWithoutOverlap() {
+        UserEntity user = persistUser();
+        Set<UUID> saved = new HashSet<>();
+        for (int i = 0; i < 7; i++) {
+            saved.add(persistConfig(user, i).getId()); // savedAt identiques possibles : départagés par l'id
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<UUID> seen = new ArrayList<>();
+        LocalDateTime afterSavedAt = null;
+        UUID afterId = null;
+        List<UUID> page;
+        do {
+            page = focusConfigRepository.findPageIds(user.getId(), null, null, null, afterSavedAt, afterId, Limit.of(3));
+            seen.addAll(page);
+            if (!page.isEmpty()) {
+                FocusConfigEntity last = focusConfigRepository.findById(page.get(page.size() - 1)).orElseThrow();
+                afterSavedAt = last.getSavedAt();
+                afterId = last.getId();
+            }
+        } while (page.size() == 3);
+
+        assertThat(seen).hasSize(7).doesNotHaveDuplicates();
+        assertThat(new HashSet<>(seen)).isEqualTo(saved);
+        assertThat(focusConfigRepository.findPageIds(user.getId(), false, null, null, null, null, Limit.of(10))).isEmpty();
+    }
+
+    @Test
+    void compactionQueriesShouldNeverTouchTheCurrentConfig() {
+        UserEntity user = persistUser();
+        FocusConfigEntity old = persistConfig(user, 0);
+        FocusConfigEntity current = persistConfig(user, 1);
+        entityManager.persist(FocusConfigCurrentEntity.builder().userId(user.getId()).config(current).revision(2)
+                .updatedAt(LocalDateTime.now()).build());
+        entityManager.flush();
+
+        assertThat(focusConfigRepository.findStaleActiveIds(Limit.of(10))).containsExactly(old.getId());
+        assertThat(focusConfigRepository.deactivate(List.of(old.getId(), current.getId()))).isEqualTo(1);
+        entityManager.clear();
+
+        LocalDateTime cutoff = LocalDateTime.now().plusMinutes(1);
+        assertThat(focusConfigRepository.findUserIdsWithInactiveBefore(cutoff, Limit.of(10))).containsExactly(user.getId());
+        assertThat(focusConfigRepository.findInactiveBefore(user.getId(), cutoff, Limit.of(10)))
+                .extracting(FocusConfigEntity::getId)
+                .containsExactly(old.getId());
+        assertThat(focusConfigRepository.deleteInactive(List.of(old.getId(), current.getId()))).isEqualTo(1);
+        assertThat(focusConfigRepository.findById(current.getId())).isPresent();
+    }
+
+    @Test
+    void revisionClaimsShouldOnlySucceedFromTheExpectedRevision() {
+        UserEntity user = persistUser();
+        FocusConfigEntity current = persistConfig(user, 0);
+        entityManager.persist(FocusConfigCurrentEntity.builder().userId(user.getId()).config(current).revision(2)
+                .updatedAt(LocalDateTime.now()).build());
+        entityManager.flush();
+
+        assertThat(currentRepository.incrementRevision(user.getId(), 1L)).isZero();
+        assertThat(currentRepository.incrementRevision(user.getId(), 2L)).isEqualTo(1);
+        assertThat(currentRepository.incrementRevision(user.getId(), null)).isEqualTo(1);
+        assertThat(currentRepository.incrementRevision(UUID.randomUUID(), null)).isZero();
+        assertThat(currentRepository.findRevisionByUserId(user.getId())).contains(4L);
+    }
+
+    @Test
+    void aClaimShouldNotBeHiddenByAPointerAlreadyLoaded() {
+        UserEntity user = persistUser();
+        FocusConfigEntity current = persistConfig(user, 0);
+        entityManager.persist(FocusConfigCurrentEntity.builder().userId(user.getId()).config(current).revision(1)
+                .updatedAt(LocalDateTime.now()).build());
+        assertThat(currentRepository.findById(user.getId()).orElseThrow().getRevision()).isEqualTo(1L);
+
+        assertThat(currentRepository.incrementRevision(user.getId(), 1L)).isEqualTo(1);
+
+        assertThat(currentRepository.findById(user.getId()).orElseThrow().getRevision()).isEqualTo(2L);
+    }
+
+    private long queriesToListAndMap(int configCount) {
+        UserEntity user = persistUser();
+        for (int i = 0; i < configCount; i++) {
+            persistConfig(user, i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<UUID> ids = focusConfigRepository.findPageIds(user.getId(), true, null, null, null, null, Limit.of(200));
+        List<FocusConfig> configs = focusConfigRepository.findByIdIn(ids).stream()
+                .map(FocusConfigMapper.INSTANCE::toResponse)
+                .toList();
+
+        assertThat(configs).hasSize(configCount);
+        assertThat(configs).allSatisfy(config -> {
+            assertThat(config.getBlockedSites()).hasSize(2);
+            assertThat(config.getUserId()).isEqualTo(user.getUniversalId());
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private UserEntity persistUser() {
+        UserEntity user = UserEntity.builder()
+                .username("user-" + UUID.randomUUID().toString().substring(0, 8))
+                .email(UUID.randomUUID() + "@focusshield.com")
+                .password("hash")
+                .status(AccountStatus.VALIDATED)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    private FocusConfigEntity persistConfig(UserEntity user, int i) {
+        FocusConfigEntity config = FocusConfigEntity.builder()
+                .user(user)
+                .active(true)
+                .durationMinutes(25)
+                .blockedSites(List.of("site" + i + ".com", "other" + i + ".com"))
+                .customSelectorsJson("{\"site" + i + ".com\":\".feed\"}")
+                .build();
+        entityManager.persist(config);
+        return config;
+    }
+}
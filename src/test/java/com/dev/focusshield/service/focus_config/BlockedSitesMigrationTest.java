@@ -0,0 +1,134 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.utils.converters.BlockedSitesConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Schéma de production reproduit à la main (identifiants binary(16) comme sous MySQL) : l'entité ne connaît plus
+ * la table {@code blocked_sites}. Sans transaction de test : la migration commite lot par lot.
+ */
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BlockedSitesMigrationTest {
+
+    // Octets >= 0x80 dans chaque identifiant : ils doivent survivre à l'aller-retour ISO-8859-1
+    private static final UUID FIRST = new UUID(0xF0E1D2C3B4A59687L, 0x8899AABBCCDDEEFFL);
+    private static final UUID SECOND = new UUID(0x80FF00FF80FF00FFL, 0x0102030405060708L);
+    private static final UUID THIRD = new UUID(0x7F807F807F807F80L, 0xFFFFFFFFFFFFFFFEL);
+    private static final UUID ALREADY_MIGRATED = UUID.randomUUID();
+
+    private final BlockedSitesConverter converter = new BlockedSitesConverter();
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BlockedSitesMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        update("create table focus_config (id binary(16) primary key, blocked_sites_data varbinary(65535))");
+        update("create table blocked_sites (config_id binary(16) not null, site varchar(255),"
+                + " constraint fk_blocked_sites_config foreign key (config_id) references focus_config (id))");
+        insertLegacy(FIRST, "a.com", "b.com");
+        insertLegacy(SECOND, "c.com");
+        insertLegacy(THIRD, "d.com", "e.com", "f.com");
+        jdbcTemplate.update("insert into focus_config (id, blocked_sites_data) values (:id, :data)",
+                new MapSqlParameterSource("id", bytes(ALREADY_MIGRATED))
+                        .addValue("data", converter.convertToDatabaseColumn(List.of("kept.com"))));
+        jdbcTemplate.update("insert into blocked_sites (config_id, site) values (:id, 'stale.com')",
+                new MapSqlParameterSource("id", bytes(ALREADY_MIGRATED)));
+
+        // Lots de 2 : trois configurations à migrer demandent deux lots
+        migration = new BlockedSitesMigration(jdbcTemplate, new TransactionTemplate(transactionManager), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        update("drop table if exists blocked_sites");
+        update("drop table focus_config");
+    }
+
+    @Test
+    void shouldMoveEverySiteIntoTheColumnAndDeleteTheMigratedRows() {
+        migration.afterSingletonsInstantiated();
+
+        assertThat(sitesOf(FIRST)).containsExactlyInAnyOrder("a.com", "b.com");
+        assertThat(sitesOf(SECOND)).containsExactly("c.com");
+        assertThat(sitesOf(THIRD)).containsExactlyInAnyOrder("d.com", "e.com", "f.com");
+        assertThat(legacyRowsOf(FIRST) + legacyRowsOf(SECOND) + legacyRowsOf(THIRD)).isZero();
+        // Colonne déjà remplie : jamais réécrite, ses anciennes lignes ne sont pas touchées
+        assertThat(sitesOf(ALREADY_MIGRATED)).containsExactly("kept.com");
+        assertThat(legacyRowsOf(ALREADY_MIGRATED)).isEqualTo(1);
+    }
+
+    @Test
+    void runningAgainShouldChangeNothing() {
+        migration.afterSingletonsInstantiated();
+        insertSitesOnly(FIRST, "late.com");
+
+        migration.afterSingletonsInstantiated();
+
+        assertThat(sitesOf(FIRST)).containsExactlyInAnyOrder("a.com", "b.com");
+        assertThat(legacyRowsOf(FIRST)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDoNothingWithoutTheLegacyTable() {
+        update("drop table blocked_sites");
+
+        migration.afterSingletonsInstantiated();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from focus_config where blocked_sites_data is null",
+                new MapSqlParameterSource(), Integer.class)).isEqualTo(3);
+    }
+
+    private void insertLegacy(UUID id, String... sites) {
+        jdbcTemplate.update("insert into focus_config (id) values (:id)", new MapSqlParameterSource("id", bytes(id)));
+        insertSitesOnly(id, sites);
+    }
+
+    private void insertSitesOnly(UUID id, String... sites) {
+        for (String site : sites) {
+            jdbcTemplate.update("insert into blocked_sites (config_id, site) values (:id, :site)",
+                    new MapSqlParameterSource("id", bytes(id)).addValue("site", site));
+        }
+    }
+
+    private List<String> sitesOf(UUID id) {
+        return converter.convertToEntityAttribute(jdbcTemplate.queryForObject(
+                "select blocked_sites_data from focus_config where id = :id",
+                new MapSqlParameterSource("id", bytes(id)), byte[].class));
+    }
+
+    private int legacyRowsOf(UUID id) {
+        return jdbcTemplate.queryForObject("select count(*) from blocked_sites where config_id = :id",
+                new MapSqlParameterSource("id", bytes(id)), Integer.class);
+    }
+
+    private void update(String sql) {
+        jdbcTemplate.getJdbcTemplate().execute(sql);
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
@@ -0,0 +1,99 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.entities.FocusConfigChangeEntity;
+import com.dev.focusshield.entities.FocusConfigChangeType;
+import com.dev.focusshield.entities.FocusConfigCurrentEntity;
+import com.dev.focusshield.entities.FocusConfigEntity;
+import com.dev.focusshield.model.FocusConfigDelta;
+import com.dev.focusshield.repositories.FocusConfigChangeRepository;
+import com.dev.focusshield.utils.mappers.FocusConfigMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class FocusConfigChangeLogTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final FocusConfigChangeRepository repository = mock(FocusConfigChangeRepository.class);
+    private final FocusConfigChangeLog changeLog = new FocusConfigChangeLog(repository, FocusConfigMapper.INSTANCE, 100, 3);
+
+    @Test
+    void shouldRecordOnlyTheDifferences() {
+        FocusConfigCurrentEntity current = pointer(5, 2);
+        changeLog.record(current,
+                config(List.of("a.com", "b.com"), "{\"a.com\":\".feed\",\"b.com\":\".ads\"}"),
+                config(List.of("b.com", "c.com"), "{\"a.com\":\".stories\"}"));
+
+        List<FocusConfigChangeEntity> saved = savedChanges();
+        assertThat(saved).extracting(change -> change.getType() + " " + change.getItem()).containsExactlyInAnyOrder(
+                "SITE_ADDED c.com", "SITE_REMOVED a.com", "SELECTOR_SET a.com", "SELECTOR_REMOVED b.com");
+        assertThat(saved).allMatch(change -> change.getRevision() == 5 && change.getUserId().equals(userId));
+        assertThat(current.getLogStartRevision()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRestartTheLogWhenThereIsNoReferenceOrTooManyChanges() {
+        FocusConfigCurrentEntity first = pointer(1, 0);
+        changeLog.record(first, null, config(List.of("a.com"), null));
+        assertThat(first.getLogStartRevision()).isEqualTo(1);
+
+        FocusConfigCurrentEntity bulk = pointer(7, 2);
+        changeLog.record(bulk, config(List.of(), null), config(List.of("a.com", "b.com", "c.com", "d.com"), null));
+        assertThat(bulk.getLogStartRevision()).isEqualTo(7);
+
+        verify(repository, times(2)).deleteByUserId(userId);
+        verify(repository, never()).saveAll(any());
+    }
+
+    @Test
+    void shouldFoldChangesSinceVersionKeepingTheLastOperation() {
+        when(repository.findByUserIdAndRevisionGreaterThanOrderByRevisionAsc(userId, 3L)).thenReturn(List.of(
+                change(4, "SITE_ADDED", "a.com", null),
+                change(4, "SELECTOR_SET", "a.com", ".feed"),
+                change(5, "SITE_REMOVED", "a.com", null),
+                change(5, "SITE_ADDED", "b.com", null),
+                change(6, "SELECTOR_REMOVED", "a.com", null),
+                change(6, "SELECTOR_SET", "b.com", ".ads")));
+
+        FocusConfigDelta delta = new FocusConfigDelta();
+        changeLog.fillChangesSince(userId, 3, delta);
+
+        assertThat(delta.getAddedSites()).containsExactly("b.com");
+        assertThat(delta.getRemovedSites()).containsExactly("a.com");
+        assertThat(delta.getChangedSelectors()).containsOnlyKeys("b.com");
+        assertThat(delta.getRemovedSelectors()).containsExactly("a.com");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<FocusConfigChangeEntity> savedChanges() {
+        ArgumentCaptor<List<FocusConfigChangeEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(captor.capture());
+        verify(repository, never()).deleteUpTo(any(), anyLong());
+        return new ArrayList<>(captor.getValue());
+    }
+
+    private FocusConfigCurrentEntity pointer(long revision, long logStartRevision) {
+        return FocusConfigCurrentEntity.builder().userId(userId).revision(revision).logStartRevision(logStartRevision).build();
+    }
+
+    private static FocusConfigEntity config(List<String> sites, String selectorsJson) {
+        return FocusConfigEntity.builder().blockedSites(sites).customSelectorsJson(selectorsJson).build();
+    }
+
+    private FocusConfigChangeEntity change(long revision, String type, String item, String selector) {
+        return FocusConfigChangeEntity.builder()
+                .userId(userId)
+                .revision(revision)
+                .type(FocusConfigChangeType.valueOf(type))
+                .item(item)
+                .selector(selector)
+                .build();
+    }
+}
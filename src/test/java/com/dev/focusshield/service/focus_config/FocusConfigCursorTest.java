@@ -0,0 +1,34 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.exceptions.FocusShieldErrorCode;
+import com.dev.focusshield.exceptions.FocusShieldException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FocusConfigCursorTest {
+
+    @Test
+    void shouldRoundTripThroughAnOpaqueToken() {
+        FocusConfigCursor cursor = new FocusConfigCursor(LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_793_000), UUID.randomUUID());
+
+        String token = cursor.encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(FocusConfigCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void shouldRejectForgedTokens() {
+        for (String token : new String[]{"not base64!", "AAAA", ""}) {
+            assertThatThrownBy(() -> FocusConfigCursor.decode(token))
+                    .isInstanceOf(FocusShieldException.class)
+                    .extracting(e -> ((FocusShieldException) e).getError())
+                    .isEqualTo(FocusShieldErrorCode.DATA_ERROR_INVALID_CURSOR);
+        }
+    }
+}
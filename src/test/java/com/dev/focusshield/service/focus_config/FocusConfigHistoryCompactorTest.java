@@ -0,0 +1,82 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.entities.FocusConfigEntity;
+import com.dev.focusshield.entities.FocusConfigHistoryEntity;
+import com.dev.focusshield.repositories.FocusConfigCurrentRepository;
+import com.dev.focusshield.repositories.FocusConfigHistoryRepository;
+import com.dev.focusshield.repositories.FocusConfigRepository;
+import com.dev.focusshield.utils.GzipUtil;
+import com.dev.focusshield.utils.mappers.FocusConfigMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class FocusConfigHistoryCompactorTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final LocalDateTime cutoff = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private final FocusConfigRepository focusConfigRepository = mock(FocusConfigRepository.class);
+    private final FocusConfigHistoryRepository historyRepository = mock(FocusConfigHistoryRepository.class);
+    private final FocusConfigCurrentRepository currentRepository = mock(FocusConfigCurrentRepository.class);
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final FocusConfigHistoryCompactor compactor = new FocusConfigHistoryCompactor(
+            focusConfigRepository, historyRepository, currentRepository, FocusConfigMapper.INSTANCE, objectMapper,
+            mock(TransactionTemplate.class), Duration.ofDays(30), 100, 50);
+
+    @Test
+    void shouldFoldOldVersionsIntoOneCompressedSnapshot() throws Exception {
+        FocusConfigEntity first = config(LocalDateTime.of(2025, 1, 1, 8, 0), 1L);
+        FocusConfigEntity second = config(LocalDateTime.of(2025, 2, 1, 8, 0), 2L);
+        when(focusConfigRepository.findInactiveBefore(eq(userId), eq(cutoff), any())).thenReturn(List.of(first, second));
+        when(focusConfigRepository.deleteInactive(List.of(first.getId(), second.getId()))).thenReturn(2);
+
+        assertThat(compactor.foldBatch(userId, cutoff)).isEqualTo(2);
+
+        ArgumentCaptor<FocusConfigHistoryEntity> history = ArgumentCaptor.forClass(FocusConfigHistoryEntity.class);
+        verify(historyRepository).save(history.capture());
+        assertThat(history.getValue().getConfigCount()).isEqualTo(2);
+        assertThat(history.getValue().getFirstSavedAt()).isEqualTo(first.getSavedAt());
+        assertThat(history.getValue().getLastSavedAt()).isEqualTo(second.getSavedAt());
+
+        JsonNode snapshot = objectMapper.readTree(GzipUtil.gunzip(history.getValue().getSnapshot()));
+        assertThat(snapshot).hasSize(2);
+        assertThat(snapshot.get(1).get("versionNumber").asLong()).isEqualTo(2L);
+        assertThat(snapshot.get(1).get("blockedSites").get(0).asText()).isEqualTo("youtube.com");
+        // La liste a changé : son ETag aussi
+        verify(currentRepository).incrementRevision(userId, null);
+    }
+
+    @Test
+    void shouldGiveUpWhenAnotherNodeAlreadyRemovedPartOfTheBatch() {
+        FocusConfigEntity config = config(LocalDateTime.of(2025, 1, 1, 8, 0), 1L);
+        when(focusConfigRepository.findInactiveBefore(eq(userId), eq(cutoff), any())).thenReturn(List.of(config));
+        when(focusConfigRepository.deleteInactive(List.of(config.getId()))).thenReturn(0);
+
+        assertThat(compactor.foldBatch(userId, cutoff)).isEqualTo(-1);
+        verify(historyRepository, never()).save(any());
+        verify(currentRepository, never()).incrementRevision(any(), any());
+    }
+
+    private static FocusConfigEntity config(LocalDateTime savedAt, Long versionNumber) {
+        return FocusConfigEntity.builder()
+                .id(UUID.randomUUID())
+                .savedAt(savedAt)
+                .versionNumber(versionNumber)
+                .blockedSites(List.of("youtube.com"))
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.entities.FocusConfigEntity;
+import com.dev.focusshield.exceptions.FocusShieldConflictException;
+import com.dev.focusshield.exceptions.FocusShieldException;
+import com.dev.focusshield.model.FocusConfigPatch;
+import com.dev.focusshield.model.JsonPatchOperation;
+import com.dev.focusshield.utils.mappers.FocusConfigMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FocusConfigPatcherTest {
+
+    private final FocusConfigPatcher patcher = new FocusConfigPatcher(FocusConfigMapper.INSTANCE);
+
+    private final FocusConfigEntity base = FocusConfigEntity.builder()
+            .blockedSites(List.of("youtube.com", "twitter.com", "reddit.com"))
+            .customSelectorsJson("{\"youtube.com\":\"#comments\"}")
+            .durationMinutes(25)
+            .pauseStartTime(LocalTime.of(12, 0))
+            .build();
+
+    @Test
+    void setDiffShouldAddAndRemoveSitesAndSelectors() {
+        FocusConfigEntity next = patcher.apply(base, new FocusConfigPatch()
+                .addSites(List.of("news.com", "youtube.com"))
+                .removeSites(List.of("twitter.com"))
+                .setSelectors(Map.of("reddit.com", ".sidebar"))
+                .removeSelectors(List.of("youtube.com"))
+                .durationMinutes(50));
+
+        assertThat(next.getBlockedSites()).containsExactly("youtube.com", "reddit.com", "news.com");
+        assertThat(FocusConfigMapper.INSTANCE.jsonStringToMap(next.getCustomSelectorsJson()))
+                .containsExactly(Map.entry("reddit.com", ".sidebar"));
+        assertThat(next.getDurationMinutes()).isEqualTo(50);
+        assertThat(next.getPauseStartTime()).isEqualTo(LocalTime.of(12, 0));
+        assertThat(base.getBlockedSites()).containsExactly("youtube.com", "twitter.com", "reddit.com");
+    }
+
+    @Test
+    void jsonPatchShouldApplyOperationsInOrder() {
+        FocusConfigEntity next = patcher.apply(base, List.of(
+                op("test", "/blockedSites/1", "twitter.com"),
+                op("remove", "/blockedSites/1", null),
+                op("add", "/blockedSites/-", "news.com"),
+                op("replace", "/blockedSites/0", "m.youtube.com"),
+                op("add", "/customSelectors/a~1b.com", ".feed"),
+                op("remove", "/customSelectors/youtube.com", null),
+                op("replace", "/durationMinutes", 45),
+                op("remove", "/pauseStartTime", null)));
+
+        assertThat(next.getBlockedSites()).containsExactly("m.youtube.com", "reddit.com", "news.com");
+        assertThat(FocusConfigMapper.INSTANCE.jsonStringToMap(next.getCustomSelectorsJson()))
+                .containsExactly(Map.entry("a/b.com", ".feed"));
+        assertThat(next.getDurationMinutes()).isEqualTo(45);
+        assertThat(next.getPauseStartTime()).isNull();
+    }
+
+    @Test
+    void failedTestShouldConflict() {
+        assertThatThrownBy(() -> patcher.apply(base, List.of(op("test", "/blockedSites/0", "twitter.com"))))
+                .isInstanceOf(FocusShieldConflictException.class);
+    }
+
+    @Test
+    void invalidOperationsShouldBeRejected() {
+        assertThatThrownBy(() -> patcher.apply(base, List.of(op("remove", "/blockedSites/3", null))))
+                .isInstanceOf(FocusShieldException.class);
+        assertThatThrownBy(() -> patcher.apply(base, List.of(op("move", "/blockedSites/0", null))))
+                .isInstanceOf(FocusShieldException.class);
+        assertThatThrownBy(() -> patcher.apply(base, List.of(op("replace", "/user", "x"))))
+                .isInstanceOf(FocusShieldException.class);
+        assertThatThrownBy(() -> patcher.apply(base, List.of(op("replace", "/customSelectors/missing.com", "x"))))
+                .isInstanceOf(FocusShieldException.class);
+        assertThatThrownBy(() -> patcher.apply(base, List.of(op("add", "/blockedSites/-", 12))))
+                .isInstanceOf(FocusShieldException.class);
+    }
+
+    private static JsonPatchOperation op(String op, String path, Object value) {
+        return new JsonPatchOperation().op(op).path(path).value(value);
+    }
+}
@@ -0,0 +1,210 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.config.UserIdResolver;
+import com.dev.focusshield.entities.FocusConfigCurrentEntity;
+import com.dev.focusshield.entities.FocusConfigEntity;
+import com.dev.focusshield.entities.FocusConfigHistoryEntity;
+import com.dev.focusshield.exceptions.FocusShieldConflictException;
+import com.dev.focusshield.exceptions.FocusShieldPreconditionFailedException;
+import com.dev.focusshield.model.FocusConfig;
+import com.dev.focusshield.model.FocusConfigPatch;
+import com.dev.focusshield.model.FocusConfigRequest;
+import com.dev.focusshield.repositories.FocusConfigCurrentRepository;
+import com.dev.focusshield.repositories.FocusConfigHistoryRepository;
+import com.dev.focusshield.repositories.FocusConfigRepository;
+import com.dev.focusshield.repositories.UserRepository;
+import com.dev.focusshield.utils.GzipUtil;
+import com.dev.focusshield.utils.mappers.FocusConfigMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+class FocusConfigServiceImplTest {
+
+    private final UUID userId = UUID.randomUUID();
+
+    private final FocusConfigRepository focusConfigRepository = mock(FocusConfigRepository.class);
+    private final FocusConfigCurrentRepository currentRepository = mock(FocusConfigCurrentRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserIdResolver userIdResolver = mock(UserIdResolver.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final FocusConfigHistoryRepository historyRepository = mock(FocusConfigHistoryRepository.class);
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final FocusConfigServiceImpl service = new FocusConfigServiceImpl(
+            focusConfigRepository, currentRepository, userRepository, FocusConfigMapper.INSTANCE, mock(FocusConfigChangeLog.class),
+            new FocusConfigPatcher(FocusConfigMapper.INSTANCE), userIdResolver, eventPublisher, historyRepository, objectMapper);
+
+    @BeforeEach
+    void setUp() {
+        when(userIdResolver.currentUserId()).thenReturn(userId);
+    }
+
+    @Test
+    void saveShouldMoveTheCurrentPointerToTheNewConfig() {
+        // Pas encore de pointeur : aucune ligne réservée par le premier UPDATE conditionnel, le pointeur est créé
+        when(currentRepository.incrementRevision(userId, null)).thenReturn(0, 1);
+        when(currentRepository.findById(userId)).thenReturn(Optional.of(new FocusConfigCurrentEntity(userId, null, 1, 0, null)));
+
+        assertThat(service.saveFocusConfiguration(new FocusConfigRequest().durationMinutes(25), null)).isEqualTo(1);
+
+        InOrder inOrder = inOrder(currentRepository);
+        inOrder.verify(currentRepository).incrementRevision(userId, null);
+        inOrder.verify(currentRepository).insertIfAbsent(eq(userId), any());
+        inOrder.verify(currentRepository).incrementRevision(userId, null);
+        ArgumentCaptor<FocusConfigCurrentEntity> pointer = ArgumentCaptor.forClass(FocusConfigCurrentEntity.class);
+        verify(currentRepository).save(pointer.capture());
+        assertThat(pointer.getValue().getUserId()).isEqualTo(userId);
+        assertThat(pointer.getValue().getConfig().getDurationMinutes()).isEqualTo(25);
+        assertThat(pointer.getValue().getRevision()).isEqualTo(1);
+        verify(eventPublisher).publishEvent(new FocusConfigChangedEvent(userId, 1));
+    }
+
+    @Test
+    void conditionalWriteShouldNotCreateAMissingPointer() {
+        assertThatThrownBy(() -> service.saveFocusConfiguration(new FocusConfigRequest().durationMinutes(25), 1L))
+                .isInstanceOf(FocusShieldPreconditionFailedException.class);
+
+        verify(currentRepository, never()).insertIfAbsent(any(), any());
+    }
+
+    @Test
+    void saveShouldNumberTheVersionAndDeactivateThePreviousOne() {
+        FocusConfigEntity previous = config();
+        FocusConfigCurrentEntity pointer = claimed(previous, 5, null);
+
+        service.saveFocusConfiguration(new FocusConfigRequest().durationMinutes(25), null);
+
+        assertThat(previous.isActive()).isFalse();
+        assertThat(pointer.getConfig().isActive()).isTrue();
+        assertThat(pointer.getConfig().getVersionNumber()).isEqualTo(5L);
+        assertThat(pointer.getRevision()).isEqualTo(5);
+    }
+
+    @Test
+    void patchShouldSaveANewVersionFromTheCurrentOne() {
+        FocusConfigEntity current = config();
+        current.setBlockedSites(List.of("a.com", "b.com"));
+        FocusConfigCurrentEntity pointer = claimed(current, 3, 2L);
+        when(focusConfigRepository.findByIdAndUserId(current.getId(), userId)).thenReturn(Optional.of(current));
+
+        service.patchFocusConfig(current.getId(), new FocusConfigPatch().addSites(List.of("c.com")).removeSites(List.of("a.com")), 2L);
+
+        assertThat(pointer.getConfig()).isNotSameAs(current);
+        assertThat(pointer.getConfig().getBlockedSites()).containsExactly("b.com", "c.com");
+        assertThat(pointer.getConfig().getVersionNumber()).isEqualTo(3L);
+        assertThat(current.getBlockedSites()).containsExactly("a.com", "b.com");
+        assertThat(current.isActive()).isFalse();
+    }
+
+    @Test
+    void patchShouldBeRejectedWhenTheConfigIsNoLongerCurrent() {
+        FocusConfigEntity old = config();
+        when(focusConfigRepository.findByIdAndUserId(old.getId(), userId)).thenReturn(Optional.of(old));
+        claimed(config(), 3, null);
+
+        assertThatThrownBy(() -> service.patchFocusConfig(old.getId(), new FocusConfigPatch().addSites(List.of("c.com")), null))
+                .isInstanceOf(FocusShieldConflictException.class);
+        verify(focusConfigRepository, never()).save(any());
+    }
+
+    @Test
+    void writesShouldBeRejectedWhenIfMatchIsStale() {
+        when(currentRepository.incrementRevision(userId, 7L)).thenReturn(0);
+
+        assertThatThrownBy(() -> service.saveFocusConfiguration(new FocusConfigRequest().durationMinutes(25), 7L))
+                .isInstanceOf(FocusShieldPreconditionFailedException.class);
+        assertThatThrownBy(() -> service.deleteFocusConfig(UUID.randomUUID(), 7L))
+                .isInstanceOf(FocusShieldPreconditionFailedException.class);
+        verify(focusConfigRepository, never()).save(any());
+        verify(currentRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void latestShouldBeAPointerLookup() {
+        FocusConfigEntity current = config();
+        when(currentRepository.findConfigByUserId(userId)).thenReturn(Optional.of(current));
+
+        assertThat(service.getLatestFocusConfiguration().getId()).isEqualTo(current.getId());
+        verify(focusConfigRepository, never()).findTopByUserIdAndActiveOrderBySavedAtDesc(any(), anyBoolean());
+    }
+
+    @Test
+    void deletingTheCurrentConfigShouldFallBackToThePreviousOne() {
+        FocusConfigEntity current = config();
+        FocusConfigEntity previous = config();
+        previous.setActive(false);
+        FocusConfigCurrentEntity pointer = claimed(current, 2, null);
+        when(focusConfigRepository.findByIdAndUserId(current.getId(), userId)).thenReturn(Optional.of(current));
+        when(focusConfigRepository.findTopByUserIdAndIdNotOrderBySavedAtDesc(userId, current.getId()))
+                .thenReturn(Optional.of(previous));
+
+        service.deleteFocusConfig(current.getId(), null);
+
+        assertThat(pointer.getConfig()).isSameAs(previous);
+        assertThat(previous.isActive()).isTrue();
+        verify(focusConfigRepository).delete(current);
+    }
+
+    @Test
+    void deletingTheLastConfigShouldClearThePointerAndBumpTheRevision() {
+        FocusConfigEntity current = config();
+        FocusConfigCurrentEntity pointer = claimed(current, 4, 3L);
+        when(focusConfigRepository.findByIdAndUserId(current.getId(), userId)).thenReturn(Optional.of(current));
+        when(focusConfigRepository.findTopByUserIdAndIdNotOrderBySavedAtDesc(userId, current.getId()))
+                .thenReturn(Optional.empty());
+
+        service.deleteFocusConfig(current.getId(), 3L);
+
+        assertThat(pointer.getConfig()).isNull();
+        verify(currentRepository).incrementRevision(userId, 3L);
+        verify(eventPublisher).publishEvent(new FocusConfigChangedEvent(userId, 4));
+        verify(focusConfigRepository).delete(current);
+    }
+
+    @Test
+    void compactedHistoryShouldListTheMostRecentVersionsFirst() throws Exception {
+        // Blocs du plus récent au plus ancien, chacun rangé du plus ancien au plus récent
+        when(historyRepository.findByUserIdOrderByLastSavedAtDesc(userId, Limit.of(3))).thenReturn(List.of(
+                history(new FocusConfig().versionNumber(3L), new FocusConfig().versionNumber(4L)),
+                history(new FocusConfig().versionNumber(1L), new FocusConfig().versionNumber(2L))));
+
+        assertThat(service.getCompactedHistory(3)).extracting(FocusConfig::getVersionNumber).containsExactly(4L, 3L, 2L);
+    }
+
+    private FocusConfigHistoryEntity history(FocusConfig... configs) throws Exception {
+        return FocusConfigHistoryEntity.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .snapshot(GzipUtil.gzip(objectMapper.writeValueAsBytes(List.of(configs))))
+                .build();
+    }
+
+    // Pointeur tel que relu après l'UPDATE conditionnel : il porte déjà la révision réservée
+    private FocusConfigCurrentEntity claimed(FocusConfigEntity config, long revision, Long expected) {
+        FocusConfigCurrentEntity pointer = new FocusConfigCurrentEntity(userId, config, revision, 0, null);
+        when(currentRepository.incrementRevision(userId, expected)).thenReturn(1);
+        when(currentRepository.findById(userId)).thenReturn(Optional.of(pointer));
+        return pointer;
+    }
+
+    private static FocusConfigEntity config() {
+        return FocusConfigEntity.builder().id(UUID.randomUUID()).active(true).build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.config.UserIdResolver;
+import com.dev.focusshield.entities.AccountStatus;
+import com.dev.focusshield.entities.UserEntity;
+import com.dev.focusshield.model.FocusConfig;
+import com.dev.focusshield.model.FocusConfigPatch;
+import com.dev.focusshield.model.FocusConfigRequest;
+import com.dev.focusshield.repositories.FocusConfigCurrentRepository;
+import com.dev.focusshield.repositories.FocusConfigRepository;
+import com.dev.focusshield.utils.mappers.FocusConfigMapperImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Écritures successives dans un même contexte de persistance, comme une requête (open-in-view) qui écrit d'abord
+ * l'enregistrement en attente de l'utilisateur puis fait sa propre écriture : le pointeur déjà chargé ne doit pas
+ * masquer la révision réservée par l'UPDATE conditionnel.
+ */
+@DataJpaTest
+@Import({FocusConfigServiceImpl.class, FocusConfigChangeLog.class, FocusConfigPatcher.class, FocusConfigMapperImpl.class,
+        JacksonAutoConfiguration.class})
+class FocusConfigServiceJpaTest {
+
+    @Autowired
+    private FocusConfigService focusConfigService;
+
+    @Autowired
+    private FocusConfigRepository focusConfigRepository;
+
+    @Autowired
+    private FocusConfigCurrentRepository currentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private UserIdResolver userIdResolver;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        user = UserEntity.builder()
+                .username("user-" + UUID.randomUUID().toString().substring(0, 8))
+                .email(UUID.randomUUID() + "@focusshield.com")
+                .password("hash")
+                .status(AccountStatus.VALIDATED)
+                .build();
+        entityManager.persist(user);
+        when(userIdResolver.currentUserId()).thenReturn(user.getId());
+    }
+
+    @Test
+    void patchAfterAFlushedSaveShouldClaimTheNextRevision() {
+        // Ce que fait FocusConfigWriteBuffer.flush avant la lecture du PATCH
+        focusConfigService.saveFocusConfiguration(user.getId(), new FocusConfigRequest().blockedSites(List.of("a.com")));
+        FocusConfig current = focusConfigService.getLatestFocusConfiguration();
+
+        FocusConfig patched = focusConfigService.patchFocusConfig(current.getId(),
+                new FocusConfigPatch().addSites(List.of("b.com")), 1L);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(patched.getVersionNumber()).isEqualTo(2L);
+        assertThat(patched.getBlockedSites()).containsExactly("a.com", "b.com");
+        assertThat(currentRepository.findRevisionByUserId(user.getId())).contains(2L);
+    }
+
+    @Test
+    void deleteAfterAFlushedSaveShouldNotWriteBackAnOlderRevision() {
+        focusConfigService.saveFocusConfiguration(user.getId(), new FocusConfigRequest().blockedSites(List.of("a.com")));
+        focusConfigService.saveFocusConfiguration(user.getId(), new FocusConfigRequest().blockedSites(List.of("b.com")));
+        FocusConfig current = focusConfigService.getLatestFocusConfiguration();
+
+        focusConfigService.deleteFocusConfig(current.getId(), 2L);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(currentRepository.findRevisionByUserId(user.getId())).contains(3L);
+        assertThat(focusConfigService.getLatestFocusConfiguration().getBlockedSites()).containsExactly("a.com");
+        assertThat(focusConfigRepository.findById(current.getId())).isEmpty();
+    }
+}
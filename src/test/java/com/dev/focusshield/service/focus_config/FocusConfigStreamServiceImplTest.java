@@ -0,0 +1,185 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.config.AccessRevokedEvent;
+import com.dev.focusshield.config.AuthenticatedUser;
+import com.dev.focusshield.config.FocusConfigStreamProperties;
+import com.dev.focusshield.config.UserIdResolver;
+import com.dev.focusshield.controller.focus_config.FocusConfigController;
+import com.dev.focusshield.model.FocusConfig;
+import com.dev.focusshield.repositories.FocusConfigCurrentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class FocusConfigStreamServiceImplTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final FocusConfigService focusConfigService = mock(FocusConfigService.class);
+    private final UserIdResolver userIdResolver = mock(UserIdResolver.class);
+    private final FocusConfigStreamProperties properties = new FocusConfigStreamProperties();
+
+    private final FocusConfigStreamServiceImpl streamService = new FocusConfigStreamServiceImpl(
+            focusConfigService, mock(FocusConfigCurrentRepository.class), userIdResolver, properties, 10_000L,
+            new SimpleMeterRegistry());
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new FocusConfigController(focusConfigService, streamService, mock(FocusConfigResponseCache.class), mock(FocusConfigWriteBuffer.class)))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        streamService.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldSendCurrentConfigThenPushCommittedChanges() throws Exception {
+        when(userIdResolver.currentUserId()).thenReturn(userId);
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.of(3L));
+        when(focusConfigService.getCurrentConfig(userId)).thenReturn(Optional.of(new FocusConfig().durationMinutes(25)));
+
+        MockHttpServletResponse response = mockMvc.perform(get("/focus-config/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        awaitContent(response, "id:3");
+
+        when(focusConfigService.getCurrentConfig(userId)).thenReturn(Optional.empty());
+        streamService.onConfigChanged(new FocusConfigChangedEvent(userId, 4));
+        streamService.onConfigChanged(new FocusConfigChangedEvent(userId, 4)); // déjà diffusée : ignorée
+
+        awaitContent(response, "event:" + FocusConfigStreamServiceImpl.CLEARED_EVENT);
+        assertThat(response.getContentAsString()).contains("\"durationMinutes\":25");
+        assertThat(response.getContentAsString().split("id:4", -1)).hasSize(2);
+        assertThat(streamService.connectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void aRevisionDroppedByAFullSenderQueueShouldBePublishedAgain() throws Exception {
+        // Un seul thread d'envoi et une file de 2 tâches
+        properties.setSenderThreads(1);
+        properties.setMaxConnections(1);
+        FocusConfigStreamServiceImpl saturated = new FocusConfigStreamServiceImpl(
+                focusConfigService, mock(FocusConfigCurrentRepository.class), userIdResolver, properties, 10_000L,
+                new SimpleMeterRegistry());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userIdResolver.currentUserId()).thenReturn(userId);
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.empty());
+        when(focusConfigService.getCurrentConfig(userId)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(2, TimeUnit.SECONDS);
+            return Optional.of(new FocusConfig().durationMinutes(25));
+        });
+        try {
+            MockHttpServletResponse response = MockMvcBuilders
+                    .standaloneSetup(new FocusConfigController(focusConfigService, saturated, mock(FocusConfigResponseCache.class), mock(FocusConfigWriteBuffer.class)))
+                    .build()
+                    .perform(get("/focus-config/stream"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn().getResponse();
+
+            saturated.onConfigChanged(new FocusConfigChangedEvent(userId, 4));
+            assertThat(loading.await(2, TimeUnit.SECONDS)).isTrue();
+            saturated.onConfigChanged(new FocusConfigChangedEvent(userId, 5));
+            saturated.onConfigChanged(new FocusConfigChangedEvent(userId, 6));
+            saturated.onConfigChanged(new FocusConfigChangedEvent(userId, 7)); // file pleine : rejetée
+            release.countDown();
+            awaitContent(response, "id:6");
+
+            saturated.onConfigChanged(new FocusConfigChangedEvent(userId, 7)); // comme le ferait refresh()
+
+            awaitContent(response, "id:7");
+        } finally {
+            saturated.shutdown();
+        }
+    }
+
+    @Test
+    void shouldNotResendWhatAReconnectingClientAlreadyHas() throws Exception {
+        when(userIdResolver.currentUserId()).thenReturn(userId);
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.of(3L));
+
+        MockHttpServletResponse response = mockMvc.perform(get("/focus-config/stream").header("Last-Event-ID", "3"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        properties.setHeartbeatInterval(java.time.Duration.ZERO);
+        streamService.sendHeartbeats();
+        awaitContent(response, ":heartbeat");
+        assertThat(response.getContentAsString()).doesNotContain("id:");
+    }
+
+    @Test
+    void shouldCloseOldestStreamsBeyondThePerUserLimit() {
+        properties.setMaxPerUser(2);
+        when(userIdResolver.currentUserId()).thenReturn(userId);
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.empty());
+
+        streamService.subscribe(null);
+        streamService.subscribe(null);
+        streamService.subscribe(null);
+
+        assertThat(streamService.connectionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void streamShouldNotOutliveTheAccessToken() {
+        authenticate(UUID.randomUUID(), "jti-1", System.currentTimeMillis() + 5_000);
+        when(userIdResolver.currentUserId()).thenReturn(userId);
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.empty());
+
+        SseEmitter emitter = streamService.subscribe(null);
+
+        assertThat(emitter.getTimeout()).isPositive().isLessThanOrEqualTo(5_000L);
+    }
+
+    @Test
+    void blockingTheUserOrRevokingTheTokenShouldCloseTheirStreams() {
+        UUID universalId = UUID.randomUUID();
+        when(userIdResolver.currentUserId()).thenReturn(userId);
+        when(focusConfigService.getConfigRevision()).thenReturn(Optional.empty());
+        authenticate(universalId, "jti-1", System.currentTimeMillis() + 60_000);
+        streamService.subscribe(null);
+        authenticate(universalId, "jti-2", System.currentTimeMillis() + 60_000);
+        streamService.subscribe(null);
+
+        streamService.onAccessRevoked(new AccessRevokedEvent(null, "jti-1"));
+        assertThat(streamService.connectionCount()).isEqualTo(1);
+        streamService.onAccessRevoked(new AccessRevokedEvent(UUID.randomUUID(), "other"));
+        assertThat(streamService.connectionCount()).isEqualTo(1);
+        streamService.onAccessRevoked(new AccessRevokedEvent(universalId, null));
+        assertThat(streamService.connectionCount()).isZero();
+    }
+
+    private static void authenticate(UUID universalId, String tokenId, long expiresAtMillis) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(universalId, tokenId, expiresAtMillis), null, List.of()));
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected)
+            throws InterruptedException, UnsupportedEncodingException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (!response.getContentAsString().contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(response.getContentAsString()).contains(expected);
+    }
+}
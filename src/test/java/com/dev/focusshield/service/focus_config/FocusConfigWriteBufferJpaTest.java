@@ -0,0 +1,120 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.config.UserIdResolver;
+import com.dev.focusshield.entities.AccountStatus;
+import com.dev.focusshield.entities.UserEntity;
+import com.dev.focusshield.model.FocusConfig;
+import com.dev.focusshield.model.FocusConfigPatch;
+import com.dev.focusshield.model.FocusConfigRequest;
+import com.dev.focusshield.repositories.FocusConfigCurrentRepository;
+import com.dev.focusshield.utils.mappers.FocusConfigMapperImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Write-behind activé, sans transaction de test : chaque test lie un EntityManager comme le fait open-in-view pour
+ * une requête, puis enchaîne l'écriture de ce qui est en attente et l'écriture propre à la requête.
+ */
+@DataJpaTest(properties = {"focus-config.write-behind.enabled=true", "focus-config.write-behind.window=1h"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({FocusConfigWriteBuffer.class, FocusConfigServiceImpl.class, FocusConfigChangeLog.class, FocusConfigPatcher.class,
+        FocusConfigMapperImpl.class, JacksonAutoConfiguration.class, SimpleMeterRegistry.class})
+class FocusConfigWriteBufferJpaTest {
+
+    @Autowired
+    private FocusConfigWriteBuffer writeBuffer;
+
+    @Autowired
+    private FocusConfigService focusConfigService;
+
+    @Autowired
+    private FocusConfigCurrentRepository currentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private UserIdResolver userIdResolver;
+
+    private UUID userId;
+
+    private EntityManager requestEntityManager;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity user = UserEntity.builder()
+                .username("user-" + UUID.randomUUID().toString().substring(0, 8))
+                .email(UUID.randomUUID() + "@focusshield.com")
+                .password("hash")
+                .status(AccountStatus.VALIDATED)
+                .build();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> entityManager.persist(user));
+        userId = user.getId();
+        when(userIdResolver.currentUserId()).thenReturn(userId);
+
+        // Ce que fait OpenEntityManagerInViewInterceptor au début de la requête
+        requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        requestEntityManager.close();
+    }
+
+    @Test
+    void patchAfterTheBufferedSaveIsFlushedShouldClaimTheNextRevision() {
+        assertThat(writeBuffer.offer(new FocusConfigRequest().blockedSites(List.of("a.com")))).isTrue();
+
+        writeBuffer.flushCurrentUser();
+        FocusConfig current = focusConfigService.getLatestFocusConfiguration();
+        FocusConfig patched = focusConfigService.patchFocusConfig(current.getId(),
+                new FocusConfigPatch().addSites(List.of("b.com")), 1L);
+
+        assertThat(patched.getVersionNumber()).isEqualTo(2L);
+        assertThat(patched.getBlockedSites()).containsExactly("a.com", "b.com");
+        assertThat(currentRepository.findRevisionByUserId(userId)).contains(2L);
+    }
+
+    @Test
+    void deleteAfterTheBufferedSaveIsFlushedShouldNotWriteBackAnOlderRevision() {
+        focusConfigService.saveFocusConfiguration(userId, new FocusConfigRequest().blockedSites(List.of("a.com")));
+        assertThat(writeBuffer.offer(new FocusConfigRequest().blockedSites(List.of("b.com")))).isTrue();
+
+        writeBuffer.flushCurrentUser();
+        FocusConfig current = focusConfigService.getLatestFocusConfiguration();
+        focusConfigService.deleteFocusConfig(current.getId(), 2L);
+
+        assertThat(writeBuffer.pendingCount()).isZero();
+        assertThat(currentRepository.findRevisionByUserId(userId)).contains(3L);
+        assertThat(focusConfigService.getLatestFocusConfiguration().getBlockedSites()).containsExactly("a.com");
+    }
+}
@@ -0,0 +1,151 @@
+package com.dev.focusshield.service.focus_config;
+
+import com.dev.focusshield.config.UserIdResolver;
+import com.dev.focusshield.exceptions.InvalidTimeFormatException;
+import com.dev.focusshield.model.FocusConfigRequest;
+import com.dev.focusshield.utils.mappers.FocusConfigMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class FocusConfigWriteBufferTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final FocusConfigService focusConfigService = mock(FocusConfigService.class);
+    private final UserIdResolver userIdResolver = mock(UserIdResolver.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        when(userIdResolver.currentUserId()).thenReturn(userId);
+    }
+
+    @Test
+    void burstOfSavesShouldBeWrittenOnceWithTheLastConfig() {
+        FocusConfigWriteBuffer buffer = buffer(true, Duration.ZERO);
+        FocusConfigRequest last = new FocusConfigRequest().durationMinutes(30);
+
+        assertThat(buffer.offer(new FocusConfigRequest().durationMinutes(10))).isTrue();
+        assertThat(buffer.offer(new FocusConfigRequest().durationMinutes(20))).isTrue();
+        assertThat(buffer.offer(last)).isTrue();
+        verifyNoInteractions(focusConfigService);
+
+        buffer.flushDue();
+
+        verify(focusConfigService).saveFocusConfiguration(userId, last);
+        verifyNoMoreInteractions(focusConfigService);
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void savesShouldWaitForTheWindow() {
+        FocusConfigWriteBuffer buffer = buffer(true, Duration.ofHours(1));
+        buffer.offer(new FocusConfigRequest().durationMinutes(10));
+
+        buffer.flushDue();
+
+        verifyNoInteractions(focusConfigService);
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void readsShouldFlushTheUsersPendingSaveFirst() {
+        FocusConfigWriteBuffer buffer = buffer(true, Duration.ofHours(1));
+        FocusConfigRequest request = new FocusConfigRequest().durationMinutes(10);
+        buffer.offer(request);
+
+        buffer.flushCurrentUser();
+
+        verify(focusConfigService).saveFocusConfiguration(userId, request);
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void shutdownShouldFlushEverything() {
+        FocusConfigWriteBuffer buffer = buffer(true, Duration.ofHours(1));
+        buffer.offer(new FocusConfigRequest().durationMinutes(10));
+
+        buffer.flushAll();
+
+        verify(focusConfigService).saveFocusConfiguration(eq(userId), any());
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void shutdownShouldRetryAFailedSave() {
+        FocusConfigWriteBuffer buffer = buffer(true, Duration.ofHours(1));
+        FocusConfigRequest request = new FocusConfigRequest().durationMinutes(10);
+        doThrow(new IllegalStateException("db down")).doNothing().when(focusConfigService).saveFocusConfiguration(userId, request);
+        buffer.offer(request);
+
+        buffer.flushAll();
+
+        verify(focusConfigService, times(2)).saveFocusConfiguration(userId, request);
+        assertThat(buffer.pendingCount()).isZero();
+        assertThat(droppedSaves()).isZero();
+    }
+
+    @Test
+    void shutdownShouldCountTheSavesItCouldNotWrite() {
+        FocusConfigWriteBuffer buffer = buffer(true, Duration.ofHours(1));
+        doThrow(new IllegalStateException("db down")).when(focusConfigService).saveFocusConfiguration(eq(userId), any());
+        buffer.offer(new FocusConfigRequest().durationMinutes(10));
+
+        buffer.flushAll();
+
+        verify(focusConfigService, times(3)).saveFocusConfiguration(eq(userId), any());
+        assertThat(buffer.pendingCount()).isZero();
+        assertThat(droppedSaves()).isEqualTo(1);
+    }
+
+    @Test
+    void failedFlushShouldBeRetriedThenDropped() {
+        FocusConfigWriteBuffer buffer = buffer(true, Duration.ZERO);
+        doThrow(new IllegalStateException("db down")).when(focusConfigService).saveFocusConfiguration(eq(userId), any());
+        buffer.offer(new FocusConfigRequest().durationMinutes(10));
+
+        buffer.flushDue();
+        buffer.flushDue();
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+
+        buffer.flushDue();
+        assertThat(buffer.pendingCount()).isZero();
+        verify(focusConfigService, times(3)).saveFocusConfiguration(eq(userId), any());
+    }
+
+    @Test
+    void invalidConfigShouldBeRejectedRightAway() {
+        FocusConfigWriteBuffer buffer = buffer(true, Duration.ZERO);
+
+        assertThatThrownBy(() -> buffer.offer(new FocusConfigRequest().pauseStartTime("25h")))
+                .isInstanceOf(InvalidTimeFormatException.class);
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void disabledBufferShouldLetTheCallerSave() {
+        FocusConfigWriteBuffer buffer = buffer(false, Duration.ZERO);
+
+        assertThat(buffer.offer(new FocusConfigRequest())).isFalse();
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    private double droppedSaves() {
+        return meterRegistry.get("focusshield.focus_config.write_behind.saves").tag("result", "dropped").functionCounter().count();
+    }
+
+    private FocusConfigWriteBuffer buffer(boolean enabled, Duration window) {
+        return new FocusConfigWriteBuffer(focusConfigService, FocusConfigMapper.INSTANCE, userIdResolver,
+                mock(EntityManager.class), mock(PlatformTransactionManager.class), meterRegistry, enabled, window, 100);
+    }
+}
@@ -0,0 +1,160 @@
+package com.dev.focusshield.service.tokens;
+
+import com.dev.focusshield.config.AccessDenylist;
+import com.dev.focusshield.config.JwtTokenProvider;
+import com.dev.focusshield.entities.RefreshTokenEntity;
+import com.dev.focusshield.entities.UserEntity;
+import com.dev.focusshield.exceptions.FocusShieldAccessDeniedException;
+import com.dev.focusshield.exceptions.FocusShieldInvalidCredentials;
+import com.dev.focusshield.model.AuthResponse;
+import com.dev.focusshield.repositories.RefreshTokenRepository;
+import com.dev.focusshield.utils.DigestUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceImplTest {
+
+    private static final long REFRESH_TTL_MS = 7L * 24 * 3600 * 1000;
+
+    private final RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+    private final JwtTokenProvider jwtTokenProvider = mock(JwtTokenProvider.class);
+    private final AccessDenylist accessDenylist = mock(AccessDenylist.class);
+
+    private final RefreshTokenServiceImpl service =
+            new RefreshTokenServiceImpl(refreshTokenRepository, jwtTokenProvider, accessDenylist);
+
+    private final UserEntity user = user();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "refreshExpirationTime", REFRESH_TTL_MS);
+        when(jwtTokenProvider.generateToken(user)).thenReturn("access-token");
+        when(jwtTokenProvider.getExpirationTime()).thenReturn(900_000L);
+    }
+
+    @Test
+    void issueTokensShouldStoreOnlyTheHashOfTheRefreshToken() {
+        AuthResponse response = service.issueTokens(user);
+
+        ArgumentCaptor<RefreshTokenEntity> saved = ArgumentCaptor.forClass(RefreshTokenEntity.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertThat(saved.getValue().getTokenHash()).isEqualTo(DigestUtil.sha256Base64Url(response.getRefreshToken()));
+        assertThat(saved.getValue().getUser()).isSameAs(user);
+        assertThat(saved.getValue().getExpiresAt())
+                .isAfter(LocalDateTime.now().plusDays(6))
+                .isBefore(LocalDateTime.now().plusDays(8));
+        assertThat(response.getToken()).isEqualTo("access-token");
+        assertThat(response.getExpiresIn()).isEqualTo(900L);
+        assertThat(response.getUniversalId()).isEqualTo(user.getUniversalId());
+    }
+
+    @Test
+    void refreshShouldRevokeThePresentedTokenAndIssueANewPair() {
+        RefreshTokenEntity stored = stored("old", LocalDateTime.now().plusDays(1), null);
+        when(refreshTokenRepository.revokeIfActive(eq(stored.getId()), any())).thenReturn(1);
+
+        AuthResponse response = service.refresh("old");
+
+        assertThat(response.getRefreshToken()).isNotEqualTo("old");
+        verify(refreshTokenRepository).revokeIfActive(eq(stored.getId()), any());
+        verify(refreshTokenRepository).save(any(RefreshTokenEntity.class));
+        verify(refreshTokenRepository, never()).revokeAllForUser(any(), any());
+    }
+
+    @Test
+    void reusingARevokedTokenShouldRevokeEverySession() {
+        stored("stolen", LocalDateTime.now().plusDays(1), LocalDateTime.now().minusMinutes(5));
+
+        assertThatThrownBy(() -> service.refresh("stolen")).isInstanceOf(FocusShieldInvalidCredentials.class);
+
+        verify(refreshTokenRepository).revokeAllForUser(eq(user.getId()), any());
+        verify(refreshTokenRepository, never()).revokeIfActive(any(), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void losingTheRotationRaceShouldBeTreatedAsAReplay() {
+        RefreshTokenEntity stored = stored("raced", LocalDateTime.now().plusDays(1), null);
+        when(refreshTokenRepository.revokeIfActive(eq(stored.getId()), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.refresh("raced")).isInstanceOf(FocusShieldInvalidCredentials.class);
+
+        verify(refreshTokenRepository).revokeAllForUser(eq(user.getId()), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void reuseDetectionShouldNotBeRolledBackByItsOwnException() throws Exception {
+        // La révocation de toutes les sessions doit être validée alors que l'appel échoue
+        Transactional transactional = RefreshTokenServiceImpl.class.getMethod("refresh", String.class)
+                .getAnnotation(Transactional.class);
+
+        assertThat(transactional.noRollbackFor()).contains(FocusShieldInvalidCredentials.class);
+    }
+
+    @Test
+    void expiredTokenShouldBeRejectedWithoutRevokingSessions() {
+        stored("expired", LocalDateTime.now().minusMinutes(1), null);
+
+        assertThatThrownBy(() -> service.refresh("expired")).isInstanceOf(FocusShieldInvalidCredentials.class);
+
+        verify(refreshTokenRepository, never()).revokeIfActive(any(), any());
+        verify(refreshTokenRepository, never()).revokeAllForUser(any(), any());
+    }
+
+    @Test
+    void unknownTokenShouldBeRejected() {
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.refresh("unknown")).isInstanceOf(FocusShieldInvalidCredentials.class);
+
+        verify(refreshTokenRepository, never()).revokeAllForUser(any(), any());
+    }
+
+    @Test
+    void deniedUserShouldNotGetNewTokens() {
+        RefreshTokenEntity stored = stored("blocked", LocalDateTime.now().plusDays(1), null);
+        when(refreshTokenRepository.revokeIfActive(eq(stored.getId()), any())).thenReturn(1);
+        when(accessDenylist.isUserDenied(user.getUniversalId())).thenReturn(true);
+
+        assertThatThrownBy(() -> service.refresh("blocked")).isInstanceOf(FocusShieldAccessDeniedException.class);
+
+        verify(refreshTokenRepository, never()).save(any());
+        verify(jwtTokenProvider, never()).generateToken(any());
+    }
+
+    private RefreshTokenEntity stored(String token, LocalDateTime expiresAt, LocalDateTime revokedAt) {
+        RefreshTokenEntity stored = RefreshTokenEntity.builder()
+                .id(UUID.randomUUID())
+                .tokenHash(DigestUtil.sha256Base64Url(token))
+                .user(user)
+                .expiresAt(expiresAt)
+                .revokedAt(revokedAt)
+                .build();
+        when(refreshTokenRepository.findByTokenHash(DigestUtil.sha256Base64Url(token))).thenReturn(Optional.of(stored));
+        return stored;
+    }
+
+    private static UserEntity user() {
+        UserEntity user = UserEntity.builder()
+                .id(UUID.randomUUID())
+                .username("user")
+                .email("user@focusshield.com")
+                .build();
+        user.setUniversalId(UUID.randomUUID());
+        return user;
+    }
+}
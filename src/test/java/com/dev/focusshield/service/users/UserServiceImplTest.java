@@ -0,0 +1,98 @@
+package com.dev.focusshield.service.users;
+
+import com.dev.focusshield.config.AccessDenylist;
+import com.dev.focusshield.config.JwtTokenProvider;
+import com.dev.focusshield.config.UserIdResolver;
+import com.dev.focusshield.config.VerifiedToken;
+import com.dev.focusshield.entities.AccountStatus;
+import com.dev.focusshield.entities.UserEntity;
+import com.dev.focusshield.repositories.FocusConfigChangeRepository;
+import com.dev.focusshield.repositories.FocusConfigCurrentRepository;
+import com.dev.focusshield.repositories.FocusConfigHistoryRepository;
+import com.dev.focusshield.repositories.RefreshTokenRepository;
+import com.dev.focusshield.repositories.RoleRepository;
+import com.dev.focusshield.repositories.UserRepository;
+import com.dev.focusshield.service.tokens.RefreshTokenService;
+import com.dev.focusshield.utils.PasswordEncryptionUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserServiceImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private final JwtTokenProvider jwtTokenProvider = mock(JwtTokenProvider.class);
+    private final AccessDenylist accessDenylist = mock(AccessDenylist.class);
+
+    private final UserServiceImpl service = new UserServiceImpl(userRepository, mock(PasswordEncryptionUtil.class),
+            mock(RoleRepository.class), mock(RefreshTokenRepository.class), mock(FocusConfigCurrentRepository.class),
+            mock(FocusConfigChangeRepository.class), mock(FocusConfigHistoryRepository.class), refreshTokenService,
+            jwtTokenProvider, accessDenylist, mock(UserIdResolver.class));
+
+    @Test
+    void logoutShouldRevokeTheAccessTokenAndEveryRefreshToken() {
+        UserEntity user = user();
+        when(jwtTokenProvider.verify("token")).thenReturn(new VerifiedToken("jti-1", user.getUniversalId(), 0, 42L));
+        when(userRepository.findByUniversalId(user.getUniversalId())).thenReturn(Optional.of(user));
+
+        service.logout("token");
+
+        verify(accessDenylist).revokeToken("jti-1", 42L);
+        verify(refreshTokenService).revokeAll(user.getId());
+    }
+
+    @Test
+    void logoutWithAnInvalidTokenShouldDoNothing() {
+        service.logout("garbage");
+
+        verify(accessDenylist, never()).revokeToken(anyString(), anyLong());
+        verify(refreshTokenService, never()).revokeAll(any());
+    }
+
+    @Test
+    void blockingShouldDenyTheUserOnCommitAndRevokeTheirSessions() {
+        UserEntity user = user();
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        service.updateStatus(user.getId(), AccountStatus.BLOCKED);
+
+        assertThat(user.getStatus()).isEqualTo(AccountStatus.BLOCKED);
+        assertThat(user.getStatusChangedAt()).isNotNull();
+        verify(accessDenylist).applyStatusAfterCommit(user.getUniversalId(), AccountStatus.BLOCKED);
+        verify(accessDenylist, never()).applyStatus(any(), any());
+        verify(refreshTokenService).revokeAll(user.getId());
+    }
+
+    @Test
+    void unblockingShouldKeepRefreshTokens() {
+        UserEntity user = user();
+        user.setStatus(AccountStatus.BLOCKED);
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        service.updateStatus(user.getId(), AccountStatus.VALIDATED);
+
+        verify(accessDenylist).applyStatusAfterCommit(user.getUniversalId(), AccountStatus.VALIDATED);
+        verify(refreshTokenService, never()).revokeAll(any());
+    }
+
+    private static UserEntity user() {
+        UserEntity user = UserEntity.builder()
+                .id(UUID.randomUUID())
+                .username("user")
+                .email("user@focusshield.com")
+                .status(AccountStatus.VALIDATED)
+                .build();
+        user.setUniversalId(UUID.randomUUID());
+        return user;
+    }
+}
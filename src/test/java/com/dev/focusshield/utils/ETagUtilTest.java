@@ -0,0 +1,52 @@
+package com.dev.focusshield.utils;
+
+import com.dev.focusshield.exceptions.FocusShieldPreconditionFailedException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ETagUtilTest {
+
+    @Test
+    void shouldRoundTripAVersion() {
+        assertThat(ETagUtil.toETag(7L)).isEqualTo("\"7\"");
+        assertThat(ETagUtil.toETag(null)).isNull();
+        assertThat(ETagUtil.expectedVersion(ETagUtil.toETag(7L))).isEqualTo(7L);
+        assertThat(ETagUtil.expectedVersion(" \"7\", \"7\" ")).isEqualTo(7L);
+    }
+
+    @Test
+    void gzipETagShouldNameTheSameVersion() {
+        assertThat(ETagUtil.toGzipETag(7L)).isEqualTo("\"7-gz\"");
+        assertThat(ETagUtil.toGzipETag(null)).isNull();
+        assertThat(ETagUtil.expectedVersion(ETagUtil.toGzipETag(7L))).isEqualTo(7L);
+    }
+
+    @Test
+    void ifNoneMatchShouldAcceptBothEncodingsAndWeakTags() {
+        assertThat(ETagUtil.matchesVersion("\"7\"", 7L)).isTrue();
+        assertThat(ETagUtil.matchesVersion("\"6\", \"7-gz\"", 7L)).isTrue();
+        assertThat(ETagUtil.matchesVersion("W/\"7-gz\"", 7L)).isTrue();
+        assertThat(ETagUtil.matchesVersion("*", 7L)).isTrue();
+        assertThat(ETagUtil.matchesVersion("\"7\"", 8L)).isFalse();
+        assertThat(ETagUtil.matchesVersion("\"7-br\"", 7L)).isFalse();
+        assertThat(ETagUtil.matchesVersion(null, 7L)).isFalse();
+        assertThat(ETagUtil.matchesVersion("*", null)).isFalse();
+    }
+
+    @Test
+    void absentOrWildcardShouldMeanUnconditional() {
+        assertThat(ETagUtil.expectedVersion(null)).isNull();
+        assertThat(ETagUtil.expectedVersion("")).isNull();
+        assertThat(ETagUtil.expectedVersion("*")).isNull();
+    }
+
+    @Test
+    void tagsThatCannotMatchShouldFailThePrecondition() {
+        assertThatThrownBy(() -> ETagUtil.expectedVersion("W/\"7\"")).isInstanceOf(FocusShieldPreconditionFailedException.class);
+        assertThatThrownBy(() -> ETagUtil.expectedVersion("\"abc\"")).isInstanceOf(FocusShieldPreconditionFailedException.class);
+        assertThatThrownBy(() -> ETagUtil.expectedVersion("7")).isInstanceOf(FocusShieldPreconditionFailedException.class);
+        assertThatThrownBy(() -> ETagUtil.expectedVersion("\"7\", \"8\"")).isInstanceOf(FocusShieldPreconditionFailedException.class);
+    }
+}
@@ -0,0 +1,110 @@
+package com.dev.focusshield.utils;
+
+import com.dev.focusshield.config.PasswordHashingProperties;
+import com.dev.focusshield.exceptions.FocusShieldServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordEncryptionUtilTest {
+
+    @Test
+    void shouldHashAndMatchOnThePool() {
+        PasswordEncryptionUtil util = new PasswordEncryptionUtil(new BCryptPasswordEncoder(4), properties(2, 4),
+                new SimpleMeterRegistry());
+
+        String hash = util.encryptPassword("Secret123!");
+
+        assertThat(util.matches("Secret123!", hash)).isTrue();
+        assertThat(util.matches("wrong", hash)).isFalse();
+    }
+
+    @Test
+    void shouldFailFastWhenQueueIsFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordEncryptionUtil util = new PasswordEncryptionUtil(new BlockingEncoder(release), properties(1, 1),
+                meterRegistry);
+
+        CompletableFuture<String> running = util.encryptPasswordAsync("a");
+        CompletableFuture<String> queued = util.encryptPasswordAsync("b");
+        try {
+            assertThatThrownBy(() -> util.encryptPassword("c"))
+                    .isInstanceOf(FocusShieldServiceUnavailableException.class);
+            assertThat(util.encryptPasswordAsync("d")).isCompletedExceptionally();
+            assertThat(meterRegistry.get("focusshield.password.hashing.rejected").counter().count()).isEqualTo(2);
+        } finally {
+            release.countDown();
+        }
+        assertThat(running.join()).isEqualTo("hash-a");
+        assertThat(queued.join()).isEqualTo("hash-b");
+    }
+
+    @Test
+    void timedOutRequestShouldGiveItsQueueSlotBack() {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHashingProperties properties = properties(1, 1);
+        properties.setMaxWait(Duration.ofMillis(50));
+        PasswordEncryptionUtil util = new PasswordEncryptionUtil(new BlockingEncoder(release), properties,
+                new SimpleMeterRegistry());
+
+        CompletableFuture<String> running = util.encryptPasswordAsync("a");
+        try {
+            assertThatThrownBy(() -> util.encryptPassword("b"))
+                    .isInstanceOf(FocusShieldServiceUnavailableException.class);
+            // Sans retrait de la file, la tâche annulée y occuperait encore la seule place
+            assertThat(util.encryptPasswordAsync("c")).isNotCompletedExceptionally();
+        } finally {
+            release.countDown();
+        }
+        assertThat(running.join()).isEqualTo("hash-a");
+    }
+
+    @Test
+    void shouldRequestRehashOnlyForWeakerHashes() {
+        PasswordEncryptionUtil util = new PasswordEncryptionUtil(new BCryptPasswordEncoder(5), properties(1, 1),
+                new SimpleMeterRegistry());
+
+        assertThat(util.needsRehash(new BCryptPasswordEncoder(4).encode("Secret123!"))).isTrue();
+        assertThat(util.needsRehash(new BCryptPasswordEncoder(5).encode("Secret123!"))).isFalse();
+    }
+
+    @Test
+    void shouldPickHighestCostUnderTarget() {
+        assertThat(BCryptCostCalibrator.costFor(250, 60, 10, 14)).isEqualTo(12);   // 60 -> 120 -> 240
+        assertThat(BCryptCostCalibrator.costFor(250, 400, 10, 14)).isEqualTo(10);  // never below the floor
+        assertThat(BCryptCostCalibrator.costFor(5000, 1, 10, 14)).isEqualTo(14);   // never above the ceiling
+    }
+
+    private static PasswordHashingProperties properties(int threads, int queueCapacity) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        return properties;
+    }
+
+    private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.dev.focusshield.utils.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, now::get);
+
+        assertThat(cache.get("a")).isNull();
+        cache.put("a", "value");
+
+        assertThat(cache.get("a")).isEqualTo("value");
+        assertThat(cache.get("a")).isEqualTo("value");
+        assertThat(cache.hitCount()).isEqualTo(2);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotReturnExpiredEntries() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, now::get);
+        cache.put("a", "value", 2_000L);
+
+        assertThat(cache.get("a")).isEqualTo("value");
+
+        now.set(2_000L);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldIgnoreEntriesThatAreAlreadyExpired() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, now::get);
+        cache.put("a", "value", 500L);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldStayWithinItsEntryBudget() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, now::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+        assertThat(cache.evictionCount()).isGreaterThan(0);
+    }
+
+    @Test
+    void shouldStayWithinItsWeightBudget() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(1_000L, String::length, now::get);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "x".repeat(100));
+        }
+
+        assertThat(cache.weight()).isLessThanOrEqualTo(1_000L);
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        assertThat(cache.evictionCount()).isGreaterThan(0);
+    }
+
+    @Test
+    void shouldGiveBackTheWeightOfReplacedAndRemovedEntries() {
+        BoundedCache<String, String> cache = new BoundedCache<>(1_000L, String::length, now::get);
+
+        cache.put("a", "12345");
+        cache.put("a", "123");
+        cache.put("b", "12", 2_000L);
+        assertThat(cache.weight()).isEqualTo(5);
+
+        cache.invalidate("a");
+        now.set(2_000L);
+        assertThat(cache.get("b")).isNull();
+
+        assertThat(cache.weight()).isZero();
+    }
+
+    @Test
+    void shouldEvictExpiredEntriesFirst() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, now::get);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, "short-lived", 1_500L);
+        }
+        now.set(1_600L);
+
+        cache.put(42, "fresh");
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(42)).isEqualTo("fresh");
+    }
+}
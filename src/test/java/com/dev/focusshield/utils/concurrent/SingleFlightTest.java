@@ -0,0 +1,138 @@
+package com.dev.focusshield.utils.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsShouldShareOneLoad() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<Integer>> results = new ArrayList<>();
+        results.add(executor.submit(() -> flight.execute("user", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return 42;
+        })));
+        waitUntil(() -> flight.inFlightCount() == 1);
+
+        CountDownLatch entered = new CountDownLatch(7);
+        List<Thread> waiters = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            results.add(executor.submit(() -> {
+                waiters.add(Thread.currentThread());
+                entered.countDown();
+                return flight.execute("user", () -> {
+                    loads.incrementAndGet();
+                    return -1;
+                });
+            }));
+        }
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        waitUntilWaiting(waiters);
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(flight.sharedCount()).isEqualTo(7);
+        assertThat(flight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void waitersShouldGetTheLoaderException() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> leader = executor.submit(() -> flight.execute("user", () -> {
+            await(release);
+            throw new IllegalArgumentException("boom");
+        }));
+        waitUntil(() -> flight.inFlightCount() == 1);
+        CountDownLatch entered = new CountDownLatch(1);
+        List<Thread> waiters = new CopyOnWriteArrayList<>();
+        Future<Integer> waiter = executor.submit(() -> {
+            waiters.add(Thread.currentThread());
+            entered.countDown();
+            return flight.execute("user", () -> 0);
+        });
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        waitUntilWaiting(waiters);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalArgumentException.class);
+        // Rien n'est retenu après un échec
+        assertThat(flight.execute("user", () -> 1)).isEqualTo(1);
+    }
+
+    @Test
+    void waiterShouldLoadOnItsOwnAfterMaxWait() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.submit(() -> flight.execute("user", () -> {
+            await(release);
+            return 1;
+        }));
+        waitUntil(() -> flight.inFlightCount() == 1);
+
+        assertThat(flight.execute("user", () -> 2)).isEqualTo(2);
+        assertThat(flight.timeoutCount()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    void differentKeysShouldNotWaitForEachOther() {
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofSeconds(5));
+
+        assertThat(flight.execute("a", () -> flight.execute("b", () -> "b") + "a")).isEqualTo("ba");
+        assertThat(flight.leaderCount()).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Entre le latch et la fin de execute, un appelant ne se suspend (TIMED_WAITING) qu'en attendant le chargement en cours
+    private static void waitUntilWaiting(List<Thread> waiters) throws InterruptedException {
+        waitUntil(() -> waiters.stream().allMatch(thread -> thread.getState() == Thread.State.TIMED_WAITING));
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.dev.focusshield.utils.converters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BlockedSitesConverterTest {
+
+    private final BlockedSitesConverter converter = new BlockedSitesConverter();
+
+    @Test
+    void shouldKeepNullAsNull() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    void shouldRoundTripEmptyAndUnicodeLists() {
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(List.of()))).isEmpty();
+
+        List<String> sites = List.of("youtube.com", "exemple.fr/défilé", "例え.jp", "");
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(sites)))
+                .containsExactlyElementsOf(sites);
+    }
+
+    @Test
+    void shouldStoreLargeListsCompactly() {
+        List<String> sites = IntStream.range(0, 5_000).mapToObj(i -> "site-" + i + ".example.com").toList();
+
+        byte[] data = converter.convertToDatabaseColumn(sites);
+
+        int payload = sites.stream().mapToInt(String::length).sum();
+        assertThat(data.length).isLessThanOrEqualTo(1 + 2 + payload + sites.size());
+        assertThat(converter.convertToEntityAttribute(data)).containsExactlyElementsOf(sites);
+    }
+
+    @Test
+    void shouldRejectUnknownFormatVersion() {
+        byte[] data = converter.convertToDatabaseColumn(List.of("a.com"));
+        data[0] = BlockedSitesConverter.FORMAT_VERSION + 1;
+
+        assertThatThrownBy(() -> converter.convertToEntityAttribute(data))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,56 @@
+package com.dev.focusshield.utils.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final RateLimitingTurboFilter filter = new RateLimitingTurboFilter();
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = context.getLogger("auth");
+        logger.setLevel(Level.INFO);
+        filter.setMaxPerPeriod(2);
+        filter.setPeriodSeconds(3600);
+        filter.start();
+    }
+
+    @Test
+    void shouldDropEventsOverTheLimitPerMessageKey() {
+        assertThat(decide(Level.WARN, "bad token {}")).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(Level.WARN, "bad token {}")).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(Level.WARN, "bad token {}")).isEqualTo(FilterReply.DENY);
+        // Another message pattern has its own budget
+        assertThat(decide(Level.WARN, "no token")).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void shouldIgnoreDisabledLevelsAndEnabledChecks() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(decide(Level.DEBUG, "debug {}")).isEqualTo(FilterReply.NEUTRAL);
+            assertThat(decide(Level.WARN, null)).isEqualTo(FilterReply.NEUTRAL);
+        }
+        assertThat(decide(Level.WARN, "bad token {}")).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void shouldRedactTokens() {
+        assertThat(TokenRedactingConverter.redact("token eyJhbGciOiJFUzI1NiJ9.eyJzdWIiOiJqYW5lIn0.c2ln rejected"))
+                .isEqualTo("token [REDACTED JWT] rejected");
+        assertThat(TokenRedactingConverter.redact("header Bearer abc.def-123")).isEqualTo("header Bearer [REDACTED]");
+        assertThat(TokenRedactingConverter.redact("nothing to hide")).isEqualTo("nothing to hide");
+    }
+
+    private FilterReply decide(Level level, String format) {
+        return filter.decide(null, logger, level, format, null, null);
+    }
+}
@@ -0,0 +1,53 @@
+package com.dev.focusshield.utils.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedTokenBucketLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void shouldAllowBurstThenRejectUntilRefill() {
+        StripedTokenBucketLimiter limiter = new StripedTokenBucketLimiter(3, 6, 4, 100, clock::get);
+
+        assertThat(limiter.tryAcquire("jane@example.com")).isZero();
+        assertThat(limiter.tryAcquire("jane@example.com")).isZero();
+        assertThat(limiter.tryAcquire("jane@example.com")).isZero();
+        long wait = limiter.tryAcquire("jane@example.com");
+        assertThat(wait).isEqualTo(TimeUnit.SECONDS.toNanos(10)); // 6 tokens per minute
+        // Other keys are independent
+        assertThat(limiter.tryAcquire("john@example.com")).isZero();
+
+        clock.addAndGet(wait);
+        assertThat(limiter.tryAcquire("jane@example.com")).isZero();
+        assertThat(limiter.tryAcquire("jane@example.com")).isPositive();
+    }
+
+    @Test
+    void shouldEvictOnlyBucketsThatAreFullAgain() {
+        StripedTokenBucketLimiter limiter = new StripedTokenBucketLimiter(2, 60, 1, 100, clock::get);
+        limiter.tryAcquire("idle");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limiter.tryAcquire("recent");
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1)); // "idle" is full again (2 tokens at 1/s), "recent" is not
+        assertThat(limiter.evictIdle()).isEqualTo(1);
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBoundTrackedKeys() {
+        StripedTokenBucketLimiter limiter = new StripedTokenBucketLimiter(1, 1, 2, 10, clock::get);
+
+        for (int i = 0; i < 1_000; i++) {
+            limiter.tryAcquire("10.0.0." + i);
+        }
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(20);
+    }
+}